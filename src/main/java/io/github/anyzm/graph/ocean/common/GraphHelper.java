@@ -8,6 +8,7 @@ package io.github.anyzm.graph.ocean.common;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
 import io.github.anyzm.graph.ocean.annotation.GraphProperty;
+import io.github.anyzm.graph.ocean.common.utils.EscapeUtils;
 import io.github.anyzm.graph.ocean.dao.GraphValueFormatter;
 import io.github.anyzm.graph.ocean.domain.GraphLabel;
 import io.github.anyzm.graph.ocean.domain.GraphLabelBuilder;
@@ -35,8 +36,6 @@ import java.util.regex.Pattern;
  */
 @Log4j2
 public class GraphHelper {
-    private static String ENDPOINT_TEMPLATE = "%s(\"%s\")";
-    private static String STRING_ID_TEMPLATE = "%s \"%s\" ";
     public static final Pattern SPECIAL_CHAR_PATTERN = Pattern.compile("[\n\t\"\'()<>/\\\\]");
 
 
@@ -62,11 +61,24 @@ public class GraphHelper {
     }
 
     private static String generateKeyPolicy(GraphKeyPolicy graphKeyPolicy, String vertexIdKey) {
+        return appendKeyPolicy(new StringBuilder(vertexIdKey.length() + 12), graphKeyPolicy, vertexIdKey).toString();
+    }
+
+    /**
+     * 按主键策略把顶点id直接写入 builder：字符串主键为 空格"id"空格，其他为 hash("id")/uuid("id")
+     *
+     * @param builder        sql builder
+     * @param graphKeyPolicy 主键策略
+     * @param vertexIdKey    顶点id
+     * @return builder
+     */
+    public static StringBuilder appendKeyPolicy(StringBuilder builder, GraphKeyPolicy graphKeyPolicy, String vertexIdKey) {
         if (graphKeyPolicy.equals(GraphKeyPolicy.string_key)) {
-            return String.format(STRING_ID_TEMPLATE, graphKeyPolicy.getKeyWrapWord(), vertexIdKey);
-        } else {
-            return String.format(ENDPOINT_TEMPLATE, graphKeyPolicy.getKeyWrapWord(), vertexIdKey);
+            return EscapeUtils.appendEscaped(builder.append(graphKeyPolicy.getKeyWrapWord()).append(" \""), vertexIdKey)
+                    .append("\" ");
         }
+        return EscapeUtils.appendEscaped(builder.append(graphKeyPolicy.getKeyWrapWord()).append("(\""), vertexIdKey)
+                .append("\")");
     }
 
     public static String getQueryId(GraphVertexType vertexTag, String vertexKey) {
@@ -75,18 +87,30 @@ public class GraphHelper {
         return generateKeyPolicy(graphKeyPolicy, vertexIdKey);
     }
 
+    public static StringBuilder appendQueryId(StringBuilder builder, GraphVertexType vertexTag, String vertexKey) {
+        return appendKeyPolicy(builder, vertexTag.getGraphKeyPolicy(), vertexTag.getVertexIdKey(vertexKey));
+    }
+
     public static String getQuerySrcId(GraphEdgeType edgeType, String vertexKey) {
         String vertexIdKey = edgeType.getSrcIdKey(vertexKey);
         GraphKeyPolicy graphKeyPolicy = edgeType.getSrcVertexType().getGraphKeyPolicy();
         return generateKeyPolicy(graphKeyPolicy, vertexIdKey);
     }
 
+    public static StringBuilder appendQuerySrcId(StringBuilder builder, GraphEdgeType edgeType, String vertexKey) {
+        return appendKeyPolicy(builder, edgeType.getSrcVertexType().getGraphKeyPolicy(), edgeType.getSrcIdKey(vertexKey));
+    }
+
     public static String getQueryDstId(GraphEdgeType edgeType, String vertexKey) {
         String vertexIdKey = edgeType.getDstIdKey(vertexKey);
         GraphKeyPolicy graphKeyPolicy = edgeType.getDstVertexType().getGraphKeyPolicy();
         return generateKeyPolicy(graphKeyPolicy, vertexIdKey);
     }
 
+    public static StringBuilder appendQueryDstId(StringBuilder builder, GraphEdgeType edgeType, String vertexKey) {
+        return appendKeyPolicy(builder, edgeType.getDstVertexType().getGraphKeyPolicy(), edgeType.getDstIdKey(vertexKey));
+    }
+
     /**
      * 顶点列表id
      *
@@ -101,7 +125,7 @@ public class GraphHelper {
         }
 
         for (String vertexId : vertexKeyList) {
-            stringBuilder.append(getQueryId(vertexTag, vertexId)).append(",");
+            appendQueryId(stringBuilder, vertexTag, vertexId).append(",");
         }
         return stringBuilder.substring(0, stringBuilder.length() - 1);
     }
@@ -112,7 +136,9 @@ public class GraphHelper {
      *
      * @param str
      * @return
+     * @deprecated 会丢失数据，生成语句时使用 {@link EscapeUtils} 转义
      */
+    @Deprecated
     public static String removeSpecialChar(String str) {
         return SPECIAL_CHAR_PATTERN.matcher(str).replaceAll("");
     }
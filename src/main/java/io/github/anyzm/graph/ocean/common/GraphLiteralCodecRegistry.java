@@ -0,0 +1,270 @@
+/* Copyright (c) 2022 com.github.anyzm. All rights reserved.
+ *
+ * This source code is licensed under Apache 2.0 License,
+ * attached with Common Clause Condition 1.0, found in the LICENSES directory.
+ */
+package io.github.anyzm.graph.ocean.common;
+
+import com.vesoft.nebula.DateTime;
+import com.vesoft.nebula.client.graph.data.DateTimeWrapper;
+import com.vesoft.nebula.client.graph.data.DateWrapper;
+import io.github.anyzm.graph.ocean.common.utils.EscapeUtils;
+import io.github.anyzm.graph.ocean.dao.GraphLiteralCodec;
+import io.github.anyzm.graph.ocean.enums.GraphDataTypeEnum;
+import io.github.anyzm.graph.ocean.exception.CheckThrower;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.Date;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Description  GraphLiteralCodecRegistry is used for
+ * nGQL 字面量编码注册表，按 (属性类型, java类型) 查找编码器：
+ * 数字和布尔值直接写入，DATE/DATE_TIME/TIMESTAMP 的 java 时间对象写成 date("...")/datetime("...")/秒级时间戳，
+ * 字符串属性转义后加引号；已经是字符串的时间值视为格式化器生成的字面量原样写入，
+ * 未注册的类型按父类和接口查找，找不到时使用属性类型的默认编码器
+ *
+ * @author Anyzm
+ * Date  2026/10/17 - 21:40
+ * @version 1.0.0
+ */
+public final class GraphLiteralCodecRegistry {
+
+    private GraphLiteralCodecRegistry() {
+    }
+
+    private static final String NULL = "NULL";
+
+    /**
+     * 原样写入
+     */
+    public static final GraphLiteralCodec RAW = StringBuilder::append;
+
+    public static final GraphLiteralCodec QUOTED = EscapeUtils::appendQuoted;
+
+    /**
+     * 属性类型 -> (java类型 -> 注册的编码器)
+     */
+    private static final Map<GraphDataTypeEnum, Map<Class<?>, GraphLiteralCodec>> CODECS =
+            new EnumMap<>(GraphDataTypeEnum.class);
+
+    /**
+     * 属性类型 -> (值的实际类型 -> 解析出的编码器)，注册新编码器时清空
+     */
+    private static final Map<GraphDataTypeEnum, Map<Class<?>, GraphLiteralCodec>> RESOLVED =
+            new EnumMap<>(GraphDataTypeEnum.class);
+
+    /**
+     * 属性类型 -> 默认编码器
+     */
+    private static final Map<GraphDataTypeEnum, GraphLiteralCodec> DEFAULT_CODECS =
+            new EnumMap<>(GraphDataTypeEnum.class);
+
+    /**
+     * 属性类型未知时按java类型编码
+     */
+    private static final Map<Class<?>, GraphLiteralCodec> UNTYPED_CODECS = new ConcurrentHashMap<>();
+
+    private static final Map<Class<?>, GraphLiteralCodec> UNTYPED_RESOLVED = new ConcurrentHashMap<>();
+
+    static {
+        for (GraphDataTypeEnum graphDataTypeEnum : GraphDataTypeEnum.values()) {
+            CODECS.put(graphDataTypeEnum, new ConcurrentHashMap<>());
+            RESOLVED.put(graphDataTypeEnum, new ConcurrentHashMap<>());
+            DEFAULT_CODECS.put(graphDataTypeEnum, RAW);
+        }
+        DEFAULT_CODECS.put(GraphDataTypeEnum.STRING, QUOTED);
+        GraphLiteralCodec integer = (builder, value) -> builder.append(((Number) value).longValue());
+        GraphLiteralCodec floating = (builder, value) -> builder.append(((Double) value).doubleValue());
+        GraphLiteralCodec singleFloating = (builder, value) -> builder.append(((Float) value).floatValue());
+        GraphLiteralCodec bool = (builder, value) -> builder.append(((Boolean) value).booleanValue());
+        for (Class<?> type : new Class<?>[]{Long.class, Integer.class, Short.class, Byte.class}) {
+            register(GraphDataTypeEnum.INT, type, integer);
+            register(GraphDataTypeEnum.TIMESTAMP, type, integer);
+            register(GraphDataTypeEnum.DOUBLE, type, integer);
+            registerUntyped(type, integer);
+        }
+        register(GraphDataTypeEnum.DOUBLE, Double.class, floating);
+        registerUntyped(Double.class, floating);
+        register(GraphDataTypeEnum.DOUBLE, Float.class, singleFloating);
+        registerUntyped(Float.class, singleFloating);
+        register(GraphDataTypeEnum.BOOLEAN, Boolean.class, bool);
+        registerUntyped(Boolean.class, bool);
+
+        GraphLiteralCodec date = (builder, value) -> appendDate(builder, (LocalDate) value);
+        GraphLiteralCodec dateWrapper = (builder, value) -> {
+            DateWrapper wrapper = (DateWrapper) value;
+            appendDate(builder, wrapper.getYear(), wrapper.getMonth(), wrapper.getDay());
+        };
+        GraphLiteralCodec dateOfDate = (builder, value) -> appendDate(builder, toLocalDateTime((Date) value).toLocalDate());
+        register(GraphDataTypeEnum.DATE, LocalDate.class, date);
+        register(GraphDataTypeEnum.DATE, DateWrapper.class, dateWrapper);
+        register(GraphDataTypeEnum.DATE, Date.class, dateOfDate);
+        registerUntyped(LocalDate.class, date);
+        registerUntyped(DateWrapper.class, dateWrapper);
+
+        GraphLiteralCodec dateTime = (builder, value) -> appendDateTime(builder, (LocalDateTime) value);
+        GraphLiteralCodec dateTimeWrapper = (builder, value) -> {
+            DateTime local = ((DateTimeWrapper) value).getLocalDateTime();
+            appendDateTime(builder, local.getYear(), local.getMonth(), local.getDay(), local.getHour(),
+                    local.getMinute(), local.getSec(), local.getMicrosec());
+        };
+        GraphLiteralCodec dateTimeOfDate = (builder, value) -> appendDateTime(builder, toLocalDateTime((Date) value));
+        register(GraphDataTypeEnum.DATE_TIME, LocalDateTime.class, dateTime);
+        register(GraphDataTypeEnum.DATE_TIME, DateTimeWrapper.class, dateTimeWrapper);
+        register(GraphDataTypeEnum.DATE_TIME, Date.class, dateTimeOfDate);
+        register(GraphDataTypeEnum.DATE_TIME, ZonedDateTime.class, (builder, value) ->
+                appendDateTime(builder, ((ZonedDateTime) value).withZoneSameInstant(ZoneId.systemDefault()).toLocalDateTime()));
+        register(GraphDataTypeEnum.DATE_TIME, OffsetDateTime.class, (builder, value) ->
+                appendDateTime(builder, ((OffsetDateTime) value).atZoneSameInstant(ZoneId.systemDefault()).toLocalDateTime()));
+        registerUntyped(LocalDateTime.class, dateTime);
+        registerUntyped(DateTimeWrapper.class, dateTimeWrapper);
+
+        register(GraphDataTypeEnum.TIMESTAMP, Date.class, (builder, value) -> builder.append(((Date) value).getTime() / 1000));
+        register(GraphDataTypeEnum.TIMESTAMP, Instant.class, (builder, value) -> builder.append(((Instant) value).getEpochSecond()));
+        register(GraphDataTypeEnum.TIMESTAMP, LocalDateTime.class, (builder, value) ->
+                builder.append(((LocalDateTime) value).atZone(ZoneId.systemDefault()).toEpochSecond()));
+        register(GraphDataTypeEnum.TIMESTAMP, ZonedDateTime.class, (builder, value) ->
+                builder.append(((ZonedDateTime) value).toEpochSecond()));
+        register(GraphDataTypeEnum.TIMESTAMP, OffsetDateTime.class, (builder, value) ->
+                builder.append(((OffsetDateTime) value).toEpochSecond()));
+    }
+
+    /**
+     * 注册编码器，覆盖同类型已有的编码器
+     *
+     * @param graphDataTypeEnum 属性类型
+     * @param javaType          java类型，子类没有单独注册时也使用该编码器
+     * @param codec             编码器
+     */
+    public static void register(GraphDataTypeEnum graphDataTypeEnum, Class<?> javaType, GraphLiteralCodec codec) {
+        CheckThrower.ifTrueThrow(graphDataTypeEnum == null || javaType == null || codec == null,
+                "DataType, javaType and codec must not be null");
+        CODECS.get(graphDataTypeEnum).put(javaType, codec);
+        RESOLVED.get(graphDataTypeEnum).clear();
+    }
+
+    /**
+     * 注册属性类型未知时使用的编码器
+     *
+     * @param javaType java类型
+     * @param codec    编码器
+     */
+    public static void registerUntyped(Class<?> javaType, GraphLiteralCodec codec) {
+        CheckThrower.ifTrueThrow(javaType == null || codec == null, "JavaType and codec must not be null");
+        UNTYPED_CODECS.put(javaType, codec);
+        UNTYPED_RESOLVED.clear();
+    }
+
+    /**
+     * 按属性类型写入字面量，null 写为 NULL，属性类型为 null 时按java类型推断
+     *
+     * @param builder           sql builder
+     * @param graphDataTypeEnum 属性类型
+     * @param value             属性值
+     * @return builder
+     */
+    public static StringBuilder append(StringBuilder builder, GraphDataTypeEnum graphDataTypeEnum, Object value) {
+        if (value == null) {
+            return builder.append(NULL);
+        }
+        getCodec(graphDataTypeEnum, value.getClass()).append(builder, value);
+        return builder;
+    }
+
+    /**
+     * @param graphDataTypeEnum 属性类型，null 表示按java类型推断
+     * @param javaType          值的实际类型
+     * @return 编码器
+     */
+    public static GraphLiteralCodec getCodec(GraphDataTypeEnum graphDataTypeEnum, Class<?> javaType) {
+        Map<Class<?>, GraphLiteralCodec> resolved = graphDataTypeEnum == null ? UNTYPED_RESOLVED : RESOLVED.get(graphDataTypeEnum);
+        GraphLiteralCodec codec = resolved.get(javaType);
+        if (codec == null) {
+            codec = resolve(graphDataTypeEnum == null ? UNTYPED_CODECS : CODECS.get(graphDataTypeEnum), javaType);
+            if (codec == null) {
+                codec = graphDataTypeEnum == null ? RAW : DEFAULT_CODECS.get(graphDataTypeEnum);
+            }
+            resolved.put(javaType, codec);
+        }
+        return codec;
+    }
+
+    private static GraphLiteralCodec resolve(Map<Class<?>, GraphLiteralCodec> codecs, Class<?> javaType) {
+        for (Class<?> type = javaType; type != null && type != Object.class; type = type.getSuperclass()) {
+            GraphLiteralCodec codec = codecs.get(type);
+            if (codec != null) {
+                return codec;
+            }
+            for (Class<?> anInterface : type.getInterfaces()) {
+                codec = codecs.get(anInterface);
+                if (codec != null) {
+                    return codec;
+                }
+            }
+        }
+        return null;
+    }
+
+    private static LocalDateTime toLocalDateTime(Date date) {
+        if (date instanceof java.sql.Date) {
+            return ((java.sql.Date) date).toLocalDate().atStartOfDay();
+        }
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(date.getTime()), ZoneId.systemDefault());
+    }
+
+    private static void appendDate(StringBuilder builder, LocalDate date) {
+        appendDate(builder, date.getYear(), date.getMonthValue(), date.getDayOfMonth());
+    }
+
+    private static void appendDate(StringBuilder builder, int year, int month, int day) {
+        builder.append("date(\"");
+        appendYearMonthDay(builder, year, month, day);
+        builder.append("\")");
+    }
+
+    private static void appendDateTime(StringBuilder builder, LocalDateTime dateTime) {
+        appendDateTime(builder, dateTime.getYear(), dateTime.getMonthValue(), dateTime.getDayOfMonth(),
+                dateTime.getHour(), dateTime.getMinute(), dateTime.getSecond(), dateTime.getNano() / 1000);
+    }
+
+    /**
+     * datetime("yyyy-MM-ddTHH:mm:ss.SSSSSS")，按会话时区解释
+     */
+    private static void appendDateTime(StringBuilder builder, int year, int month, int day, int hour, int minute,
+                                       int second, int microsecond) {
+        builder.append("datetime(\"");
+        appendYearMonthDay(builder, year, month, day);
+        builder.append('T');
+        appendPadded(builder, hour, 2).append(':');
+        appendPadded(builder, minute, 2).append(':');
+        appendPadded(builder, second, 2);
+        if (microsecond > 0) {
+            appendPadded(builder.append('.'), microsecond, 6);
+        }
+        builder.append("\")");
+    }
+
+    private static void appendYearMonthDay(StringBuilder builder, int year, int month, int day) {
+        appendPadded(builder, year, 4).append('-');
+        appendPadded(builder, month, 2).append('-');
+        appendPadded(builder, day, 2);
+    }
+
+    private static StringBuilder appendPadded(StringBuilder builder, int value, int width) {
+        for (int bound = 10, i = 1; i < width; i++, bound *= 10) {
+            if (value < bound) {
+                builder.append('0');
+            }
+        }
+        return builder.append(value);
+    }
+
+}
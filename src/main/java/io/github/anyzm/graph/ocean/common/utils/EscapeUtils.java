@@ -0,0 +1,113 @@
+/* Copyright (c) 2022 com.github.anyzm. All rights reserved.
+ *
+ * This source code is licensed under Apache 2.0 License,
+ * attached with Common Clause Condition 1.0, found in the LICENSES directory.
+ */
+package io.github.anyzm.graph.ocean.common.utils;
+
+/**
+ * Description  EscapeUtils is used for
+ * nGQL 字符串字面量转义：按字符查表，一次扫描写出转义后的内容，
+ * 不含需要转义字符的值直接整体复制；反斜杠、单双引号和换行制表符会被转义，其余字符原样保留
+ *
+ * @author Anyzm
+ * Date  2026/10/17 - 21:10
+ * @version 1.0.0
+ */
+public final class EscapeUtils {
+
+    private EscapeUtils() {
+    }
+
+    /**
+     * 字符 -> 转义后的写法，不需要转义的字符为 null，只覆盖 ASCII 范围
+     */
+    private static final String[] ESCAPES = new String[128];
+
+    static {
+        ESCAPES['\\'] = "\\\\";
+        ESCAPES['"'] = "\\\"";
+        ESCAPES['\''] = "\\'";
+        ESCAPES['\n'] = "\\n";
+        ESCAPES['\r'] = "\\r";
+        ESCAPES['\t'] = "\\t";
+    }
+
+    private static int firstEscapeIndex(CharSequence value) {
+        for (int i = 0, length = value.length(); i < length; i++) {
+            char c = value.charAt(i);
+            if (c < 128 && ESCAPES[c] != null) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * @param value 原始值
+     * @return 是否包含需要转义的字符
+     */
+    public static boolean needsEscape(CharSequence value) {
+        return value != null && firstEscapeIndex(value) >= 0;
+    }
+
+    /**
+     * 把转义后的值写入 builder，不加引号
+     *
+     * @param builder sql builder
+     * @param value   原始值，null 写为 null
+     * @return builder
+     */
+    public static StringBuilder appendEscaped(StringBuilder builder, Object value) {
+        CharSequence chars = value instanceof CharSequence ? (CharSequence) value : String.valueOf(value);
+        int index = firstEscapeIndex(chars);
+        if (index < 0) {
+            return builder.append(chars);
+        }
+        int length = chars.length();
+        int start = 0;
+        for (; index < length; index++) {
+            char c = chars.charAt(index);
+            String escape = c < 128 ? ESCAPES[c] : null;
+            if (escape != null) {
+                builder.append(chars, start, index).append(escape);
+                start = index + 1;
+            }
+        }
+        return builder.append(chars, start, length);
+    }
+
+    /**
+     * 写入双引号包围的字符串字面量
+     *
+     * @param builder sql builder
+     * @param value   原始值
+     * @return builder
+     */
+    public static StringBuilder appendQuoted(StringBuilder builder, Object value) {
+        return appendEscaped(builder.append('"'), value).append('"');
+    }
+
+    /**
+     * 写入单引号包围的字符串字面量
+     *
+     * @param builder sql builder
+     * @param value   原始值
+     * @return builder
+     */
+    public static StringBuilder appendSingleQuoted(StringBuilder builder, Object value) {
+        return appendEscaped(builder.append('\''), value).append('\'');
+    }
+
+    /**
+     * @param value 原始值
+     * @return 转义后的值，不需要转义时返回原对象
+     */
+    public static String escape(String value) {
+        if (value == null || firstEscapeIndex(value) < 0) {
+            return value;
+        }
+        return appendEscaped(new StringBuilder(value.length() + 8), value).toString();
+    }
+
+}
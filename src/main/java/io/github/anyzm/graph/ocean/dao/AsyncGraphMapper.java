@@ -0,0 +1,196 @@
+/* Copyright (c) 2022 com.github.anyzm. All rights reserved.
+ *
+ * This source code is licensed under Apache 2.0 License,
+ * attached with Common Clause Condition 1.0, found in the LICENSES directory.
+ */
+package io.github.anyzm.graph.ocean.dao;
+
+
+import io.github.anyzm.graph.ocean.domain.GraphQuery;
+import io.github.anyzm.graph.ocean.domain.impl.QueryResult;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+
+/**
+ * Description  AsyncGraphMapper is used for
+ * GraphMapper 的异步版本，所有方法立即返回 CompletableFuture，
+ * 调用方可以同时发起多个互不依赖的图查询，异常通过 future 异常完成传递
+ *
+ * @author Anyzm
+ * Date  2026/10/17 - 15:20
+ * @version 1.0.0
+ */
+public interface AsyncGraphMapper {
+
+    /**
+     * 批量保存顶点信息
+     *
+     * @param entities 顶点
+     * @param <T> 顶点类型
+     * @return 更新状态
+     */
+    public <T> CompletableFuture<Integer> saveVertexEntities(List<T> entities);
+
+    /**
+     * 批量保存边信息和顶点信息
+     *
+     * @param entities 实体
+     * @param srcVertexEntityFunction 起点构造器
+     * @param dstVertexEntityFunction 终点构造器
+     * @param <S> 起点
+     * @param <T> 终点
+     * @param <E> 边
+     * @return 更新状态码
+     */
+    public <S, T, E> CompletableFuture<Integer> saveEdgeEntitiesWithVertex(List<E> entities, Function<String, S> srcVertexEntityFunction,
+                                                                           Function<String, T> dstVertexEntityFunction);
+
+    /**
+     * 批量保存边信息
+     *
+     * @param entities 边
+     * @return 更新状态码
+     */
+    public <S, T, E> CompletableFuture<Integer> saveEdgeEntities(List<E> entities);
+
+    /**
+     * 批量删除顶点，不删除关联的边
+     *
+     * @param vertexClazz 顶点类类型
+     * @param vertexIds 顶点id
+     * @param <T> 顶点类型
+     * @return 更新状态码
+     */
+    public <T> CompletableFuture<Integer> deleteVertices(Class<T> vertexClazz, Collection<String> vertexIds);
+
+    /**
+     * 批量删除顶点以及顶点关联的出边和入边
+     *
+     * @param vertexClazz 顶点类类型
+     * @param vertexIds 顶点id
+     * @param <T> 顶点类型
+     * @return 更新状态码
+     */
+    public <T> CompletableFuture<Integer> deleteVerticesWithEdges(Class<T> vertexClazz, Collection<String> vertexIds);
+
+    /**
+     * 批量删除边
+     *
+     * @param entities 边
+     * @param <E> 边类型
+     * @return 更新状态码
+     */
+    public <E> CompletableFuture<Integer> deleteEdges(List<E> entities);
+
+    /**
+     * 批量执行更新语句
+     *
+     * @param space 图空间
+     * @param sqlList sql列表
+     * @return 更新状态码
+     */
+    public CompletableFuture<Integer> executeBatchUpdateSql(String space, List<String> sqlList);
+
+    /**
+     * 执行更新sql
+     *
+     * @param space 图空间
+     * @param sql sql
+     * @return 更新状态码
+     */
+    public CompletableFuture<Integer> executeUpdateSql(String space, String sql);
+
+    /**
+     * 执行更新sql
+     *
+     * @param sql sql
+     * @return 更新状态码
+     */
+    public CompletableFuture<Integer> executeUpdateSql(String sql);
+
+    /**
+     * 执行查询
+     *
+     * @param sql sql
+     * @return 查询结果
+     */
+    public CompletableFuture<QueryResult> executeQuerySql(String sql);
+
+    /**
+     * 执行查询
+     *
+     * @param space 图空间
+     * @param sql sql
+     * @return 查询结果
+     */
+    public CompletableFuture<QueryResult> executeQuerySql(String space, String sql);
+
+    /**
+     * 执行查询
+     *
+     * @param sql ngql
+     * @param clazz 类类型
+     * @param <T> 实体
+     * @return 查询的实体列表
+     */
+    public <T> CompletableFuture<List<T>> executeQuerySql(String sql, Class<T> clazz);
+
+    /**
+     * 执行查询
+     *
+     * @param query 查询api
+     * @return 查询结果
+     */
+    public CompletableFuture<QueryResult> executeQuery(GraphQuery query);
+
+    /**
+     * 指定空间执行查询
+     *
+     * @param space 图空间
+     * @param query 查询API
+     * @return 查询结果
+     */
+    public CompletableFuture<QueryResult> executeQuery(String space, GraphQuery query);
+
+    /**
+     * 执行查询
+     *
+     * @param query 查询API
+     * @param clazz 类类型
+     * @param <T> 顶点
+     * @return 实体列表
+     */
+    public <T> CompletableFuture<List<T>> executeQuery(GraphQuery query, Class<T> clazz);
+
+    /**
+     * 查询边
+     *
+     * @param edgeClazz 边类类型
+     * @param vertexIds 顶点id
+     * @return 出边列表
+     */
+    public <T> CompletableFuture<List<T>> goOutEdge(Class<T> edgeClazz, String... vertexIds);
+
+    /**
+     * 查询反向边
+     *
+     * @param edgeClazz 边类类型
+     * @param vertexIds 顶点id
+     * @param <T> 入边类型
+     * @return 入边列表
+     */
+    public <T> CompletableFuture<List<T>> goReverseEdge(Class<T> edgeClazz, String... vertexIds);
+
+    /**
+     * 查询tag
+     *
+     * @param vertexClazz 顶点类型
+     * @param vertexIds 顶点id
+     * @return 顶点列表
+     */
+    public <T> CompletableFuture<List<T>> fetchVertexTag(Class<T> vertexClazz, String... vertexIds);
+
+}
@@ -0,0 +1,24 @@
+/* Copyright (c) 2022 com.github.anyzm. All rights reserved.
+ *
+ * This source code is licensed under Apache 2.0 License,
+ * attached with Common Clause Condition 1.0, found in the LICENSES directory.
+ */
+package io.github.anyzm.graph.ocean.dao;
+
+/**
+ * 业务说明：把java值写成 nGQL 字面量，按属性类型和java类型在 GraphLiteralCodecRegistry 中注册
+ *
+ * @author Anyzm
+ * date 2026/10/17
+ **/
+public interface GraphLiteralCodec {
+
+    /**
+     * 直接写入语句缓冲区，不生成中间字符串
+     *
+     * @param builder sql builder
+     * @param value   非空的属性值
+     */
+    public void append(StringBuilder builder, Object value);
+
+}
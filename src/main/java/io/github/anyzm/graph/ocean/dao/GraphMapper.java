@@ -15,8 +15,11 @@ import io.github.anyzm.graph.ocean.exception.NebulaException;
 import com.vesoft.nebula.client.graph.exception.NotValidConnectionException;
 
 import java.io.UnsupportedEncodingException;
+import java.util.Collection;
+import java.util.Iterator;
 import java.util.List;
 import java.util.function.Function;
+import java.util.stream.Stream;
 
 /**
  * Description  GraphMapper is used for
@@ -64,6 +67,85 @@ public interface GraphMapper {
     public <S, T, E> int saveEdgeEntities(List<E> entities) throws NebulaException, ClientServerIncompatibleException, AuthFailedException, NotValidConnectionException, IOErrorException;
 
 
+    /**
+     * 流式保存顶点信息，按批次转换和写入，不需要一次性加载全部实体
+     *
+     * @param entities 顶点流
+     * @param <T> 顶点类型
+     * @return 保存的顶点数
+     * @throws NebulaException nebula异常
+     */
+    public <T> long saveVertexStream(Stream<T> entities) throws NebulaException, ClientServerIncompatibleException, AuthFailedException, NotValidConnectionException, IOErrorException;
+
+
+    /**
+     * 流式保存顶点信息，按批次转换和写入，不需要一次性加载全部实体
+     *
+     * @param entities 顶点迭代器
+     * @param <T> 顶点类型
+     * @return 保存的顶点数
+     * @throws NebulaException nebula异常
+     */
+    public <T> long saveVertexStream(Iterator<T> entities) throws NebulaException, ClientServerIncompatibleException, AuthFailedException, NotValidConnectionException, IOErrorException;
+
+
+    /**
+     * 流式保存边信息，按批次转换和写入，不需要一次性加载全部实体
+     *
+     * @param entities 边流
+     * @param <E> 边类型
+     * @return 保存的边数
+     * @throws NebulaException nebula异常
+     */
+    public <E> long saveEdgeStream(Stream<E> entities) throws NebulaException, ClientServerIncompatibleException, AuthFailedException, NotValidConnectionException, IOErrorException;
+
+
+    /**
+     * 流式保存边信息，按批次转换和写入，不需要一次性加载全部实体
+     *
+     * @param entities 边迭代器
+     * @param <E> 边类型
+     * @return 保存的边数
+     * @throws NebulaException nebula异常
+     */
+    public <E> long saveEdgeStream(Iterator<E> entities) throws NebulaException, ClientServerIncompatibleException, AuthFailedException, NotValidConnectionException, IOErrorException;
+
+
+    /**
+     * 批量删除顶点，不删除关联的边
+     *
+     * @param vertexClazz 顶点类类型
+     * @param vertexIds 顶点id
+     * @param <T> 顶点类型
+     * @return 更新状态码
+     * @throws NebulaException nebula异常
+     */
+    public <T> int deleteVertices(Class<T> vertexClazz, Collection<String> vertexIds) throws NebulaException, ClientServerIncompatibleException, AuthFailedException, NotValidConnectionException, IOErrorException;
+
+
+    /**
+     * 批量删除顶点以及顶点关联的出边和入边
+     *
+     * @param vertexClazz 顶点类类型
+     * @param vertexIds 顶点id
+     * @param <T> 顶点类型
+     * @return 更新状态码
+     * @throws NebulaException nebula异常
+     */
+    public <T> int deleteVerticesWithEdges(Class<T> vertexClazz, Collection<String> vertexIds) throws NebulaException, ClientServerIncompatibleException, AuthFailedException, NotValidConnectionException, IOErrorException;
+
+
+    /**
+     * 批量删除边
+     *
+     * @param entities 边
+     * @param <E> 边类型
+     * @return 更新状态码
+     * @throws NebulaException nebula异常
+     */
+    public <E> int deleteEdges(List<E> entities) throws NebulaException, ClientServerIncompatibleException, AuthFailedException, NotValidConnectionException, IOErrorException;
+
+
     /**
      * 批量执行更新语句
      *
@@ -5,6 +5,9 @@
  */
 package io.github.anyzm.graph.ocean.domain;
 
+import java.util.Collections;
+import java.util.Map;
+
 /**
  * Description  GraphExpression is used for
  *
@@ -21,4 +24,13 @@ public interface GraphExpression {
      */
     public String buildSql();
 
+    /**
+     * 语句中占位符对应的绑定参数
+     *
+     * @return 参数名(不含$) -> 参数值
+     */
+    public default Map<String, Object> getParameters() {
+        return Collections.emptyMap();
+    }
+
 }
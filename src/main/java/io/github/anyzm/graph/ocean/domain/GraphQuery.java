@@ -5,6 +5,7 @@
  */
 package io.github.anyzm.graph.ocean.domain;
 
+import java.util.Collections;
 import java.util.Map;
 
 /**
@@ -23,6 +24,15 @@ public interface GraphQuery {
      */
     public String buildSql();
 
+    /**
+     * 语句中占位符对应的绑定参数，不为空时通过 executeWithParameter 执行
+     *
+     * @return 参数名(不含$) -> 参数值
+     */
+    public default Map<String, Object> getParameters() {
+        return Collections.emptyMap();
+    }
+
     /**
      * 连接两个查询片段
      *
@@ -8,6 +8,7 @@ package io.github.anyzm.graph.ocean.domain.impl;
 import io.github.anyzm.graph.ocean.dao.GraphValueFormatter;
 import io.github.anyzm.graph.ocean.domain.AbstractGraphLabel;
 import io.github.anyzm.graph.ocean.enums.GraphDataTypeEnum;
+import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.Setter;
 
@@ -46,6 +47,13 @@ public class GraphEdgeType<S, T, E> extends AbstractGraphLabel {
 
     private GraphValueFormatter dstIdValueFormatter;
 
+    /**
+     * 预编译的 UPSERT 模板，第一次生成语句时编译
+     */
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private transient volatile GraphUpsertTemplate upsertTemplate;
+
     protected GraphEdgeType() {
     }
 
@@ -90,6 +98,20 @@ public class GraphEdgeType<S, T, E> extends AbstractGraphLabel {
         return vertexKey;
     }
 
+    /**
+     * 类型随缓存常驻，模板只编译一次，并发编译的结果相同，不需要加锁
+     *
+     * @return UPSERT 语句模板
+     */
+    public GraphUpsertTemplate getUpsertTemplate() {
+        GraphUpsertTemplate template = this.upsertTemplate;
+        if (template == null) {
+            template = GraphUpsertTemplate.compile(this);
+            this.upsertTemplate = template;
+        }
+        return template;
+    }
+
 
     @Override
     public boolean isTag() {
@@ -0,0 +1,171 @@
+/* Copyright (c) 2022 com.github.anyzm. All rights reserved.
+ *
+ * This source code is licensed under Apache 2.0 License,
+ * attached with Common Clause Condition 1.0, found in the LICENSES directory.
+ */
+package io.github.anyzm.graph.ocean.domain.impl;
+
+import com.google.common.collect.ImmutableMap;
+import io.github.anyzm.graph.ocean.common.GraphLiteralCodecRegistry;
+import io.github.anyzm.graph.ocean.common.utils.EscapeUtils;
+import io.github.anyzm.graph.ocean.enums.GraphDataTypeEnum;
+import io.github.anyzm.graph.ocean.enums.GraphKeyPolicy;
+
+import java.util.Map;
+
+/**
+ * Description  GraphUpsertTemplate is used for
+ * 预编译的 UPSERT 语句模板，每个顶点类型或边类型编译一次并缓存在类型上：
+ * 语句开头、主键策略的包装、标签名以及每个属性的 "tag.prop=" 前缀和属性类型都已经确定，
+ * 生成语句时只需要填入转义后的id和属性值，不再查询类型的 dataTypeMap 和拼接不变的片段
+ *
+ * @author Anyzm
+ * Date  2026/10/17 - 20:40
+ * @version 1.0.0
+ */
+public class GraphUpsertTemplate {
+
+    private static final String VERTEX_HEAD = "UPSERT VERTEX ";
+
+    private static final String EDGE_HEAD = "UPSERT EDGE ";
+
+    private final String head;
+
+    /**
+     * 顶点id或起点id的包装
+     */
+    private final IdWrapper srcId;
+
+    /**
+     * 终点id的包装，顶点模板为空
+     */
+    private final IdWrapper dstId;
+
+    /**
+     * id 之后、第一个属性之前的片段
+     */
+    private final String setClause;
+
+    /**
+     * 属性前缀，顶点为 "tag."，边为空
+     */
+    private final String propertyPrefix;
+
+    private final Map<String, GraphDataTypeEnum> dataTypeMap;
+
+    private final Map<String, PropertySlot> slots;
+
+    private GraphUpsertTemplate(String head, IdWrapper srcId, IdWrapper dstId, String setClause, String propertyPrefix,
+                                Map<String, GraphDataTypeEnum> dataTypeMap, Iterable<String> properties) {
+        this.head = head;
+        this.srcId = srcId;
+        this.dstId = dstId;
+        this.setClause = setClause;
+        this.propertyPrefix = propertyPrefix;
+        this.dataTypeMap = dataTypeMap;
+        ImmutableMap.Builder<String, PropertySlot> builder = ImmutableMap.builder();
+        for (String property : properties) {
+            builder.put(property, compile(property));
+        }
+        this.slots = builder.build();
+    }
+
+    static GraphUpsertTemplate compile(GraphVertexType<?> graphVertexType) {
+        return new GraphUpsertTemplate(VERTEX_HEAD, new IdWrapper(graphVertexType.getGraphKeyPolicy()), null, " SET ",
+                graphVertexType.getVertexName() + ".", graphVertexType.getDataTypeMap(),
+                graphVertexType.getDataTypeMap().keySet());
+    }
+
+    static GraphUpsertTemplate compile(GraphEdgeType<?, ?, ?> graphEdgeType) {
+        return new GraphUpsertTemplate(EDGE_HEAD, new IdWrapper(graphEdgeType.getSrcVertexType().getGraphKeyPolicy()),
+                new IdWrapper(graphEdgeType.getDstVertexType().getGraphKeyPolicy()),
+                " of " + graphEdgeType.getEdgeName() + " SET ", "", graphEdgeType.getDataTypeMap(),
+                graphEdgeType.getDataTypeMap().keySet());
+    }
+
+    private PropertySlot compile(String property) {
+        return new PropertySlot(this.propertyPrefix + property + "=", this.dataTypeMap.get(property));
+    }
+
+    /**
+     * 写入顶点语句的开头：UPSERT VERTEX id SET
+     *
+     * @param builder     sql builder
+     * @param vertexIdKey 格式化后的顶点id
+     * @return builder
+     */
+    public StringBuilder appendVertexHead(StringBuilder builder, String vertexIdKey) {
+        builder.append(this.head);
+        return this.srcId.append(builder, vertexIdKey).append(this.setClause);
+    }
+
+    /**
+     * 写入边语句的开头：UPSERT EDGE src->dst of edge SET
+     *
+     * @param builder  sql builder
+     * @param srcIdKey 格式化后的起点id
+     * @param dstIdKey 格式化后的终点id
+     * @return builder
+     */
+    public StringBuilder appendEdgeHead(StringBuilder builder, String srcIdKey, String dstIdKey) {
+        builder.append(this.head);
+        this.srcId.append(builder, srcIdKey).append("->");
+        return this.dstId.append(builder, dstIdKey).append(this.setClause);
+    }
+
+    /**
+     * 写入一个属性赋值，值由 GraphLiteralCodecRegistry 编码
+     *
+     * @param builder  sql builder
+     * @param property 属性名
+     * @param value    属性值
+     * @return builder
+     */
+    public StringBuilder appendProperty(StringBuilder builder, String property, Object value) {
+        PropertySlot slot = this.slots.get(property);
+        if (slot == null) {
+            slot = compile(property);
+        }
+        return GraphLiteralCodecRegistry.append(builder.append(slot.prefix), slot.dataType, value);
+    }
+
+    /**
+     * 主键策略的包装：字符串主键为 空格"id"空格，其他为 hash("id")/uuid("id")
+     */
+    private static class IdWrapper {
+
+        private final String open;
+
+        private final String close;
+
+        private IdWrapper(GraphKeyPolicy graphKeyPolicy) {
+            if (GraphKeyPolicy.string_key.equals(graphKeyPolicy)) {
+                this.open = graphKeyPolicy.getKeyWrapWord() + " \"";
+                this.close = "\" ";
+            } else {
+                this.open = graphKeyPolicy.getKeyWrapWord() + "(\"";
+                this.close = "\")";
+            }
+        }
+
+        private StringBuilder append(StringBuilder builder, String idKey) {
+            return EscapeUtils.appendEscaped(builder.append(this.open), idKey).append(this.close);
+        }
+    }
+
+    private static class PropertySlot {
+
+        private final String prefix;
+
+        /**
+         * 类型中没有声明的属性为 null，按值的java类型编码
+         */
+        private final GraphDataTypeEnum dataType;
+
+        private PropertySlot(String prefix, GraphDataTypeEnum dataType) {
+            this.prefix = prefix;
+            this.dataType = dataType;
+        }
+    }
+
+}
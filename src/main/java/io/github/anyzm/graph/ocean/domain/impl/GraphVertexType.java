@@ -9,6 +9,7 @@ import io.github.anyzm.graph.ocean.dao.GraphValueFormatter;
 import io.github.anyzm.graph.ocean.domain.AbstractGraphLabel;
 import io.github.anyzm.graph.ocean.enums.GraphDataTypeEnum;
 import io.github.anyzm.graph.ocean.enums.GraphKeyPolicy;
+import lombok.AccessLevel;
 import lombok.EqualsAndHashCode;
 import lombok.Getter;
 import lombok.Setter;
@@ -47,6 +48,12 @@ public class GraphVertexType<T> extends AbstractGraphLabel {
 
     private GraphValueFormatter idValueFormatter;
 
+    /**
+     * 预编译的 UPSERT 模板，第一次生成语句时编译
+     */
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private transient volatile GraphUpsertTemplate upsertTemplate;
 
     protected GraphVertexType() {
     }
@@ -79,6 +86,20 @@ public class GraphVertexType<T> extends AbstractGraphLabel {
         return vertexKey;
     }
 
+    /**
+     * 类型随缓存常驻，模板只编译一次，并发编译的结果相同，不需要加锁
+     *
+     * @return UPSERT 语句模板
+     */
+    public GraphUpsertTemplate getUpsertTemplate() {
+        GraphUpsertTemplate template = this.upsertTemplate;
+        if (template == null) {
+            template = GraphUpsertTemplate.compile(this);
+            this.upsertTemplate = template;
+        }
+        return template;
+    }
+
     @Override
     public boolean isTag() {
         return true;
@@ -0,0 +1,169 @@
+/* Copyright (c) 2022 com.github.anyzm. All rights reserved.
+ *
+ * This source code is licensed under Apache 2.0 License,
+ * attached with Common Clause Condition 1.0, found in the LICENSES directory.
+ */
+package io.github.anyzm.graph.ocean.engine;
+
+import io.github.anyzm.graph.ocean.common.GraphHelper;
+import io.github.anyzm.graph.ocean.dao.EdgeUpdateEngine;
+import io.github.anyzm.graph.ocean.domain.GraphLabel;
+import io.github.anyzm.graph.ocean.domain.impl.GraphEdgeEntity;
+import io.github.anyzm.graph.ocean.domain.impl.GraphEdgeType;
+import io.github.anyzm.graph.ocean.domain.impl.GraphVertexEntity;
+import io.github.anyzm.graph.ocean.enums.ErrorEnum;
+import io.github.anyzm.graph.ocean.enums.GraphDataTypeEnum;
+import io.github.anyzm.graph.ocean.exception.CheckThrower;
+import io.github.anyzm.graph.ocean.exception.NebulaException;
+import com.google.common.collect.Lists;
+import org.apache.commons.collections.CollectionUtils;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 批量边插入引擎
+ * 使用 nebula 的多行插入语法，一条语句写入多条边：
+ * INSERT EDGE edge(p1,p2) VALUES src1->dst1:(v1,v2), src2->dst2:(v1,v2)
+ * 与 UPSERT 相比，storaged 不需要先读后写，适合只追加的边数据
+ *
+ * @author Anyzm
+ * date 2026/10/17
+ */
+public class NebulaBatchEdgesInsert<S, T, E> implements EdgeUpdateEngine<S, T, E> {
+
+    private List<GraphEdgeEntity<S, T, E>> graphEdgeEntities;
+
+    private GraphEdgeType<S, T, E> graphEdgeType;
+
+    private List<GraphVertexEntity<S>> srcGraphVertexEntities;
+
+    private List<GraphVertexEntity<T>> dstGraphVertexEntities;
+
+    /**
+     * 每条语句包含的边数
+     */
+    private int rowsPerStatement;
+
+    /**
+     * 是否使用 IF NOT EXISTS，已存在的边和顶点不覆盖
+     */
+    private boolean ifNotExists;
+
+    public NebulaBatchEdgesInsert(List<GraphEdgeEntity<S, T, E>> graphEdgeEntities) throws NebulaException {
+        this(graphEdgeEntities, null, null, NebulaBatchVertexInsert.DEFAULT_ROWS_PER_STATEMENT, false);
+    }
+
+    /**
+     * 构建边批量插入，起点和终点在同一批语句中一起写入
+     *
+     * @param graphEdgeEntities      边实体
+     * @param srcGraphVertexEntities 起点实体
+     * @param dstGraphVertexEntities 终点实体
+     * @param rowsPerStatement       每条语句包含的边(顶点)数
+     * @param ifNotExists            是否跳过已存在的数据
+     */
+    public NebulaBatchEdgesInsert(List<GraphEdgeEntity<S, T, E>> graphEdgeEntities, List<GraphVertexEntity<S>> srcGraphVertexEntities,
+                                  List<GraphVertexEntity<T>> dstGraphVertexEntities, int rowsPerStatement,
+                                  boolean ifNotExists) throws NebulaException {
+        CheckThrower.ifTrueThrow(CollectionUtils.isEmpty(graphEdgeEntities), ErrorEnum.UPDATE_FIELD_DATA_NOT_EMPTY);
+        CheckThrower.ifFalseThrow(rowsPerStatement >= 1, "RowsPerStatement must greater than zero");
+        this.graphEdgeEntities = graphEdgeEntities;
+        this.graphEdgeType = graphEdgeEntities.get(0).getGraphEdgeType();
+        this.srcGraphVertexEntities = srcGraphVertexEntities;
+        this.dstGraphVertexEntities = dstGraphVertexEntities;
+        this.rowsPerStatement = rowsPerStatement;
+        this.ifNotExists = ifNotExists;
+    }
+
+    /**
+     * INSERT EDGE [IF NOT EXISTS] edge(p1,p2) VALUES
+     *
+     * @param columns 列
+     * @return 语句头
+     */
+    private String generateInsertHead(List<String> columns) {
+        StringBuilder builder = new StringBuilder("INSERT EDGE ");
+        if (this.ifNotExists) {
+            builder.append("IF NOT EXISTS ");
+        }
+        builder.append(this.graphEdgeType.getEdgeName()).append('(');
+        for (int i = 0; i < columns.size(); i++) {
+            if (i > 0) {
+                builder.append(',');
+            }
+            builder.append(columns.get(i));
+        }
+        return builder.append(") VALUES ").toString();
+    }
+
+    private void appendRow(StringBuilder builder, GraphEdgeEntity<S, T, E> graphEdgeEntity, List<String> columns,
+                           Map<String, GraphDataTypeEnum> dataTypeMap) {
+        builder.append(GraphHelper.getQuerySrcId(this.graphEdgeType, graphEdgeEntity.getSrcId())).append("->")
+                .append(GraphHelper.getQueryDstId(this.graphEdgeType, graphEdgeEntity.getDstId())).append(":(");
+        Map<String, Object> props = graphEdgeEntity.getProps();
+        for (int i = 0; i < columns.size(); i++) {
+            if (i > 0) {
+                builder.append(',');
+            }
+            String column = columns.get(i);
+            NebulaBatchVertexInsert.appendValue(builder, dataTypeMap.get(column), props.get(column));
+        }
+        builder.append(')');
+    }
+
+    private List<String> getEdgeSql() {
+        List<String> columns = Lists.newArrayList(this.graphEdgeType.getAllFields());
+        Map<String, GraphDataTypeEnum> dataTypeMap = this.graphEdgeType.getDataTypeMap();
+        String head = generateInsertHead(columns);
+        List<List<GraphEdgeEntity<S, T, E>>> partition = Lists.partition(this.graphEdgeEntities, this.rowsPerStatement);
+        List<String> sqlList = Lists.newArrayListWithExpectedSize(partition.size());
+        for (List<GraphEdgeEntity<S, T, E>> onePart : partition) {
+            StringBuilder builder = new StringBuilder(head);
+            for (int i = 0; i < onePart.size(); i++) {
+                if (i > 0) {
+                    builder.append(',');
+                }
+                appendRow(builder, onePart.get(i), columns, dataTypeMap);
+            }
+            sqlList.add(builder.toString());
+        }
+        return sqlList;
+    }
+
+    private <V> List<String> getVertexSql(List<GraphVertexEntity<V>> graphVertexEntities) throws NebulaException {
+        if (CollectionUtils.isEmpty(graphVertexEntities)) {
+            return Collections.emptyList();
+        }
+        return new NebulaBatchVertexInsert<>(graphVertexEntities, this.rowsPerStatement, this.ifNotExists).getSqlList();
+    }
+
+    @Override
+    public List<String> getSqlList() throws NebulaException {
+        List<String> sqlList = getEdgeSql();
+        sqlList.addAll(getVertexSql(this.srcGraphVertexEntities));
+        sqlList.addAll(getVertexSql(this.dstGraphVertexEntities));
+        return sqlList;
+    }
+
+    @Override
+    public List<GraphEdgeEntity<S, T, E>> getGraphEdgeEntityList() {
+        return this.graphEdgeEntities;
+    }
+
+    @Override
+    public GraphEdgeType<S, T, E> getGraphEdgeType() {
+        return this.graphEdgeType;
+    }
+
+    @Override
+    public List<GraphLabel> getLabels() {
+        List<GraphLabel> list = Lists.newArrayList();
+        list.add(this.graphEdgeType);
+        list.add(this.graphEdgeType.getSrcVertexType());
+        list.add(this.graphEdgeType.getDstVertexType());
+        return list;
+    }
+
+}
@@ -0,0 +1,84 @@
+/* Copyright (c) 2022 com.github.anyzm. All rights reserved.
+ *
+ * This source code is licensed under Apache 2.0 License,
+ * attached with Common Clause Condition 1.0, found in the LICENSES directory.
+ */
+package io.github.anyzm.graph.ocean.engine;
+
+import io.github.anyzm.graph.ocean.common.GraphHelper;
+import io.github.anyzm.graph.ocean.dao.EdgeUpdateEngine;
+import io.github.anyzm.graph.ocean.domain.GraphLabel;
+import io.github.anyzm.graph.ocean.domain.impl.GraphEdgeEntity;
+import io.github.anyzm.graph.ocean.domain.impl.GraphEdgeType;
+import io.github.anyzm.graph.ocean.enums.ErrorEnum;
+import io.github.anyzm.graph.ocean.enums.GraphDataTypeEnum;
+import io.github.anyzm.graph.ocean.exception.CheckThrower;
+import io.github.anyzm.graph.ocean.exception.NebulaException;
+import com.google.common.collect.Lists;
+import org.apache.commons.collections.CollectionUtils;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Description  NebulaBatchEdgesPartialUpdate is used for
+ * 边部分更新引擎，实体的属性只包含发生变化的属性，值为 null 的属性更新为 NULL：
+ * UPDATE EDGE ON edge src->dst SET p1=v1,p2=v2
+ * 与 UPSERT 不同，边不存在时更新失败，只适用于已经存在的边
+ *
+ * @author Anyzm
+ * date 2026/10/17
+ */
+public class NebulaBatchEdgesPartialUpdate<S, T, E> implements EdgeUpdateEngine<S, T, E> {
+
+    private static final String UPDATE_SQL = "UPDATE EDGE ON ";
+
+    private List<GraphEdgeEntity<S, T, E>> graphEdgeEntities;
+
+    private GraphEdgeType<S, T, E> graphEdgeType;
+
+    public NebulaBatchEdgesPartialUpdate(List<GraphEdgeEntity<S, T, E>> graphEdgeEntities) throws NebulaException {
+        CheckThrower.ifTrueThrow(CollectionUtils.isEmpty(graphEdgeEntities), ErrorEnum.UPDATE_FIELD_DATA_NOT_EMPTY);
+        this.graphEdgeEntities = graphEdgeEntities;
+        this.graphEdgeType = graphEdgeEntities.get(0).getGraphEdgeType();
+    }
+
+    @Override
+    public List<String> getSqlList() throws NebulaException {
+        List<String> sqlList = Lists.newArrayListWithExpectedSize(this.graphEdgeEntities.size());
+        Map<String, GraphDataTypeEnum> dataTypeMap = this.graphEdgeType.getDataTypeMap();
+        StringBuilder builder = new StringBuilder(256);
+        for (GraphEdgeEntity<S, T, E> graphEdgeEntity : this.graphEdgeEntities) {
+            if (graphEdgeEntity.getProps().isEmpty()) {
+                continue;
+            }
+            builder.setLength(0);
+            builder.append(UPDATE_SQL).append(this.graphEdgeType.getEdgeName()).append(' ');
+            GraphHelper.appendQuerySrcId(builder, this.graphEdgeType, graphEdgeEntity.getSrcId()).append("->");
+            GraphHelper.appendQueryDstId(builder, this.graphEdgeType, graphEdgeEntity.getDstId())
+                    .append(NebulaBatchVertexPartialUpdate.SET);
+            sqlList.add(NebulaBatchVertexPartialUpdate.appendSetClause(builder, graphEdgeEntity.getProps(), dataTypeMap).toString());
+        }
+        return sqlList;
+    }
+
+    @Override
+    public List<GraphEdgeEntity<S, T, E>> getGraphEdgeEntityList() {
+        return this.graphEdgeEntities;
+    }
+
+    @Override
+    public GraphEdgeType<S, T, E> getGraphEdgeType() {
+        return this.graphEdgeType;
+    }
+
+    @Override
+    public List<GraphLabel> getLabels() {
+        List<GraphLabel> list = Lists.newArrayList();
+        list.add(this.graphEdgeType);
+        list.add(this.graphEdgeType.getSrcVertexType());
+        list.add(this.graphEdgeType.getDstVertexType());
+        return list;
+    }
+
+}
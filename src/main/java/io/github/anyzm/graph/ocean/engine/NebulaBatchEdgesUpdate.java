@@ -5,16 +5,14 @@
  */
 package io.github.anyzm.graph.ocean.engine;
 
-import io.github.anyzm.graph.ocean.common.GraphHelper;
-import io.github.anyzm.graph.ocean.common.utils.StringUtil;
 import io.github.anyzm.graph.ocean.dao.EdgeUpdateEngine;
 import io.github.anyzm.graph.ocean.domain.GraphLabel;
 import io.github.anyzm.graph.ocean.domain.impl.GraphEdgeEntity;
 import io.github.anyzm.graph.ocean.domain.impl.GraphEdgeType;
+import io.github.anyzm.graph.ocean.domain.impl.GraphUpsertTemplate;
 import io.github.anyzm.graph.ocean.domain.impl.GraphVertexEntity;
 import io.github.anyzm.graph.ocean.domain.impl.GraphVertexType;
 import io.github.anyzm.graph.ocean.enums.ErrorEnum;
-import io.github.anyzm.graph.ocean.enums.GraphDataTypeEnum;
 import io.github.anyzm.graph.ocean.exception.CheckThrower;
 import io.github.anyzm.graph.ocean.exception.NebulaException;
 import com.google.common.collect.Lists;
@@ -33,7 +31,10 @@ import java.util.Set;
  */
 public class NebulaBatchEdgesUpdate<S, T, E> implements EdgeUpdateEngine<S, T, E> {
 
-    private static final String UPSET_SQL_FORMAT = "UPSERT EDGE %s->%s of %s SET %s";
+    /**
+     * 同一批次的语句复用一个 builder，容量随最长的语句增长
+     */
+    private final StringBuilder builder = new StringBuilder(256);
 
     /**
      * 仅生成边的更新sql
@@ -126,25 +127,26 @@ public class NebulaBatchEdgesUpdate<S, T, E> implements EdgeUpdateEngine<S, T, E
             String sql = generateSql(graphEdgeEntity);
             sqlList.add(sql);
         }
-        return StringUtil.aggregate(sqlList, sqlList.size(), ";");
+        return sqlList;
     }
 
     private String generateSql(GraphEdgeEntity<S, T, E> graphEdgeEntity) throws NebulaException {
-        String src = GraphHelper.getQuerySrcId(graphEdgeEntity.getGraphEdgeType(), graphEdgeEntity.getSrcId());
-        String end = GraphHelper.getQueryDstId(graphEdgeEntity.getGraphEdgeType(), graphEdgeEntity.getDstId());
+        GraphEdgeType<S, T, E> graphEdgeType = graphEdgeEntity.getGraphEdgeType();
+        GraphUpsertTemplate template = graphEdgeType.getUpsertTemplate();
+        StringBuilder sqlBuilder = this.builder;
+        sqlBuilder.setLength(0);
+        template.appendEdgeHead(sqlBuilder, graphEdgeType.getSrcIdKey(graphEdgeEntity.getSrcId()),
+                graphEdgeType.getDstIdKey(graphEdgeEntity.getDstId()));
         Set<Map.Entry<String, Object>> entries = graphEdgeEntity.getProps().entrySet();
-        StringBuilder sqlBuilder = new StringBuilder();
-        Map<String, GraphDataTypeEnum> dataTypeMap = graphEdgeEntity.getGraphEdgeType().getDataTypeMap();
+        boolean first = true;
         for (Map.Entry<String, Object> entry : entries) {
-            GraphDataTypeEnum graphDataTypeEnum = dataTypeMap.get(entry.getKey());
-            if (GraphDataTypeEnum.STRING.equals(graphDataTypeEnum)) {
-                sqlBuilder.append(",").append(entry.getKey()).append("=\"").append(entry.getValue()).append("\"");
-            } else {
-                sqlBuilder.append(",").append(entry.getKey()).append("=").append(entry.getValue());
+            if (!first) {
+                sqlBuilder.append(',');
             }
+            first = false;
+            template.appendProperty(sqlBuilder, entry.getKey(), entry.getValue());
         }
-        String sqlFieldSet = sqlBuilder.delete(0, 1).toString();
-        return String.format(UPSET_SQL_FORMAT, src, end, graphEdgeEntity.getGraphEdgeType().getEdgeName(), sqlFieldSet);
+        return sqlBuilder.toString();
     }
 
 
@@ -0,0 +1,148 @@
+/* Copyright (c) 2022 com.github.anyzm. All rights reserved.
+ *
+ * This source code is licensed under Apache 2.0 License,
+ * attached with Common Clause Condition 1.0, found in the LICENSES directory.
+ */
+package io.github.anyzm.graph.ocean.engine;
+
+import io.github.anyzm.graph.ocean.common.GraphHelper;
+import io.github.anyzm.graph.ocean.common.GraphLiteralCodecRegistry;
+import io.github.anyzm.graph.ocean.dao.VertexUpdateEngine;
+import io.github.anyzm.graph.ocean.domain.GraphLabel;
+import io.github.anyzm.graph.ocean.domain.impl.GraphVertexEntity;
+import io.github.anyzm.graph.ocean.domain.impl.GraphVertexType;
+import io.github.anyzm.graph.ocean.enums.ErrorEnum;
+import io.github.anyzm.graph.ocean.enums.GraphDataTypeEnum;
+import io.github.anyzm.graph.ocean.exception.CheckThrower;
+import io.github.anyzm.graph.ocean.exception.NebulaException;
+import com.google.common.collect.Lists;
+import org.apache.commons.collections.CollectionUtils;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 批量顶点插入引擎
+ * 使用 nebula 的多行插入语法，一条语句写入多个顶点：
+ * INSERT VERTEX tag(p1,p2) VALUES id1:(v1,v2), id2:(v1,v2)
+ * 列顺序取自 {@link GraphVertexType#getAllFields()}，实体中缺失的属性写入 NULL
+ *
+ * @author Anyzm
+ * date 2026/10/17
+ */
+public class NebulaBatchVertexInsert<T> implements VertexUpdateEngine {
+
+    /**
+     * 默认每条 INSERT 语句包含的顶点数
+     */
+    public static final int DEFAULT_ROWS_PER_STATEMENT = 100;
+
+    private List<GraphVertexEntity<T>> graphVertexEntities;
+
+    private GraphVertexType<T> graphVertexType;
+
+    /**
+     * 每条语句包含的顶点数
+     */
+    private int rowsPerStatement;
+
+    /**
+     * 是否使用 IF NOT EXISTS，已存在的顶点不覆盖
+     */
+    private boolean ifNotExists;
+
+    public NebulaBatchVertexInsert(List<GraphVertexEntity<T>> graphVertexEntities) throws NebulaException {
+        this(graphVertexEntities, DEFAULT_ROWS_PER_STATEMENT, false);
+    }
+
+    /**
+     * 构建顶点批量插入
+     *
+     * @param graphVertexEntities 顶点实体
+     * @param rowsPerStatement    每条语句包含的顶点数
+     * @param ifNotExists         是否跳过已存在的顶点
+     */
+    public NebulaBatchVertexInsert(List<GraphVertexEntity<T>> graphVertexEntities, int rowsPerStatement,
+                                   boolean ifNotExists) throws NebulaException {
+        CheckThrower.ifTrueThrow(CollectionUtils.isEmpty(graphVertexEntities), ErrorEnum.UPDATE_FIELD_DATA_NOT_EMPTY);
+        CheckThrower.ifFalseThrow(rowsPerStatement >= 1, "RowsPerStatement must greater than zero");
+        this.graphVertexEntities = graphVertexEntities;
+        this.graphVertexType = graphVertexEntities.get(0).getGraphVertexType();
+        this.rowsPerStatement = rowsPerStatement;
+        this.ifNotExists = ifNotExists;
+    }
+
+    /**
+     * INSERT VERTEX [IF NOT EXISTS] tag(p1,p2) VALUES
+     *
+     * @param columns 列
+     * @return 语句头
+     */
+    private String generateInsertHead(List<String> columns) {
+        StringBuilder builder = new StringBuilder("INSERT VERTEX ");
+        if (this.ifNotExists) {
+            builder.append("IF NOT EXISTS ");
+        }
+        builder.append(this.graphVertexType.getVertexName()).append('(');
+        for (int i = 0; i < columns.size(); i++) {
+            if (i > 0) {
+                builder.append(',');
+            }
+            builder.append(columns.get(i));
+        }
+        return builder.append(") VALUES ").toString();
+    }
+
+    private void appendRow(StringBuilder builder, GraphVertexEntity<T> graphVertexEntity, List<String> columns,
+                           Map<String, GraphDataTypeEnum> dataTypeMap) {
+        builder.append(GraphHelper.getQueryId(this.graphVertexType, graphVertexEntity.getId())).append(":(");
+        Map<String, Object> props = graphVertexEntity.getProps();
+        for (int i = 0; i < columns.size(); i++) {
+            if (i > 0) {
+                builder.append(',');
+            }
+            String column = columns.get(i);
+            appendValue(builder, dataTypeMap.get(column), props.get(column));
+        }
+        builder.append(')');
+    }
+
+    static void appendValue(StringBuilder builder, GraphDataTypeEnum graphDataTypeEnum, Object value) {
+        GraphLiteralCodecRegistry.append(builder, graphDataTypeEnum, value);
+    }
+
+    @Override
+    public List<String> getSqlList() throws NebulaException {
+        List<String> columns = Lists.newArrayList(this.graphVertexType.getAllFields());
+        Map<String, GraphDataTypeEnum> dataTypeMap = this.graphVertexType.getDataTypeMap();
+        String head = generateInsertHead(columns);
+        List<List<GraphVertexEntity<T>>> partition = Lists.partition(this.graphVertexEntities, this.rowsPerStatement);
+        List<String> sqlList = Lists.newArrayListWithExpectedSize(partition.size());
+        for (List<GraphVertexEntity<T>> onePart : partition) {
+            StringBuilder builder = new StringBuilder(head);
+            for (int i = 0; i < onePart.size(); i++) {
+                if (i > 0) {
+                    builder.append(',');
+                }
+                appendRow(builder, onePart.get(i), columns, dataTypeMap);
+            }
+            sqlList.add(builder.toString());
+        }
+        return sqlList;
+    }
+
+    @Override
+    public List<GraphVertexEntity<T>> getGraphVertexEntityList() {
+        return this.graphVertexEntities;
+    }
+
+    @Override
+    public GraphVertexType<T> getGraphVertexType() {
+        return this.graphVertexType;
+    }
+
+    @Override
+    public List<GraphLabel> getLabels() {
+        return Lists.newArrayList(this.getGraphVertexType());
+    }
+}
@@ -0,0 +1,95 @@
+/* Copyright (c) 2022 com.github.anyzm. All rights reserved.
+ *
+ * This source code is licensed under Apache 2.0 License,
+ * attached with Common Clause Condition 1.0, found in the LICENSES directory.
+ */
+package io.github.anyzm.graph.ocean.engine;
+
+import io.github.anyzm.graph.ocean.common.GraphHelper;
+import io.github.anyzm.graph.ocean.dao.VertexUpdateEngine;
+import io.github.anyzm.graph.ocean.domain.GraphLabel;
+import io.github.anyzm.graph.ocean.domain.impl.GraphVertexEntity;
+import io.github.anyzm.graph.ocean.domain.impl.GraphVertexType;
+import io.github.anyzm.graph.ocean.enums.ErrorEnum;
+import io.github.anyzm.graph.ocean.enums.GraphDataTypeEnum;
+import io.github.anyzm.graph.ocean.exception.CheckThrower;
+import io.github.anyzm.graph.ocean.exception.NebulaException;
+import com.google.common.collect.Lists;
+import org.apache.commons.collections.CollectionUtils;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Description  NebulaBatchVertexPartialUpdate is used for
+ * 顶点部分更新引擎，实体的属性只包含发生变化的属性，值为 null 的属性更新为 NULL：
+ * UPDATE VERTEX ON tag id SET p1=v1,p2=v2
+ * 与 UPSERT 不同，顶点不存在时更新失败，只适用于已经存在的顶点
+ *
+ * @author Anyzm
+ * date 2026/10/17
+ */
+public class NebulaBatchVertexPartialUpdate<T> implements VertexUpdateEngine {
+
+    private static final String UPDATE_SQL = "UPDATE VERTEX ON ";
+
+    static final String SET = " SET ";
+
+    private List<GraphVertexEntity<T>> graphVertexEntities;
+
+    private GraphVertexType<T> graphVertexType;
+
+    public NebulaBatchVertexPartialUpdate(List<GraphVertexEntity<T>> graphVertexEntities) throws NebulaException {
+        CheckThrower.ifTrueThrow(CollectionUtils.isEmpty(graphVertexEntities), ErrorEnum.UPDATE_FIELD_DATA_NOT_EMPTY);
+        this.graphVertexEntities = graphVertexEntities;
+        this.graphVertexType = graphVertexEntities.get(0).getGraphVertexType();
+    }
+
+    /**
+     * 写入 p1=v1,p2=v2
+     */
+    static StringBuilder appendSetClause(StringBuilder builder, Map<String, Object> props, Map<String, GraphDataTypeEnum> dataTypeMap) {
+        boolean first = true;
+        for (Map.Entry<String, Object> entry : props.entrySet()) {
+            if (!first) {
+                builder.append(',');
+            }
+            first = false;
+            builder.append(entry.getKey()).append('=');
+            NebulaBatchVertexInsert.appendValue(builder, dataTypeMap.get(entry.getKey()), entry.getValue());
+        }
+        return builder;
+    }
+
+    @Override
+    public List<String> getSqlList() throws NebulaException {
+        Map<String, GraphDataTypeEnum> dataTypeMap = this.graphVertexType.getDataTypeMap();
+        List<String> sqlList = Lists.newArrayListWithExpectedSize(this.graphVertexEntities.size());
+        StringBuilder builder = new StringBuilder(256);
+        for (GraphVertexEntity<T> graphVertexEntity : this.graphVertexEntities) {
+            if (graphVertexEntity.getProps().isEmpty()) {
+                continue;
+            }
+            builder.setLength(0);
+            builder.append(UPDATE_SQL).append(this.graphVertexType.getVertexName()).append(' ');
+            GraphHelper.appendQueryId(builder, this.graphVertexType, graphVertexEntity.getId()).append(SET);
+            sqlList.add(appendSetClause(builder, graphVertexEntity.getProps(), dataTypeMap).toString());
+        }
+        return sqlList;
+    }
+
+    @Override
+    public List<GraphVertexEntity<T>> getGraphVertexEntityList() {
+        return this.graphVertexEntities;
+    }
+
+    @Override
+    public GraphVertexType<T> getGraphVertexType() {
+        return this.graphVertexType;
+    }
+
+    @Override
+    public List<GraphLabel> getLabels() {
+        return Lists.newArrayList(this.getGraphVertexType());
+    }
+}
@@ -5,14 +5,12 @@
  */
 package io.github.anyzm.graph.ocean.engine;
 
-import io.github.anyzm.graph.ocean.common.GraphHelper;
-import io.github.anyzm.graph.ocean.common.utils.StringUtil;
 import io.github.anyzm.graph.ocean.dao.VertexUpdateEngine;
 import io.github.anyzm.graph.ocean.domain.GraphLabel;
+import io.github.anyzm.graph.ocean.domain.impl.GraphUpsertTemplate;
 import io.github.anyzm.graph.ocean.domain.impl.GraphVertexEntity;
 import io.github.anyzm.graph.ocean.domain.impl.GraphVertexType;
 import io.github.anyzm.graph.ocean.enums.ErrorEnum;
-import io.github.anyzm.graph.ocean.enums.GraphDataTypeEnum;
 import io.github.anyzm.graph.ocean.exception.CheckThrower;
 import io.github.anyzm.graph.ocean.exception.NebulaException;
 import com.google.common.collect.Lists;
@@ -30,14 +28,22 @@ import java.util.Set;
  */
 public class NebulaBatchVertexUpdate<T> implements VertexUpdateEngine {
 
-    private static final String VERTEX_UPSET_SQL = "UPSERT VERTEX %s SET %s";
-
     private List<GraphVertexEntity<T>> graphVertexEntities;
 
     private GraphVertexType<T> graphVertexType;
 
     private int batchSize;
 
+    /**
+     * 缓存在顶点类型上的预编译模板
+     */
+    private GraphUpsertTemplate upsertTemplate;
+
+    /**
+     * 同一批次的语句复用一个 builder，容量随最长的语句增长
+     */
+    private final StringBuilder builder = new StringBuilder(256);
+
 
     /**
      * 构建顶点批量插入
@@ -49,6 +55,7 @@ public class NebulaBatchVertexUpdate<T> implements VertexUpdateEngine {
         this.graphVertexEntities = graphVertexEntities;
         this.graphVertexType = graphVertexEntities.get(0).getGraphVertexType();
         this.batchSize = graphVertexEntities.size();
+        this.upsertTemplate = this.graphVertexType.getUpsertTemplate();
     }
 
     private String getOneVertexSql() throws NebulaException {
@@ -62,26 +69,24 @@ public class NebulaBatchVertexUpdate<T> implements VertexUpdateEngine {
             String sql = generateUpsetSql(graphVertexEntity);
             sqlList.add(sql);
         }
-        return StringUtil.aggregate(sqlList, batchSize, ";");
+        return sqlList;
     }
 
     private String generateUpsetSql(GraphVertexEntity graphVertexEntity) throws NebulaException {
         Set<Map.Entry<String, Object>> entries = graphVertexEntity.getProps().entrySet();
-        String queryId = GraphHelper.getQueryId(this.graphVertexType, graphVertexEntity.getId());
-        StringBuilder builder = new StringBuilder();
-        Map<String, GraphDataTypeEnum> dataTypeMap = graphVertexEntity.getGraphVertexType().getDataTypeMap();
+        StringBuilder builder = this.builder;
+        builder.setLength(0);
+        GraphUpsertTemplate template = this.upsertTemplate;
+        template.appendVertexHead(builder, this.graphVertexType.getVertexIdKey(graphVertexEntity.getId()));
+        boolean first = true;
         for (Map.Entry<String, Object> entry : entries) {
-            GraphDataTypeEnum graphDataTypeEnum = dataTypeMap.get(entry.getKey());
-            if (GraphDataTypeEnum.STRING.equals(graphDataTypeEnum)) {
-                builder.append(',').append(this.graphVertexType.getVertexName()).append('.')
-                        .append(entry.getKey()).append("=\"").append(entry.getValue()).append("\"");
-            } else {
-                builder.append(',').append(this.graphVertexType.getVertexName()).append('.')
-                        .append(entry.getKey()).append("=").append(entry.getValue());
+            if (!first) {
+                builder.append(',');
             }
+            first = false;
+            template.appendProperty(builder, entry.getKey(), entry.getValue());
         }
-        String sqlSet = builder.delete(0, 1).toString();
-        return String.format(VERTEX_UPSET_SQL, queryId, sqlSet);
+        return builder.toString();
     }
 
 
@@ -0,0 +1,211 @@
+/* Copyright (c) 2022 com.github.anyzm. All rights reserved.
+ *
+ * This source code is licensed under Apache 2.0 License,
+ * attached with Common Clause Condition 1.0, found in the LICENSES directory.
+ */
+package io.github.anyzm.graph.ocean.engine;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.vesoft.nebula.Date;
+import com.vesoft.nebula.client.graph.data.DateWrapper;
+import io.github.anyzm.graph.ocean.exception.CheckThrower;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Description  NebulaBoundParameters is used for
+ * 查询语句中的绑定参数：值以 $p0、$p1... 占位写入语句，实际值放在参数表中通过 executeWithParameter 发送，
+ * 记录每个占位符在语句中的位置，条件或查询拼接到另一个语句时按新语句中的顺序重新编号，保证参数名不冲突
+ *
+ * @author Anyzm
+ * Date  2026/10/17 - 22:10
+ * @version 1.0.0
+ */
+class NebulaBoundParameters {
+
+    private static final String PREFIX = "p";
+
+    private final List<Object> values = Lists.newArrayList();
+
+    /**
+     * 每个占位符的 $ 在语句中的位置
+     */
+    private final List<Integer> positions = Lists.newArrayList();
+
+    /**
+     * 其他实现的表达式带来的参数，参数名原样保留
+     */
+    private final Map<String, Object> foreignParameters = Maps.newLinkedHashMap();
+
+    static String name(int index) {
+        return PREFIX + index;
+    }
+
+    /**
+     * @param value 条件值
+     * @return 值能否作为参数发送，不能绑定的值仍然写成字面量
+     */
+    static boolean isBindable(Object value) {
+        if (value instanceof Collection) {
+            for (Object element : (Collection) value) {
+                if (!isBindable(element)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+        return value instanceof String || value instanceof Long || value instanceof Integer || value instanceof Short
+                || value instanceof Byte || value instanceof Double || value instanceof Float || value instanceof Boolean
+                || value instanceof LocalDate || value instanceof DateWrapper;
+    }
+
+    /**
+     * 转换为客户端 executeWithParameter 支持的类型
+     */
+    private static Object toParameterValue(Object value) {
+        if (value instanceof Collection) {
+            List<Object> list = Lists.newArrayListWithExpectedSize(((Collection) value).size());
+            for (Object element : (Collection) value) {
+                list.add(toParameterValue(element));
+            }
+            return list;
+        }
+        if (value instanceof LocalDate) {
+            LocalDate date = (LocalDate) value;
+            return new Date((short) date.getYear(), (byte) date.getMonthValue(), (byte) date.getDayOfMonth());
+        }
+        if (value instanceof DateWrapper) {
+            DateWrapper date = (DateWrapper) value;
+            return new Date(date.getYear(), date.getMonth(), date.getDay());
+        }
+        return value;
+    }
+
+    /**
+     * @param expression 条件或查询
+     * @return 本包实现的条件和查询的绑定参数，其他实现返回 null
+     */
+    static NebulaBoundParameters of(Object expression) {
+        if (expression instanceof NebulaCondition) {
+            return ((NebulaCondition) expression).getBoundParameters();
+        }
+        if (expression instanceof NebulaVertexQuery) {
+            return ((NebulaVertexQuery) expression).getBoundParameters();
+        }
+        if (expression instanceof NebulaEdgeQuery) {
+            return ((NebulaEdgeQuery) expression).getBoundParameters();
+        }
+        if (expression instanceof NebulaImmutableVertexQuery) {
+            return ((NebulaImmutableVertexQuery) expression).getBoundParameters();
+        }
+        if (expression instanceof NebulaImmutableEdgeQuery) {
+            return ((NebulaImmutableEdgeQuery) expression).getBoundParameters();
+        }
+        return null;
+    }
+
+    /**
+     * 条件或查询记录为子句时复制一份，之后修改原条件不影响已记录的子句
+     *
+     * @return 参数值、占位符位置和其他实现参数的副本
+     */
+    NebulaBoundParameters copy() {
+        NebulaBoundParameters copy = new NebulaBoundParameters();
+        copy.values.addAll(values);
+        copy.positions.addAll(positions);
+        copy.foreignParameters.putAll(foreignParameters);
+        return copy;
+    }
+
+    boolean isEmpty() {
+        return values.isEmpty() && foreignParameters.isEmpty();
+    }
+
+    /**
+     * 写入占位符并记录参数值
+     *
+     * @param builder 语句
+     * @param value   可绑定的值
+     */
+    void bind(StringBuilder builder, Object value) {
+        bindConverted(builder, toParameterValue(value));
+    }
+
+    private void bindConverted(StringBuilder builder, Object value) {
+        positions.add(builder.length());
+        builder.append('$').append(PREFIX).append(values.size());
+        values.add(value);
+    }
+
+    /**
+     * 语句开头插入了内容，占位符整体后移
+     *
+     * @param offset 插入的长度
+     */
+    void shift(int offset) {
+        for (int i = 0; i < positions.size(); i++) {
+            positions.set(i, positions.get(i) + offset);
+        }
+    }
+
+    /**
+     * 把另一个语句片段追加到 builder，片段中的参数按当前顺序重新编号
+     *
+     * @param builder 语句
+     * @param sql     片段
+     * @param other   片段的参数，null 表示片段来自其他实现
+     * @param foreign 其他实现的片段参数
+     */
+    void append(StringBuilder builder, String sql, NebulaBoundParameters other, Map<String, Object> foreign) {
+        if (other == null || other.values.isEmpty()) {
+            builder.append(sql);
+        } else {
+            int last = 0;
+            for (int i = 0; i < other.values.size(); i++) {
+                int position = other.positions.get(i);
+                builder.append(sql, last, position);
+                bindConverted(builder, other.values.get(i));
+                last = position + 1 + name(i).length();
+            }
+            builder.append(sql, last, sql.length());
+        }
+        Map<String, Object> foreignToMerge = other == null ? foreign : other.foreignParameters;
+        for (Map.Entry<String, Object> entry : foreignToMerge.entrySet()) {
+            CheckThrower.ifTrueThrow(foreignParameters.putIfAbsent(entry.getKey(), entry.getValue()) != null,
+                    "Duplicate query parameter: " + entry.getKey());
+        }
+    }
+
+    /**
+     * 追加条件或查询的语句和参数
+     *
+     * @param builder    语句
+     * @param expression 条件或查询
+     * @param sql        expression 生成的语句
+     * @param parameters expression 的参数
+     */
+    void append(StringBuilder builder, Object expression, String sql, Map<String, Object> parameters) {
+        append(builder, sql, of(expression), parameters);
+    }
+
+    Map<String, Object> toMap() {
+        if (isEmpty()) {
+            return Collections.emptyMap();
+        }
+        Map<String, Object> parameters = Maps.newLinkedHashMapWithExpectedSize(values.size() + foreignParameters.size());
+        for (int i = 0; i < values.size(); i++) {
+            parameters.put(name(i), values.get(i));
+        }
+        for (Map.Entry<String, Object> entry : foreignParameters.entrySet()) {
+            CheckThrower.ifTrueThrow(parameters.putIfAbsent(entry.getKey(), entry.getValue()) != null,
+                    "Duplicate query parameter: " + entry.getKey());
+        }
+        return parameters;
+    }
+
+}
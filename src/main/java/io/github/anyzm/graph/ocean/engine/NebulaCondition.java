@@ -5,15 +5,22 @@
  */
 package io.github.anyzm.graph.ocean.engine;
 
+import io.github.anyzm.graph.ocean.common.GraphLiteralCodecRegistry;
+import io.github.anyzm.graph.ocean.common.utils.EscapeUtils;
 import io.github.anyzm.graph.ocean.dao.GraphTypeManager;
 import io.github.anyzm.graph.ocean.domain.GraphCondition;
 import io.github.anyzm.graph.ocean.domain.GraphExpression;
 import io.github.anyzm.graph.ocean.domain.GraphLabel;
-import com.google.common.collect.Lists;
+import io.github.anyzm.graph.ocean.exception.CheckThrower;
 import lombok.Getter;
 import lombok.Setter;
+import org.apache.commons.lang3.StringUtils;
 
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
 
 /**
  * Description  NebulaCondition is used for
@@ -24,85 +31,206 @@ import java.util.Collection;
  */
 public class NebulaCondition implements GraphCondition {
 
+    private static final String FALSE = "false";
+
     @Getter
     @Setter
     private static GraphTypeManager graphTypeManager;
 
-    private NebulaCondition() {
+    private NebulaCondition(GraphTypeManager boundTypeManager, boolean parameterized) {
+        this.boundTypeManager = boundTypeManager;
+        this.parameterized = parameterized;
     }
 
+    /**
+     * 绑定的类型管理器，为空时使用静态的 graphTypeManager
+     */
+    private final GraphTypeManager boundTypeManager;
+
     private StringBuilder conditionBuilder = new StringBuilder();
 
+    /**
+     * 是否把条件值作为绑定参数发送
+     */
+    private final boolean parameterized;
+
+    private final NebulaBoundParameters boundParameters = new NebulaBoundParameters();
+
+    /**
+     * 条件折叠后恒为假，例如 in 空集合
+     */
+    private boolean alwaysFalse;
+
     public static NebulaCondition build() {
-        return new NebulaCondition();
+        return new NebulaCondition(null, false);
+    }
+
+    /**
+     * @param graphTypeManager 条件使用的类型管理器，不受其他 mapper 设置的静态类型管理器影响
+     * @return 条件
+     */
+    public static NebulaCondition build(GraphTypeManager graphTypeManager) {
+        CheckThrower.ifTrueThrow(graphTypeManager == null, "GraphTypeManager must not be null");
+        return new NebulaCondition(graphTypeManager, false);
+    }
+
+    /**
+     * 条件值以 $p0、$p1... 占位，值通过 executeWithParameter 发送，相同结构的条件生成相同的语句；
+     * id 以及无法作为参数发送的值仍然写在语句中
+     *
+     * @return 参数化的条件
+     */
+    public static NebulaCondition buildParameterized() {
+        return new NebulaCondition(null, true);
+    }
+
+    /**
+     * @param graphTypeManager 条件使用的类型管理器
+     * @return 参数化的条件
+     */
+    public static NebulaCondition buildParameterized(GraphTypeManager graphTypeManager) {
+        CheckThrower.ifTrueThrow(graphTypeManager == null, "GraphTypeManager must not be null");
+        return new NebulaCondition(graphTypeManager, true);
+    }
+
+    private GraphTypeManager typeManager() {
+        return boundTypeManager != null ? boundTypeManager : graphTypeManager;
     }
 
     @Override
     public String buildSql() {
-        return conditionBuilder.toString();
+        return alwaysFalse ? FALSE : conditionBuilder.toString();
+    }
+
+    @Override
+    public Map<String, Object> getParameters() {
+        return getBoundParameters().toMap();
+    }
+
+    NebulaBoundParameters getBoundParameters() {
+        return alwaysFalse ? new NebulaBoundParameters() : boundParameters;
+    }
+
+    /**
+     * @return 条件是否已折叠为恒假
+     */
+    public boolean isAlwaysFalse() {
+        return alwaysFalse;
     }
 
     @Override
     public GraphCondition bracket() {
         conditionBuilder.insert(0, "(").append(")");
+        boundParameters.shift(1);
         return this;
     }
 
     @Override
     public GraphCondition and(GraphCondition graphCondition) {
+        if (graphCondition instanceof NebulaCondition && ((NebulaCondition) graphCondition).isAlwaysFalse()) {
+            alwaysFalse = true;
+            return this;
+        }
+        String sql = graphCondition.buildSql();
+        if (StringUtils.isBlank(sql)) {
+            // 空条件恒为真，不影响 and 的结果
+            return this;
+        }
         if (conditionBuilder.length() > 1) {
             conditionBuilder.append(" and ");
         }
-        conditionBuilder.append(graphCondition.buildSql());
+        boundParameters.append(conditionBuilder, graphCondition, sql, graphCondition.getParameters());
         return this;
     }
 
     @Override
     public <T> GraphCondition andIn(String field, Collection<T> collection) {
-        andSymbol(field, " in ", collection);
+        if (isEmpty(collection)) {
+            alwaysFalse = true;
+            return this;
+        }
+        andSymbol(field, " in ", distinctValues(collection));
         return this;
     }
 
     @Override
     public <T> GraphCondition andIn(Class clazz, String field, Collection<T> collection) {
+        if (isEmpty(collection)) {
+            alwaysFalse = true;
+            return this;
+        }
         addShortClassCondition(clazz, field, " in ");
-        buildValue(collection);
+        buildValue(distinctValues(collection));
         return this;
     }
 
     @Override
     public <T> GraphCondition andNotIn(String field, Collection<T> collection) {
-        andSymbol(field, " not in ", collection);
+        if (isEmpty(collection)) {
+            return this;
+        }
+        andSymbol(field, " not in ", distinctValues(collection));
         return this;
     }
 
     @Override
     public <T> GraphCondition andNotIn(Class clazz, String field, Collection<T> collection) {
+        if (isEmpty(collection)) {
+            return this;
+        }
         addShortClassCondition(clazz, field, " not in ");
-        buildValue(collection);
+        buildValue(distinctValues(collection));
         return this;
     }
 
+    /**
+     * 空集合：in 恒为假，not in 恒为真；null 保持原来的写法
+     */
+    private static boolean isEmpty(Collection<?> collection) {
+        return collection != null && collection.isEmpty();
+    }
+
+    /**
+     * in 列表中重复的值只保留第一个
+     */
+    private static <T> Collection<T> distinctValues(Collection<T> collection) {
+        if (collection == null || collection instanceof Set) {
+            return collection;
+        }
+        Set<T> values = new LinkedHashSet<>(collection);
+        return values.size() == collection.size() ? collection : new ArrayList<>(values);
+    }
+
     private void buildValue(Object value) {
         if (value instanceof GraphExpression) {
             GraphExpression expression = (GraphExpression) value;
-            conditionBuilder.append(expression.buildSql());
+            // 与 and 一致，表达式中的参数并入当前条件并重新编号
+            boundParameters.append(conditionBuilder, expression, expression.buildSql(), expression.getParameters());
+        } else if (parameterized && NebulaBoundParameters.isBindable(value)) {
+            boundParameters.bind(conditionBuilder, value);
         } else if (value instanceof String) {
-            conditionBuilder.append("'").append(value).append("'");
+            EscapeUtils.appendSingleQuoted(conditionBuilder, value);
         } else if (value instanceof Collection) {
-            Collection collection = (Collection) value;
-            Collection tempCollection = Lists.newArrayListWithExpectedSize(collection.size());
-            for (Object temp : collection) {
-                if (temp instanceof String) {
-                    tempCollection.add("'" + (String) temp + "'");
-                } else {
-                    tempCollection = collection;
-                    break;
+            conditionBuilder.append('[');
+            boolean first = true;
+            for (Object temp : (Collection) value) {
+                if (!first) {
+                    conditionBuilder.append(", ");
                 }
+                first = false;
+                buildElementValue(temp);
             }
-            conditionBuilder.append(tempCollection);
+            conditionBuilder.append(']');
+        } else {
+            GraphLiteralCodecRegistry.append(conditionBuilder, null, value);
+        }
+    }
+
+    private void buildElementValue(Object value) {
+        if (value instanceof String) {
+            EscapeUtils.appendSingleQuoted(conditionBuilder, value);
         } else {
-            conditionBuilder.append(value);
+            GraphLiteralCodecRegistry.append(conditionBuilder, null, value);
         }
     }
 
@@ -115,7 +243,7 @@ public class NebulaCondition implements GraphCondition {
     }
 
     private void addShortClassCondition(Class clazz, String field, String symbol) {
-        GraphLabel graphLabel = graphTypeManager.getGraphLabel(clazz);
+        GraphLabel graphLabel = typeManager().getGraphLabel(clazz);
         String fieldName = graphLabel.getFieldName(field);
         if (conditionBuilder.length() > 0) {
             conditionBuilder.append(" and ");
@@ -124,7 +252,7 @@ public class NebulaCondition implements GraphCondition {
     }
 
     private void addClassFormatCondition(Class clazz, String field, String symbol, Object value) {
-        GraphLabel graphLabel = graphTypeManager.getGraphLabel(clazz);
+        GraphLabel graphLabel = typeManager().getGraphLabel(clazz);
         addShortClassCondition(clazz, field, symbol);
         String fieldName = graphLabel.getFieldName(field);
         buildValue(graphLabel.formatValue(fieldName, value));
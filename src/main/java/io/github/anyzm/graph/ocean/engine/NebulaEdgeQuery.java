@@ -5,6 +5,8 @@
  */
 package io.github.anyzm.graph.ocean.engine;
 
+import com.google.common.collect.Lists;
+import io.github.anyzm.graph.ocean.common.GraphHelper;
 import io.github.anyzm.graph.ocean.dao.GraphTypeManager;
 import io.github.anyzm.graph.ocean.domain.EdgeQuery;
 import io.github.anyzm.graph.ocean.domain.GraphCondition;
@@ -12,10 +14,15 @@ import io.github.anyzm.graph.ocean.domain.GraphExpression;
 import io.github.anyzm.graph.ocean.domain.GraphQuery;
 import io.github.anyzm.graph.ocean.domain.impl.GraphEdgeType;
 import io.github.anyzm.graph.ocean.enums.EdgeDirectionEnum;
+import io.github.anyzm.graph.ocean.exception.CheckThrower;
 import lombok.Getter;
 import lombok.Setter;
 
+import java.util.Collections;
+import java.util.List;
 import java.util.Map;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
 
 /**
  * Description  NebulaEdgeQuery is used for
@@ -30,356 +37,369 @@ public class NebulaEdgeQuery implements EdgeQuery {
     @Setter
     private static GraphTypeManager graphTypeManager;
 
-    private StringBuilder sqlBuilder = new StringBuilder();
+    /**
+     * 按调用顺序记录的子句，生成语句时优化后一次写出
+     */
+    private final List<NebulaQueryClause> clauses = Lists.newArrayList();
 
-    private NebulaEdgeQuery() {
+    /**
+     * 生成的语句和绑定参数，添加子句后失效
+     */
+    private String renderedSql;
+
+    private NebulaBoundParameters renderedParameters;
+
+    /**
+     * 绑定的类型管理器，为空时使用静态的 graphTypeManager
+     */
+    private final GraphTypeManager boundTypeManager;
+
+    private NebulaEdgeQuery(GraphTypeManager boundTypeManager) {
+        this.boundTypeManager = boundTypeManager;
     }
 
     public static NebulaEdgeQuery build() {
-        return new NebulaEdgeQuery();
+        return new NebulaEdgeQuery(null);
     }
 
-    private void goFromOnly() {
-        sqlBuilder.append("go from ");
+    /**
+     * @param graphTypeManager 查询使用的类型管理器，不受其他 mapper 设置的静态类型管理器影响
+     * @return 查询API
+     */
+    public static NebulaEdgeQuery build(GraphTypeManager graphTypeManager) {
+        CheckThrower.ifTrueThrow(graphTypeManager == null, "GraphTypeManager must not be null");
+        return new NebulaEdgeQuery(graphTypeManager);
     }
 
-    private void appendEdgeVertexId(Class clazz, boolean isReverse, String... vertexIds) {
-        GraphEdgeType graphEdgeType = graphTypeManager.getGraphEdgeType(clazz);
-        String edgeName = graphEdgeType.getEdgeName();
-        if (isReverse) {
-            NebulaQueryUtils.appendVertexDstId(graphEdgeType, sqlBuilder, vertexIds);
-        } else {
-            NebulaQueryUtils.appendVertexSrcId(graphEdgeType, sqlBuilder, vertexIds);
+    private GraphTypeManager typeManager() {
+        return boundTypeManager != null ? boundTypeManager : graphTypeManager;
+    }
+
+    private NebulaEdgeQuery add(NebulaQueryClause clause) {
+        clauses.add(clause);
+        renderedSql = null;
+        renderedParameters = null;
+        return this;
+    }
+
+    private NebulaEdgeQuery text(NebulaQueryClause.Kind kind, Consumer<StringBuilder> writer) {
+        StringBuilder builder = new StringBuilder();
+        writer.accept(builder);
+        return add(new NebulaQueryClause.Text(kind, builder.toString()));
+    }
+
+    /**
+     * 拼接另一个查询生成的语句，本包实现的查询带上绑定参数
+     */
+    private NebulaEdgeQuery appendQuery(NebulaQueryClause.Kind kind, String separator, GraphQuery graphQuery) {
+        NebulaBoundParameters parameters = NebulaBoundParameters.of(graphQuery);
+        String sql = graphQuery.buildSql();
+        if (!separator.isEmpty()) {
+            add(new NebulaQueryClause.Text(kind, separator));
         }
-        sqlBuilder.deleteCharAt(sqlBuilder.length() - 1);
-        sqlBuilder.append(" over ").append(edgeName);
+        return add(new NebulaQueryClause.Text(NebulaQueryClause.Kind.TEXT, sql, parameters,
+                parameters == null ? graphQuery.getParameters() : Collections.emptyMap()));
     }
 
-    private void appendSrcVertexId(Class clazz, String... vertexIds) {
-        appendEdgeVertexId(clazz, false, vertexIds);
+    private void render() {
+        if (renderedSql == null) {
+            NebulaBoundParameters parameters = new NebulaBoundParameters();
+            renderedSql = NebulaQueryClause.render(clauses, parameters);
+            renderedParameters = parameters;
+        }
+    }
+
+    /**
+     * where 条件和拼接的子查询带来的绑定参数
+     */
+    NebulaBoundParameters getBoundParameters() {
+        render();
+        return renderedParameters;
     }
 
-    private void appendDstVertexId(Class clazz, String... vertexIds) {
-        appendEdgeVertexId(clazz, true, vertexIds);
+    /**
+     * @return 按调用顺序记录的子句，生成语句时才做优化
+     */
+    public List<NebulaQueryClause> getClauses() {
+        return Collections.unmodifiableList(clauses);
     }
 
-    private void goFromOnly(Integer fromSteps, Integer toSteps) {
-        sqlBuilder.append("go ");
+    private static String goFromOnly(Integer fromSteps, Integer toSteps) {
+        StringBuilder builder = new StringBuilder("go ");
         if (fromSteps != null && fromSteps >= 0) {
-            sqlBuilder.append(fromSteps);
+            builder.append(fromSteps);
         }
         if (toSteps != null && toSteps >= 0) {
-            sqlBuilder.append(" to ").append(toSteps);
+            builder.append(" to ").append(toSteps);
+        }
+        return builder.append(" STEPS from ").toString();
+    }
+
+    private NebulaEdgeQuery goFrom(String head, Class clazz, EdgeDirectionEnum directionEnum, String... vertexIds) {
+        GraphEdgeType graphEdgeType = typeManager().getGraphEdgeType(clazz);
+        BiConsumer<StringBuilder, String> idWriter;
+        if (EdgeDirectionEnum.REVERSELY.equals(directionEnum)) {
+            idWriter = (builder, vertexId) -> GraphHelper.appendQueryDstId(builder, graphEdgeType, vertexId);
+        } else {
+            idWriter = (builder, vertexId) -> GraphHelper.appendQuerySrcId(builder, graphEdgeType, vertexId);
         }
-        sqlBuilder.append(" STEPS from ");
+        String tail = " over " + graphEdgeType.getEdgeName();
+        if (directionEnum != null) {
+            tail = tail + " " + directionEnum.getWord();
+        }
+        return add(new NebulaQueryClause.From(NebulaQueryClause.Kind.GO, head, Lists.newArrayList(vertexIds), idWriter, tail));
     }
 
     @Override
     public EdgeQuery goFrom(Class clazz, String... vertexIds) {
-        goFromOnly();
-        appendSrcVertexId(clazz, vertexIds);
-        return this;
+        return goFrom("go from ", clazz, null, vertexIds);
     }
 
     @Override
     public EdgeQuery goFrom(Class clazz, EdgeDirectionEnum directionEnum, String... vertexIds) {
-        if (EdgeDirectionEnum.REVERSELY.equals(directionEnum)) {
-            goFromOnly();
-            appendDstVertexId(clazz, vertexIds);
-        } else {
-            goFrom(clazz, vertexIds);
-        }
-        sqlBuilder.append(" ").append(directionEnum.getWord());
-        return this;
+        return goFrom("go from ", clazz, directionEnum, vertexIds);
     }
 
     @Override
     public EdgeQuery goFromSteps(Class clazz, int steps, String... vertexIds) {
-        goFromOnly(steps, null);
-        appendSrcVertexId(clazz, vertexIds);
-        return this;
+        return goFrom(goFromOnly(steps, null), clazz, null, vertexIds);
     }
 
     @Override
     public EdgeQuery goFromSteps(Class clazz, int fromSteps, int toSteps, String... vertexIds) {
-        goFromOnly(fromSteps, toSteps);
-        appendSrcVertexId(clazz, vertexIds);
-        return this;
+        return goFrom(goFromOnly(fromSteps, toSteps), clazz, null, vertexIds);
     }
 
     @Override
     public EdgeQuery goFromSteps(Class clazz, EdgeDirectionEnum directionEnum, int steps, String... vertexIds) {
-        if (EdgeDirectionEnum.REVERSELY.equals(directionEnum)) {
-            goFromOnly(steps, null);
-            appendDstVertexId(clazz, vertexIds);
-        } else {
-            goFromSteps(clazz, steps, vertexIds);
-        }
-        sqlBuilder.append(" ").append(directionEnum.getWord());
-        return this;
+        return goFrom(goFromOnly(steps, null), clazz, directionEnum, vertexIds);
     }
 
     @Override
     public EdgeQuery goFromSteps(Class clazz, EdgeDirectionEnum directionEnum, int fromSteps, int toSteps, String... vertexIds) {
-        if (EdgeDirectionEnum.REVERSELY.equals(directionEnum)) {
-            goFromOnly(fromSteps, toSteps);
-            appendDstVertexId(clazz, vertexIds);
-        } else {
-            goFromSteps(clazz, fromSteps, toSteps, vertexIds);
-        }
-        sqlBuilder.append(" ").append(directionEnum.getWord());
-        return this;
+        return goFrom(goFromOnly(fromSteps, toSteps), clazz, directionEnum, vertexIds);
     }
 
     @Override
     public EdgeQuery connectAdd(GraphQuery graphQuery) {
-        sqlBuilder.append(graphQuery.buildSql());
-        return this;
+        return appendQuery(NebulaQueryClause.Kind.TEXT, "", graphQuery);
     }
 
     @Override
     public String buildSql() {
-        return sqlBuilder.toString();
+        render();
+        return renderedSql;
+    }
+
+    @Override
+    public Map<String, Object> getParameters() {
+        return getBoundParameters().toMap();
     }
 
     @Override
     public EdgeQuery limit(int size) {
-        NebulaQueryUtils.limit(sqlBuilder, size);
-        return this;
+        return add(new NebulaQueryClause.Limit(null, size));
     }
 
     @Override
     public EdgeQuery limit(int offset, int size) {
-        NebulaQueryUtils.limit(sqlBuilder, offset, size);
-        return this;
+        return add(new NebulaQueryClause.Limit(offset, size));
     }
 
     @Override
     public EdgeQuery distinct() {
-        NebulaQueryUtils.distinct(sqlBuilder);
-        return this;
+        return text(NebulaQueryClause.Kind.TEXT, builder -> NebulaQueryUtils.distinct(builder));
+    }
+
+    private NebulaEdgeQuery yield(String head, boolean distinct, List<String> columns) {
+        return add(new NebulaQueryClause.Yield(head, distinct, columns));
     }
 
     @Override
     public EdgeQuery yield() {
-        sqlBuilder.append(" yield ");
-        return this;
+        return add(new NebulaQueryClause.Text(NebulaQueryClause.Kind.TEXT, NebulaQueryUtils.YIELD));
     }
 
     @Override
     public EdgeQuery yield(Class clazz, String... fields) {
-        NebulaQueryUtils.yield(graphTypeManager, sqlBuilder, clazz, fields);
-        return this;
+        return yield(NebulaQueryUtils.YIELD, false, NebulaQueryUtils.yieldColumns(typeManager(), null, clazz, fields));
     }
 
     @Override
     public EdgeQuery yield(String symbol, Class clazz, String... fields) {
-        NebulaQueryUtils.yield(graphTypeManager, sqlBuilder, symbol, clazz, fields);
-        return this;
+        return yield(NebulaQueryUtils.YIELD, false, NebulaQueryUtils.yieldColumns(typeManager(), symbol, clazz, fields));
     }
 
     @Override
     public EdgeQuery yield(String... fields) {
-        NebulaQueryUtils.yield(sqlBuilder, fields);
-        return this;
+        return yield(NebulaQueryUtils.YIELD, false, Lists.newArrayList(fields));
     }
 
     @Override
     public EdgeQuery yield(Map<String, String> fieldAlias) {
-        NebulaQueryUtils.yield(sqlBuilder, fieldAlias);
-        return this;
+        return yield(NebulaQueryUtils.YIELD, false, NebulaQueryUtils.yieldColumns(fieldAlias));
     }
 
     @Override
     public EdgeQuery yieldDistinct(Class clazz, String... fields) {
-        NebulaQueryUtils.yieldDistinct(graphTypeManager, sqlBuilder, clazz, fields);
-        return this;
+        return yield(NebulaQueryUtils.YIELD_DISTINCT, true, NebulaQueryUtils.yieldColumns(typeManager(), null, clazz, fields));
     }
 
     @Override
     public EdgeQuery yieldDistinct(String prefix, Class clazz, String... fields) {
-        NebulaQueryUtils.yieldDistinct(graphTypeManager, sqlBuilder, prefix, clazz, fields);
-        return this;
+        return yield(NebulaQueryUtils.YIELD_DISTINCT, true, NebulaQueryUtils.yieldColumns(typeManager(), prefix, clazz, fields));
     }
 
     @Override
     public EdgeQuery yieldDistinct(String... fields) {
-        NebulaQueryUtils.yieldDistinct(sqlBuilder, fields);
-        return this;
+        return yield(NebulaQueryUtils.YIELD_DISTINCT, true, Lists.newArrayList(fields));
     }
 
     @Override
     public EdgeQuery yieldDistinct(Map<String, String> fieldAlias) {
-        NebulaQueryUtils.yieldDistinct(sqlBuilder, fieldAlias);
-        return this;
+        return yield(NebulaQueryUtils.YIELD_ALIAS_DISTINCT, true, NebulaQueryUtils.yieldColumns(fieldAlias));
     }
 
     @Override
     public EdgeQuery pipe() {
-        NebulaQueryUtils.pipe(sqlBuilder);
-        return this;
+        return text(NebulaQueryClause.Kind.PIPE, builder -> NebulaQueryUtils.pipe(builder));
     }
 
     @Override
     public GraphQuery unionAll(GraphQuery graphQuery) {
-        NebulaQueryUtils.unionAll(sqlBuilder, graphQuery);
-        return this;
+        return appendQuery(NebulaQueryClause.Kind.SET_OPERATION, " union all ", graphQuery);
     }
 
     @Override
     public GraphQuery union(GraphQuery graphQuery) {
-        NebulaQueryUtils.union(sqlBuilder, graphQuery);
-        return this;
+        return appendQuery(NebulaQueryClause.Kind.SET_OPERATION, " union ", graphQuery);
     }
 
     @Override
     public EdgeQuery groupBy(Class clazz, String... fields) {
-        NebulaQueryUtils.groupBy(graphTypeManager, sqlBuilder, clazz, fields);
-        return this;
+        return text(NebulaQueryClause.Kind.GROUP_BY, builder -> NebulaQueryUtils.groupBy(typeManager(), builder, clazz, fields));
     }
 
     @Override
     public EdgeQuery groupBy(String... fields) {
-        NebulaQueryUtils.groupBy(sqlBuilder, fields);
-        return this;
+        return text(NebulaQueryClause.Kind.GROUP_BY, builder -> NebulaQueryUtils.groupBy(builder, fields));
     }
 
     @Override
     public EdgeQuery countComma(String alias) {
-        NebulaQueryUtils.countComma(sqlBuilder, alias);
-        return this;
+        return text(NebulaQueryClause.Kind.TEXT, builder -> NebulaQueryUtils.countComma(builder, alias));
     }
 
     @Override
     public EdgeQuery countComma(String field, String alias) {
-        NebulaQueryUtils.countComma(sqlBuilder, field, alias);
-        return this;
+        return text(NebulaQueryClause.Kind.TEXT, builder -> NebulaQueryUtils.countComma(builder, field, alias));
     }
 
     @Override
     public EdgeQuery countComma(Class clazz, String field, String alias) {
-        NebulaQueryUtils.countComma(graphTypeManager, sqlBuilder, clazz, field, alias);
-        return this;
+        return text(NebulaQueryClause.Kind.TEXT, builder -> NebulaQueryUtils.countComma(typeManager(), builder, clazz, field, alias));
     }
 
     @Override
     public EdgeQuery countComma(GraphExpression graphExpression, String alias) {
-        NebulaQueryUtils.countComma(sqlBuilder, graphExpression, alias);
-        return this;
+        return text(NebulaQueryClause.Kind.TEXT, builder -> NebulaQueryUtils.countComma(builder, graphExpression, alias));
     }
 
     @Override
     public EdgeQuery count(String field, String alias) {
-        NebulaQueryUtils.count(sqlBuilder, field, alias);
-        return this;
+        return text(NebulaQueryClause.Kind.TEXT, builder -> NebulaQueryUtils.count(builder, field, alias));
     }
 
     @Override
     public EdgeQuery count(Map<String, String> fieldAlias) {
-        NebulaQueryUtils.count(sqlBuilder, fieldAlias);
-        return this;
+        return text(NebulaQueryClause.Kind.TEXT, builder -> NebulaQueryUtils.count(builder, fieldAlias));
     }
 
     @Override
     public EdgeQuery count(String alias) {
-        NebulaQueryUtils.count(sqlBuilder, alias);
-        return this;
+        return text(NebulaQueryClause.Kind.TEXT, builder -> NebulaQueryUtils.count(builder, alias));
     }
 
     @Override
     public EdgeQuery count(Class clazz, String field, String alias) {
-        NebulaQueryUtils.count(graphTypeManager, sqlBuilder, clazz, field, alias);
-        return this;
+        return text(NebulaQueryClause.Kind.TEXT, builder -> NebulaQueryUtils.count(typeManager(), builder, clazz, field, alias));
     }
 
     @Override
     public EdgeQuery count(GraphExpression graphExpression, String alias) {
-        NebulaQueryUtils.count(sqlBuilder, graphExpression, alias);
-        return this;
+        return text(NebulaQueryClause.Kind.TEXT, builder -> NebulaQueryUtils.count(builder, graphExpression, alias));
     }
 
     @Override
     public EdgeQuery avg(GraphExpression graphExpression, String alias) {
-        NebulaQueryUtils.avg(sqlBuilder, graphExpression, alias);
-        return this;
+        return text(NebulaQueryClause.Kind.TEXT, builder -> NebulaQueryUtils.avg(builder, graphExpression, alias));
     }
 
     @Override
     public EdgeQuery avg(String field, String alias) {
-        NebulaQueryUtils.avg(sqlBuilder, field, alias);
-        return this;
+        return text(NebulaQueryClause.Kind.TEXT, builder -> NebulaQueryUtils.avg(builder, field, alias));
     }
 
     @Override
     public EdgeQuery avg(Class clazz, String field, String alias) {
-        NebulaQueryUtils.avg(graphTypeManager, sqlBuilder, clazz, field, alias);
-        return this;
+        return text(NebulaQueryClause.Kind.TEXT, builder -> NebulaQueryUtils.avg(typeManager(), builder, clazz, field, alias));
     }
 
     @Override
     public EdgeQuery avgComma(GraphExpression graphExpression, String alias) {
-        NebulaQueryUtils.avgComma(sqlBuilder, graphExpression, alias);
-        return this;
+        return text(NebulaQueryClause.Kind.TEXT, builder -> NebulaQueryUtils.avgComma(builder, graphExpression, alias));
     }
 
     @Override
     public EdgeQuery avgComma(String field, String alias) {
-        NebulaQueryUtils.avgComma(sqlBuilder, field, alias);
-        return this;
+        return text(NebulaQueryClause.Kind.TEXT, builder -> NebulaQueryUtils.avgComma(builder, field, alias));
     }
 
     @Override
     public EdgeQuery avgComma(Class clazz, String field, String alias) {
-        NebulaQueryUtils.avgComma(graphTypeManager, sqlBuilder, clazz, field, alias);
-        return this;
+        return text(NebulaQueryClause.Kind.TEXT, builder -> NebulaQueryUtils.avgComma(typeManager(), builder, clazz, field, alias));
     }
 
     @Override
     public EdgeQuery sum(GraphExpression graphExpression, String alias) {
-        NebulaQueryUtils.sum(sqlBuilder, graphExpression, alias);
-        return this;
+        return text(NebulaQueryClause.Kind.TEXT, builder -> NebulaQueryUtils.sum(builder, graphExpression, alias));
     }
 
     @Override
     public EdgeQuery sum(String field, String alias) {
-        NebulaQueryUtils.sum(sqlBuilder, field, alias);
-        return this;
+        return text(NebulaQueryClause.Kind.TEXT, builder -> NebulaQueryUtils.sum(builder, field, alias));
     }
 
     @Override
     public EdgeQuery sum(Class clazz, String field, String alias) {
-        NebulaQueryUtils.sum(graphTypeManager, sqlBuilder, clazz, field, alias);
-        return this;
+        return text(NebulaQueryClause.Kind.TEXT, builder -> NebulaQueryUtils.sum(typeManager(), builder, clazz, field, alias));
     }
 
     @Override
     public EdgeQuery sumComma(GraphExpression graphExpression, String alias) {
-        NebulaQueryUtils.sumComma(sqlBuilder, graphExpression, alias);
-        return this;
+        return text(NebulaQueryClause.Kind.TEXT, builder -> NebulaQueryUtils.sumComma(builder, graphExpression, alias));
     }
 
     @Override
     public EdgeQuery sumComma(String field, String alias) {
-        NebulaQueryUtils.sumComma(sqlBuilder, field, alias);
-        return this;
+        return text(NebulaQueryClause.Kind.TEXT, builder -> NebulaQueryUtils.sumComma(builder, field, alias));
     }
 
     @Override
     public EdgeQuery sumComma(Class clazz, String field, String alias) {
-        NebulaQueryUtils.sumComma(graphTypeManager, sqlBuilder, clazz, field, alias);
-        return this;
+        return text(NebulaQueryClause.Kind.TEXT, builder -> NebulaQueryUtils.sumComma(typeManager(), builder, clazz, field, alias));
     }
 
     @Override
     public EdgeQuery comma() {
-        NebulaQueryUtils.comma(sqlBuilder);
-        return this;
+        return text(NebulaQueryClause.Kind.TEXT, builder -> NebulaQueryUtils.comma(builder));
     }
 
     @Override
     public EdgeQuery where(GraphCondition graphCondition) {
-        NebulaQueryUtils.where(sqlBuilder, graphCondition);
-        return this;
+        NebulaBoundParameters parameters = NebulaBoundParameters.of(graphCondition);
+        return add(new NebulaQueryClause.Where(graphCondition.buildSql(), parameters,
+                parameters == null ? graphCondition.getParameters() : Collections.emptyMap()));
     }
 
 
@@ -0,0 +1,315 @@
+/* Copyright (c) 2022 com.github.anyzm. All rights reserved.
+ *
+ * This source code is licensed under Apache 2.0 License,
+ * attached with Common Clause Condition 1.0, found in the LICENSES directory.
+ */
+package io.github.anyzm.graph.ocean.engine;
+
+import io.github.anyzm.graph.ocean.dao.GraphTypeManager;
+import io.github.anyzm.graph.ocean.domain.EdgeQuery;
+import io.github.anyzm.graph.ocean.domain.GraphCondition;
+import io.github.anyzm.graph.ocean.domain.GraphExpression;
+import io.github.anyzm.graph.ocean.domain.GraphQuery;
+import io.github.anyzm.graph.ocean.enums.EdgeDirectionEnum;
+import io.github.anyzm.graph.ocean.exception.CheckThrower;
+
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Description  NebulaImmutableEdgeQuery is used for
+ * 不可变的边查询：每次调用返回新的查询，原查询不变，可以安全地在多个线程间共享，
+ * 也可以从同一个查询前缀派生出多个不同的查询，派生的查询共享前缀的子句；
+ * 查询绑定创建时指定的类型管理器，不使用 NebulaEdgeQuery 的静态类型管理器，生成的语句与 NebulaEdgeQuery 相同
+ *
+ * @author Anyzm
+ * Date  2026/10/17 - 23:35
+ * @version 1.0.0
+ */
+public final class NebulaImmutableEdgeQuery implements EdgeQuery {
+
+    private final GraphTypeManager graphTypeManager;
+
+    private final NebulaQueryFragment fragment;
+
+    private NebulaImmutableEdgeQuery(GraphTypeManager graphTypeManager, NebulaQueryFragment fragment) {
+        this.graphTypeManager = graphTypeManager;
+        this.fragment = fragment;
+    }
+
+    /**
+     * @param graphTypeManager 查询使用的类型管理器
+     * @return 空查询
+     */
+    public static NebulaImmutableEdgeQuery build(GraphTypeManager graphTypeManager) {
+        CheckThrower.ifTrueThrow(graphTypeManager == null, "GraphTypeManager must not be null");
+        return new NebulaImmutableEdgeQuery(graphTypeManager, NebulaQueryFragment.ROOT);
+    }
+
+    /**
+     * 用一次性的可变查询记录这一步的子句，挂在当前节点之后
+     */
+    private NebulaImmutableEdgeQuery then(Consumer<NebulaEdgeQuery> step) {
+        NebulaEdgeQuery query = NebulaEdgeQuery.build(graphTypeManager);
+        step.accept(query);
+        return new NebulaImmutableEdgeQuery(graphTypeManager, fragment.append(query.getClauses()));
+    }
+
+    /**
+     * @return 从第一步到当前的全部子句，生成语句时才做优化
+     */
+    public List<NebulaQueryClause> getClauses() {
+        return fragment.getClauses();
+    }
+
+    NebulaBoundParameters getBoundParameters() {
+        return fragment.getParameters();
+    }
+
+    @Override
+    public String buildSql() {
+        return fragment.getSql();
+    }
+
+    @Override
+    public Map<String, Object> getParameters() {
+        return fragment.getParameters().toMap();
+    }
+
+    @Override
+    public EdgeQuery goFrom(Class clazz, String... vertexIds) {
+        return then(query -> query.goFrom(clazz, vertexIds));
+    }
+
+    @Override
+    public EdgeQuery goFrom(Class clazz, EdgeDirectionEnum directionEnum, String... vertexIds) {
+        return then(query -> query.goFrom(clazz, directionEnum, vertexIds));
+    }
+
+    @Override
+    public EdgeQuery goFromSteps(Class clazz, int steps, String... vertexIds) {
+        return then(query -> query.goFromSteps(clazz, steps, vertexIds));
+    }
+
+    @Override
+    public EdgeQuery goFromSteps(Class clazz, int fromSteps, int toSteps, String... vertexIds) {
+        return then(query -> query.goFromSteps(clazz, fromSteps, toSteps, vertexIds));
+    }
+
+    @Override
+    public EdgeQuery goFromSteps(Class clazz, EdgeDirectionEnum directionEnum, int steps, String... vertexIds) {
+        return then(query -> query.goFromSteps(clazz, directionEnum, steps, vertexIds));
+    }
+
+    @Override
+    public EdgeQuery goFromSteps(Class clazz, EdgeDirectionEnum directionEnum, int fromSteps, int toSteps, String... vertexIds) {
+        return then(query -> query.goFromSteps(clazz, directionEnum, fromSteps, toSteps, vertexIds));
+    }
+
+    @Override
+    public EdgeQuery connectAdd(GraphQuery graphQuery) {
+        return then(query -> query.connectAdd(graphQuery));
+    }
+
+    @Override
+    public EdgeQuery limit(int size) {
+        return then(query -> query.limit(size));
+    }
+
+    @Override
+    public EdgeQuery limit(int offset, int size) {
+        return then(query -> query.limit(offset, size));
+    }
+
+    @Override
+    public EdgeQuery distinct() {
+        return then(query -> query.distinct());
+    }
+
+    @Override
+    public EdgeQuery yield() {
+        return then(query -> query.yield());
+    }
+
+    @Override
+    public EdgeQuery yield(Class clazz, String... fields) {
+        return then(query -> query.yield(clazz, fields));
+    }
+
+    @Override
+    public EdgeQuery yield(String symbol, Class clazz, String... fields) {
+        return then(query -> query.yield(symbol, clazz, fields));
+    }
+
+    @Override
+    public EdgeQuery yield(String... fields) {
+        return then(query -> query.yield(fields));
+    }
+
+    @Override
+    public EdgeQuery yield(Map<String, String> fieldAlias) {
+        return then(query -> query.yield(fieldAlias));
+    }
+
+    @Override
+    public EdgeQuery yieldDistinct(Class clazz, String... fields) {
+        return then(query -> query.yieldDistinct(clazz, fields));
+    }
+
+    @Override
+    public EdgeQuery yieldDistinct(String prefix, Class clazz, String... fields) {
+        return then(query -> query.yieldDistinct(prefix, clazz, fields));
+    }
+
+    @Override
+    public EdgeQuery yieldDistinct(String... fields) {
+        return then(query -> query.yieldDistinct(fields));
+    }
+
+    @Override
+    public EdgeQuery yieldDistinct(Map<String, String> fieldAlias) {
+        return then(query -> query.yieldDistinct(fieldAlias));
+    }
+
+    @Override
+    public EdgeQuery pipe() {
+        return then(query -> query.pipe());
+    }
+
+    @Override
+    public EdgeQuery unionAll(GraphQuery graphQuery) {
+        return then(query -> query.unionAll(graphQuery));
+    }
+
+    @Override
+    public EdgeQuery union(GraphQuery graphQuery) {
+        return then(query -> query.union(graphQuery));
+    }
+
+    @Override
+    public EdgeQuery groupBy(Class clazz, String... fields) {
+        return then(query -> query.groupBy(clazz, fields));
+    }
+
+    @Override
+    public EdgeQuery groupBy(String... fields) {
+        return then(query -> query.groupBy(fields));
+    }
+
+    @Override
+    public EdgeQuery countComma(String alias) {
+        return then(query -> query.countComma(alias));
+    }
+
+    @Override
+    public EdgeQuery countComma(String field, String alias) {
+        return then(query -> query.countComma(field, alias));
+    }
+
+    @Override
+    public EdgeQuery countComma(Class clazz, String field, String alias) {
+        return then(query -> query.countComma(clazz, field, alias));
+    }
+
+    @Override
+    public EdgeQuery countComma(GraphExpression graphExpression, String alias) {
+        return then(query -> query.countComma(graphExpression, alias));
+    }
+
+    @Override
+    public EdgeQuery count(String field, String alias) {
+        return then(query -> query.count(field, alias));
+    }
+
+    @Override
+    public EdgeQuery count(Map<String, String> fieldAlias) {
+        return then(query -> query.count(fieldAlias));
+    }
+
+    @Override
+    public EdgeQuery count(String alias) {
+        return then(query -> query.count(alias));
+    }
+
+    @Override
+    public EdgeQuery count(Class clazz, String field, String alias) {
+        return then(query -> query.count(clazz, field, alias));
+    }
+
+    @Override
+    public EdgeQuery count(GraphExpression graphExpression, String alias) {
+        return then(query -> query.count(graphExpression, alias));
+    }
+
+    @Override
+    public EdgeQuery avg(GraphExpression graphExpression, String alias) {
+        return then(query -> query.avg(graphExpression, alias));
+    }
+
+    @Override
+    public EdgeQuery avg(String field, String alias) {
+        return then(query -> query.avg(field, alias));
+    }
+
+    @Override
+    public EdgeQuery avg(Class clazz, String field, String alias) {
+        return then(query -> query.avg(clazz, field, alias));
+    }
+
+    @Override
+    public EdgeQuery avgComma(GraphExpression graphExpression, String alias) {
+        return then(query -> query.avgComma(graphExpression, alias));
+    }
+
+    @Override
+    public EdgeQuery avgComma(String field, String alias) {
+        return then(query -> query.avgComma(field, alias));
+    }
+
+    @Override
+    public EdgeQuery avgComma(Class clazz, String field, String alias) {
+        return then(query -> query.avgComma(clazz, field, alias));
+    }
+
+    @Override
+    public EdgeQuery sum(GraphExpression graphExpression, String alias) {
+        return then(query -> query.sum(graphExpression, alias));
+    }
+
+    @Override
+    public EdgeQuery sum(String field, String alias) {
+        return then(query -> query.sum(field, alias));
+    }
+
+    @Override
+    public EdgeQuery sum(Class clazz, String field, String alias) {
+        return then(query -> query.sum(clazz, field, alias));
+    }
+
+    @Override
+    public EdgeQuery sumComma(GraphExpression graphExpression, String alias) {
+        return then(query -> query.sumComma(graphExpression, alias));
+    }
+
+    @Override
+    public EdgeQuery sumComma(String field, String alias) {
+        return then(query -> query.sumComma(field, alias));
+    }
+
+    @Override
+    public EdgeQuery sumComma(Class clazz, String field, String alias) {
+        return then(query -> query.sumComma(clazz, field, alias));
+    }
+
+    @Override
+    public EdgeQuery comma() {
+        return then(query -> query.comma());
+    }
+
+    @Override
+    public EdgeQuery where(GraphCondition graphCondition) {
+        return then(query -> query.where(graphCondition));
+    }
+
+}
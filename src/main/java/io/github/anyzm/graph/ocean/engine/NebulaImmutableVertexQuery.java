@@ -0,0 +1,289 @@
+/* Copyright (c) 2022 com.github.anyzm. All rights reserved.
+ *
+ * This source code is licensed under Apache 2.0 License,
+ * attached with Common Clause Condition 1.0, found in the LICENSES directory.
+ */
+package io.github.anyzm.graph.ocean.engine;
+
+import io.github.anyzm.graph.ocean.dao.GraphTypeManager;
+import io.github.anyzm.graph.ocean.domain.GraphCondition;
+import io.github.anyzm.graph.ocean.domain.GraphExpression;
+import io.github.anyzm.graph.ocean.domain.GraphQuery;
+import io.github.anyzm.graph.ocean.domain.VertexQuery;
+import io.github.anyzm.graph.ocean.exception.CheckThrower;
+
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Description  NebulaImmutableVertexQuery is used for
+ * 不可变的顶点查询：每次调用返回新的查询，原查询不变，可以安全地在多个线程间共享，
+ * 也可以从同一个查询前缀派生出多个不同的查询，派生的查询共享前缀的子句；
+ * 查询绑定创建时指定的类型管理器，不使用 NebulaVertexQuery 的静态类型管理器，生成的语句与 NebulaVertexQuery 相同
+ *
+ * @author Anyzm
+ * Date  2026/10/17 - 23:30
+ * @version 1.0.0
+ */
+public final class NebulaImmutableVertexQuery implements VertexQuery {
+
+    private final GraphTypeManager graphTypeManager;
+
+    private final NebulaQueryFragment fragment;
+
+    private NebulaImmutableVertexQuery(GraphTypeManager graphTypeManager, NebulaQueryFragment fragment) {
+        this.graphTypeManager = graphTypeManager;
+        this.fragment = fragment;
+    }
+
+    /**
+     * @param graphTypeManager 查询使用的类型管理器
+     * @return 空查询
+     */
+    public static NebulaImmutableVertexQuery build(GraphTypeManager graphTypeManager) {
+        CheckThrower.ifTrueThrow(graphTypeManager == null, "GraphTypeManager must not be null");
+        return new NebulaImmutableVertexQuery(graphTypeManager, NebulaQueryFragment.ROOT);
+    }
+
+    /**
+     * 用一次性的可变查询记录这一步的子句，挂在当前节点之后
+     */
+    private NebulaImmutableVertexQuery then(Consumer<NebulaVertexQuery> step) {
+        NebulaVertexQuery query = NebulaVertexQuery.build(graphTypeManager);
+        step.accept(query);
+        return new NebulaImmutableVertexQuery(graphTypeManager, fragment.append(query.getClauses()));
+    }
+
+    /**
+     * @return 从第一步到当前的全部子句，生成语句时才做优化
+     */
+    public List<NebulaQueryClause> getClauses() {
+        return fragment.getClauses();
+    }
+
+    NebulaBoundParameters getBoundParameters() {
+        return fragment.getParameters();
+    }
+
+    @Override
+    public String buildSql() {
+        return fragment.getSql();
+    }
+
+    @Override
+    public Map<String, Object> getParameters() {
+        return fragment.getParameters().toMap();
+    }
+
+    @Override
+    public VertexQuery fetchPropOn(Class clazz, String... vertexIds) {
+        return then(query -> query.fetchPropOn(clazz, vertexIds));
+    }
+
+    @Override
+    public VertexQuery connectAdd(GraphQuery graphQuery) {
+        return then(query -> query.connectAdd(graphQuery));
+    }
+
+    @Override
+    public VertexQuery limit(int size) {
+        return then(query -> query.limit(size));
+    }
+
+    @Override
+    public VertexQuery limit(int offset, int size) {
+        return then(query -> query.limit(offset, size));
+    }
+
+    @Override
+    public VertexQuery distinct() {
+        return then(query -> query.distinct());
+    }
+
+    @Override
+    public VertexQuery yield() {
+        return then(query -> query.yield());
+    }
+
+    @Override
+    public VertexQuery yield(String symbol, Class clazz, String... fields) {
+        return then(query -> query.yield(symbol, clazz, fields));
+    }
+
+    @Override
+    public VertexQuery yield(Class clazz, String... fields) {
+        return then(query -> query.yield(clazz, fields));
+    }
+
+    @Override
+    public VertexQuery yield(String... fields) {
+        return then(query -> query.yield(fields));
+    }
+
+    @Override
+    public VertexQuery yield(Map<String, String> fieldAlias) {
+        return then(query -> query.yield(fieldAlias));
+    }
+
+    @Override
+    public VertexQuery yieldDistinct(Class clazz, String... fields) {
+        return then(query -> query.yieldDistinct(clazz, fields));
+    }
+
+    @Override
+    public VertexQuery yieldDistinct(String symbol, Class clazz, String... fields) {
+        return then(query -> query.yieldDistinct(symbol, clazz, fields));
+    }
+
+    @Override
+    public VertexQuery yieldDistinct(String... fields) {
+        return then(query -> query.yieldDistinct(fields));
+    }
+
+    @Override
+    public VertexQuery yieldDistinct(Map<String, String> fieldAlias) {
+        return then(query -> query.yieldDistinct(fieldAlias));
+    }
+
+    @Override
+    public VertexQuery pipe() {
+        return then(query -> query.pipe());
+    }
+
+    @Override
+    public VertexQuery unionAll(GraphQuery graphQuery) {
+        return then(query -> query.unionAll(graphQuery));
+    }
+
+    @Override
+    public VertexQuery union(GraphQuery graphQuery) {
+        return then(query -> query.union(graphQuery));
+    }
+
+    @Override
+    public VertexQuery groupBy(Class clazz, String... fields) {
+        return then(query -> query.groupBy(clazz, fields));
+    }
+
+    @Override
+    public VertexQuery groupBy(String... fields) {
+        return then(query -> query.groupBy(fields));
+    }
+
+    @Override
+    public VertexQuery countComma(String alias) {
+        return then(query -> query.countComma(alias));
+    }
+
+    @Override
+    public VertexQuery countComma(String field, String alias) {
+        return then(query -> query.countComma(field, alias));
+    }
+
+    @Override
+    public VertexQuery countComma(Class clazz, String field, String alias) {
+        return then(query -> query.countComma(clazz, field, alias));
+    }
+
+    @Override
+    public VertexQuery countComma(GraphExpression graphExpression, String alias) {
+        return then(query -> query.countComma(graphExpression, alias));
+    }
+
+    @Override
+    public VertexQuery count(String field, String alias) {
+        return then(query -> query.count(field, alias));
+    }
+
+    @Override
+    public VertexQuery count(Map<String, String> fieldAlias) {
+        return then(query -> query.count(fieldAlias));
+    }
+
+    @Override
+    public VertexQuery count(String alias) {
+        return then(query -> query.count(alias));
+    }
+
+    @Override
+    public VertexQuery count(Class clazz, String field, String alias) {
+        return then(query -> query.count(clazz, field, alias));
+    }
+
+    @Override
+    public VertexQuery count(GraphExpression graphExpression, String alias) {
+        return then(query -> query.count(graphExpression, alias));
+    }
+
+    @Override
+    public VertexQuery avg(GraphExpression graphExpression, String alias) {
+        return then(query -> query.avg(graphExpression, alias));
+    }
+
+    @Override
+    public VertexQuery avg(String field, String alias) {
+        return then(query -> query.avg(field, alias));
+    }
+
+    @Override
+    public VertexQuery avg(Class clazz, String field, String alias) {
+        return then(query -> query.avg(clazz, field, alias));
+    }
+
+    @Override
+    public VertexQuery avgComma(GraphExpression graphExpression, String alias) {
+        return then(query -> query.avgComma(graphExpression, alias));
+    }
+
+    @Override
+    public VertexQuery avgComma(String field, String alias) {
+        return then(query -> query.avgComma(field, alias));
+    }
+
+    @Override
+    public VertexQuery avgComma(Class clazz, String field, String alias) {
+        return then(query -> query.avgComma(clazz, field, alias));
+    }
+
+    @Override
+    public VertexQuery sum(GraphExpression graphExpression, String alias) {
+        return then(query -> query.sum(graphExpression, alias));
+    }
+
+    @Override
+    public VertexQuery sum(String field, String alias) {
+        return then(query -> query.sum(field, alias));
+    }
+
+    @Override
+    public VertexQuery sum(Class clazz, String field, String alias) {
+        return then(query -> query.sum(clazz, field, alias));
+    }
+
+    @Override
+    public VertexQuery sumComma(GraphExpression graphExpression, String alias) {
+        return then(query -> query.sumComma(graphExpression, alias));
+    }
+
+    @Override
+    public VertexQuery sumComma(String field, String alias) {
+        return then(query -> query.sumComma(field, alias));
+    }
+
+    @Override
+    public VertexQuery sumComma(Class clazz, String field, String alias) {
+        return then(query -> query.sumComma(clazz, field, alias));
+    }
+
+    @Override
+    public VertexQuery comma() {
+        return then(query -> query.comma());
+    }
+
+    @Override
+    public VertexQuery where(GraphCondition graphCondition) {
+        return then(query -> query.where(graphCondition));
+    }
+
+}
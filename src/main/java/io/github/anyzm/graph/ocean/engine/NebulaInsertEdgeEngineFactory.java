@@ -0,0 +1,59 @@
+/* Copyright (c) 2022 com.github.anyzm. All rights reserved.
+ *
+ * This source code is licensed under Apache 2.0 License,
+ * attached with Common Clause Condition 1.0, found in the LICENSES directory.
+ */
+package io.github.anyzm.graph.ocean.engine;
+
+import io.github.anyzm.graph.ocean.dao.EdgeUpdateEngine;
+import io.github.anyzm.graph.ocean.dao.GraphUpdateEdgeEngineFactory;
+import io.github.anyzm.graph.ocean.domain.impl.GraphEdgeEntity;
+import io.github.anyzm.graph.ocean.domain.impl.GraphVertexEntity;
+import io.github.anyzm.graph.ocean.exception.NebulaException;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.List;
+
+/**
+ * Description  NebulaInsertEdgeEngineFactory is used for
+ * 构造多行 INSERT EDGE 引擎，带顶点保存时起点和终点同样使用多行 INSERT VERTEX，
+ * 通过 NebulaGraphMapper 的构造方法替换默认的 UPSERT 引擎工厂即可使用
+ *
+ * @author Anyzm
+ * Date  2026/10/17 - 11:05
+ * @version 1.0.0
+ */
+@Slf4j
+public class NebulaInsertEdgeEngineFactory implements GraphUpdateEdgeEngineFactory {
+
+    private final int rowsPerStatement;
+
+    private final boolean ifNotExists;
+
+    public NebulaInsertEdgeEngineFactory() {
+        this(NebulaBatchVertexInsert.DEFAULT_ROWS_PER_STATEMENT, false);
+    }
+
+    /**
+     * @param rowsPerStatement 每条语句包含的边(顶点)数
+     * @param ifNotExists      是否使用 IF NOT EXISTS
+     */
+    public NebulaInsertEdgeEngineFactory(int rowsPerStatement, boolean ifNotExists) {
+        this.rowsPerStatement = rowsPerStatement;
+        this.ifNotExists = ifNotExists;
+    }
+
+    @Override
+    public <S, T, E> EdgeUpdateEngine<S, T, E> build(List<GraphEdgeEntity<S, T, E>> graphEdgeEntities) throws NebulaException {
+        return new NebulaBatchEdgesInsert<>(graphEdgeEntities, null, null, rowsPerStatement, ifNotExists);
+    }
+
+    @Override
+    public <S, T, E> EdgeUpdateEngine<S, T, E> build(List<GraphEdgeEntity<S, T, E>> graphEdgeEntities,
+                                                     List<GraphVertexEntity<S>> srcGraphVertexEntities,
+                                                     List<GraphVertexEntity<T>> dstGraphVertexEntities) throws NebulaException {
+        return new NebulaBatchEdgesInsert<>(graphEdgeEntities, srcGraphVertexEntities, dstGraphVertexEntities,
+                rowsPerStatement, ifNotExists);
+    }
+
+}
@@ -0,0 +1,50 @@
+/* Copyright (c) 2022 com.github.anyzm. All rights reserved.
+ *
+ * This source code is licensed under Apache 2.0 License,
+ * attached with Common Clause Condition 1.0, found in the LICENSES directory.
+ */
+package io.github.anyzm.graph.ocean.engine;
+
+import io.github.anyzm.graph.ocean.dao.GraphUpdateVertexEngineFactory;
+import io.github.anyzm.graph.ocean.dao.VertexUpdateEngine;
+import io.github.anyzm.graph.ocean.domain.impl.GraphVertexEntity;
+import io.github.anyzm.graph.ocean.exception.NebulaException;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.List;
+
+/**
+ * Description  NebulaInsertVertexEngineFactory is used for
+ * 构造多行 INSERT VERTEX 引擎，适合追加写入的批量导入场景，
+ * 通过 NebulaGraphMapper 的构造方法替换默认的 UPSERT 引擎工厂即可使用
+ *
+ * @author Anyzm
+ * Date  2026/10/17 - 10:20
+ * @version 1.0.0
+ */
+@Slf4j
+public class NebulaInsertVertexEngineFactory implements GraphUpdateVertexEngineFactory {
+
+    private final int rowsPerStatement;
+
+    private final boolean ifNotExists;
+
+    public NebulaInsertVertexEngineFactory() {
+        this(NebulaBatchVertexInsert.DEFAULT_ROWS_PER_STATEMENT, false);
+    }
+
+    /**
+     * @param rowsPerStatement 每条语句包含的顶点数
+     * @param ifNotExists      是否使用 IF NOT EXISTS
+     */
+    public NebulaInsertVertexEngineFactory(int rowsPerStatement, boolean ifNotExists) {
+        this.rowsPerStatement = rowsPerStatement;
+        this.ifNotExists = ifNotExists;
+    }
+
+    @Override
+    public <T> VertexUpdateEngine build(List<GraphVertexEntity<T>> graphVertexEntities) throws NebulaException {
+        return new NebulaBatchVertexInsert<>(graphVertexEntities, rowsPerStatement, ifNotExists);
+    }
+
+}
@@ -0,0 +1,253 @@
+/* Copyright (c) 2022 com.github.anyzm. All rights reserved.
+ *
+ * This source code is licensed under Apache 2.0 License,
+ * attached with Common Clause Condition 1.0, found in the LICENSES directory.
+ */
+package io.github.anyzm.graph.ocean.engine;
+
+import lombok.Getter;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiConsumer;
+
+/**
+ * Description  NebulaQueryClause is used for
+ * 查询语法树的子句：查询构造器按调用顺序记录子句，生成语句前先经过 NebulaQueryOptimizer 改写，再一次性写出；
+ * go/fetch、yield、where、limit 保存结构化的内容供优化使用，其余子句保存生成好的语句片段
+ *
+ * @author Anyzm
+ * Date  2026/10/17 - 23:50
+ * @version 1.0.0
+ */
+public abstract class NebulaQueryClause {
+
+    public enum Kind {
+        /**
+         * go from ... over ...
+         */
+        GO,
+        /**
+         * fetch prop on ...
+         */
+        FETCH,
+        YIELD,
+        WHERE,
+        PIPE,
+        LIMIT,
+        GROUP_BY,
+        /**
+         * union/union all
+         */
+        SET_OPERATION,
+        /**
+         * 聚合函数、逗号、distinct 以及拼接的子查询等其他片段
+         */
+        TEXT
+    }
+
+    @Getter
+    private final Kind kind;
+
+    NebulaQueryClause(Kind kind) {
+        this.kind = kind;
+    }
+
+    /**
+     * 写出子句，子句中的绑定参数并入 parameters 并重新编号
+     *
+     * @param builder    语句
+     * @param parameters 整个查询的绑定参数
+     */
+    abstract void render(StringBuilder builder, NebulaBoundParameters parameters);
+
+    /**
+     * 优化后一次写出整个查询
+     *
+     * @param clauses    按调用顺序记录的子句
+     * @param parameters 接收查询的绑定参数
+     * @return 语句
+     */
+    static String render(List<NebulaQueryClause> clauses, NebulaBoundParameters parameters) {
+        StringBuilder builder = new StringBuilder(clauses.size() * 32);
+        for (NebulaQueryClause clause : NebulaQueryOptimizer.optimize(clauses)) {
+            clause.render(builder, parameters);
+        }
+        return builder.toString();
+    }
+
+    /**
+     * 子句在记录时就确定，语句和参数都复制一份，调用方之后修改条件或查询不会让占位符位置和语句对不上
+     */
+    private static NebulaBoundParameters copyOf(NebulaBoundParameters parameters) {
+        return parameters == null || parameters.isEmpty() ? null : parameters.copy();
+    }
+
+    private static Map<String, Object> copyOf(Map<String, Object> parameters) {
+        return parameters == null || parameters.isEmpty() ? Collections.emptyMap()
+                : Collections.unmodifiableMap(new LinkedHashMap<>(parameters));
+    }
+
+    /**
+     * 生成好的语句片段
+     */
+    public static final class Text extends NebulaQueryClause {
+
+        @Getter
+        private final String sql;
+
+        private final NebulaBoundParameters parameters;
+
+        private final Map<String, Object> foreignParameters;
+
+        Text(Kind kind, String sql) {
+            this(kind, sql, null, Collections.emptyMap());
+        }
+
+        Text(Kind kind, String sql, NebulaBoundParameters parameters, Map<String, Object> foreignParameters) {
+            super(kind);
+            this.sql = sql;
+            this.parameters = copyOf(parameters);
+            this.foreignParameters = copyOf(foreignParameters);
+        }
+
+        @Override
+        void render(StringBuilder builder, NebulaBoundParameters parameters) {
+            parameters.append(builder, sql, this.parameters, foreignParameters);
+        }
+
+    }
+
+    /**
+     * go from 起点 over 边 或 fetch prop on 标签 顶点
+     */
+    public static final class From extends NebulaQueryClause {
+
+        private final String head;
+
+        @Getter
+        private final List<String> vertexIds;
+
+        private final BiConsumer<StringBuilder, String> idWriter;
+
+        private final String tail;
+
+        From(Kind kind, String head, List<String> vertexIds, BiConsumer<StringBuilder, String> idWriter, String tail) {
+            super(kind);
+            this.head = head;
+            this.vertexIds = vertexIds;
+            this.idWriter = idWriter;
+            this.tail = tail;
+        }
+
+        From withVertexIds(List<String> vertexIds) {
+            return new From(getKind(), head, vertexIds, idWriter, tail);
+        }
+
+        @Override
+        void render(StringBuilder builder, NebulaBoundParameters parameters) {
+            builder.append(head);
+            for (String vertexId : vertexIds) {
+                idWriter.accept(builder.append(' '), vertexId);
+                builder.append(',');
+            }
+            // 与原来的拼接方式一致，去掉最后一个id后的逗号
+            builder.setLength(builder.length() - 1);
+            builder.append(tail);
+        }
+
+    }
+
+    /**
+     * yield 列
+     */
+    public static final class Yield extends NebulaQueryClause {
+
+        private final String head;
+
+        @Getter
+        private final boolean distinct;
+
+        @Getter
+        private final List<String> columns;
+
+        Yield(String head, boolean distinct, List<String> columns) {
+            super(Kind.YIELD);
+            this.head = head;
+            this.distinct = distinct;
+            this.columns = columns;
+        }
+
+        Yield withColumns(List<String> columns) {
+            return new Yield(head, distinct, columns);
+        }
+
+        @Override
+        void render(StringBuilder builder, NebulaBoundParameters parameters) {
+            builder.append(head);
+            for (String column : columns) {
+                builder.append(column).append(',');
+            }
+            builder.setLength(builder.length() - 1);
+        }
+
+    }
+
+    /**
+     * where 条件
+     */
+    public static final class Where extends NebulaQueryClause {
+
+        @Getter
+        private final String condition;
+
+        private final NebulaBoundParameters parameters;
+
+        private final Map<String, Object> foreignParameters;
+
+        Where(String condition, NebulaBoundParameters parameters, Map<String, Object> foreignParameters) {
+            super(Kind.WHERE);
+            this.condition = condition;
+            this.parameters = copyOf(parameters);
+            this.foreignParameters = copyOf(foreignParameters);
+        }
+
+        @Override
+        void render(StringBuilder builder, NebulaBoundParameters parameters) {
+            builder.append(" where ");
+            parameters.append(builder, condition, this.parameters, foreignParameters);
+        }
+
+    }
+
+    /**
+     * | limit size 或 limit offset,size
+     */
+    public static final class Limit extends NebulaQueryClause {
+
+        @Getter
+        private final Integer offset;
+
+        @Getter
+        private final int size;
+
+        Limit(Integer offset, int size) {
+            super(Kind.LIMIT);
+            this.offset = offset;
+            this.size = size;
+        }
+
+        @Override
+        void render(StringBuilder builder, NebulaBoundParameters parameters) {
+            if (offset == null) {
+                NebulaQueryUtils.limit(builder, size);
+            } else {
+                NebulaQueryUtils.limit(builder, offset, size);
+            }
+        }
+
+    }
+
+}
@@ -0,0 +1,104 @@
+/* Copyright (c) 2022 com.github.anyzm. All rights reserved.
+ *
+ * This source code is licensed under Apache 2.0 License,
+ * attached with Common Clause Condition 1.0, found in the LICENSES directory.
+ */
+package io.github.anyzm.graph.ocean.engine;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Description  NebulaQueryFragment is used for
+ * 不可变查询的子句链：每一步只保存自己记录的子句和指向前一步的引用，
+ * 从同一个查询派生出的多个查询共享前面的子句，派生只需要创建一个节点；
+ * 生成语句时收集整条链上的子句，优化后一次写出，结果缓存在节点上
+ *
+ * @author Anyzm
+ * Date  2026/10/17 - 23:20
+ * @version 1.0.0
+ */
+final class NebulaQueryFragment {
+
+    static final NebulaQueryFragment ROOT = new NebulaQueryFragment(null, Collections.emptyList());
+
+    private final NebulaQueryFragment parent;
+
+    private final List<NebulaQueryClause> clauses;
+
+    /**
+     * 从根到当前节点的子句总数
+     */
+    private final int size;
+
+    /**
+     * 缓存的语句和参数，并发生成时结果相同，不需要加锁
+     */
+    private volatile Rendered rendered;
+
+    private NebulaQueryFragment(NebulaQueryFragment parent, List<NebulaQueryClause> clauses) {
+        this.parent = parent;
+        this.clauses = clauses;
+        this.size = parent == null ? clauses.size() : parent.size + clauses.size();
+    }
+
+    /**
+     * @param clauses 新一步的子句
+     * @return 以当前节点为前缀的新节点，当前节点不变
+     */
+    NebulaQueryFragment append(List<NebulaQueryClause> clauses) {
+        if (clauses.isEmpty()) {
+            return this;
+        }
+        return new NebulaQueryFragment(this, new ArrayList<>(clauses));
+    }
+
+    /**
+     * @return 从根到当前节点的全部子句
+     */
+    List<NebulaQueryClause> getClauses() {
+        NebulaQueryClause[] all = new NebulaQueryClause[size];
+        int end = size;
+        for (NebulaQueryFragment fragment = this; fragment != null; fragment = fragment.parent) {
+            end -= fragment.clauses.size();
+            for (int i = 0; i < fragment.clauses.size(); i++) {
+                all[end + i] = fragment.clauses.get(i);
+            }
+        }
+        return Collections.unmodifiableList(Arrays.asList(all));
+    }
+
+    String getSql() {
+        return render().sql;
+    }
+
+    NebulaBoundParameters getParameters() {
+        return render().parameters;
+    }
+
+    private Rendered render() {
+        Rendered cached = this.rendered;
+        if (cached == null) {
+            NebulaBoundParameters parameters = new NebulaBoundParameters();
+            cached = new Rendered(NebulaQueryClause.render(getClauses(), parameters), parameters);
+            this.rendered = cached;
+        }
+        return cached;
+    }
+
+    private static final class Rendered {
+
+        private final String sql;
+
+        private final NebulaBoundParameters parameters;
+
+        private Rendered(String sql, NebulaBoundParameters parameters) {
+            this.sql = sql;
+            this.parameters = parameters;
+        }
+
+    }
+
+}
@@ -0,0 +1,89 @@
+/* Copyright (c) 2022 com.github.anyzm. All rights reserved.
+ *
+ * This source code is licensed under Apache 2.0 License,
+ * attached with Common Clause Condition 1.0, found in the LICENSES directory.
+ */
+package io.github.anyzm.graph.ocean.engine;
+
+import com.google.common.collect.Lists;
+import org.apache.commons.lang3.StringUtils;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Description  NebulaQueryOptimizer is used for
+ * 生成语句前对查询语法树做等价改写，减少服务端的无用工作：
+ * 合并起点中重复的顶点id，去掉重复的 yield 列，去掉恒为真的空条件；
+ * 条件中的常量在 NebulaCondition 构造时折叠，IN 列表在构造时去重。
+ * 只做结果完全相同的改写：go 语句的 LIMIT [n] 限制的是每一步遍历的边数，与管道后的 limit 结果不一定相同，不做下推
+ *
+ * @author Anyzm
+ * Date  2026/10/17 - 23:55
+ * @version 1.0.0
+ */
+final class NebulaQueryOptimizer {
+
+    private static final int SMALL_LIST_SIZE = 16;
+
+    private NebulaQueryOptimizer() {
+    }
+
+    static List<NebulaQueryClause> optimize(List<NebulaQueryClause> clauses) {
+        List<NebulaQueryClause> optimized = new ArrayList<>(clauses.size());
+        for (NebulaQueryClause clause : clauses) {
+            if (clause instanceof NebulaQueryClause.From) {
+                optimized.add(mergeVertexIds((NebulaQueryClause.From) clause));
+            } else if (clause instanceof NebulaQueryClause.Yield) {
+                optimized.add(dropDuplicateColumns((NebulaQueryClause.Yield) clause));
+            } else if (!isAlwaysTrue(clause)) {
+                optimized.add(clause);
+            }
+        }
+        return optimized;
+    }
+
+    /**
+     * 短列表直接两两比较，不分配集合
+     */
+    private static boolean hasDuplicates(List<String> values) {
+        int size = values.size();
+        if (size > SMALL_LIST_SIZE) {
+            return new HashSet<>(values).size() != size;
+        }
+        for (int i = 1; i < size; i++) {
+            String value = values.get(i);
+            for (int j = 0; j < i; j++) {
+                if (Objects.equals(value, values.get(j))) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private static NebulaQueryClause.From mergeVertexIds(NebulaQueryClause.From from) {
+        if (!hasDuplicates(from.getVertexIds())) {
+            return from;
+        }
+        return from.withVertexIds(Lists.newArrayList(new LinkedHashSet<>(from.getVertexIds())));
+    }
+
+    private static NebulaQueryClause.Yield dropDuplicateColumns(NebulaQueryClause.Yield yield) {
+        if (!hasDuplicates(yield.getColumns())) {
+            return yield;
+        }
+        return yield.withColumns(Lists.newArrayList(new LinkedHashSet<>(yield.getColumns())));
+    }
+
+    /**
+     * 条件折叠后为空的 where 恒为真
+     */
+    private static boolean isAlwaysTrue(NebulaQueryClause clause) {
+        return clause instanceof NebulaQueryClause.Where && StringUtils.isBlank(((NebulaQueryClause.Where) clause).getCondition());
+    }
+
+}
@@ -0,0 +1,119 @@
+/* Copyright (c) 2022 com.github.anyzm. All rights reserved.
+ *
+ * This source code is licensed under Apache 2.0 License,
+ * attached with Common Clause Condition 1.0, found in the LICENSES directory.
+ */
+package io.github.anyzm.graph.ocean.engine;
+
+import io.github.anyzm.graph.ocean.common.GraphHelper;
+import io.github.anyzm.graph.ocean.dao.GraphTypeManager;
+import io.github.anyzm.graph.ocean.domain.GraphLabel;
+import io.github.anyzm.graph.ocean.domain.impl.GraphEdgeType;
+import io.github.anyzm.graph.ocean.domain.impl.GraphVertexType;
+import io.github.anyzm.graph.ocean.enums.EdgeDirectionEnum;
+import io.github.anyzm.graph.ocean.exception.CheckThrower;
+
+import java.util.Collection;
+
+/**
+ * Description  NebulaQueryTemplate is used for
+ * 预编译的固定查询：语句开头、over/yield 子句以及字段到属性的解析只在编译时做一次，
+ * 每次查询只填入顶点id，生成的语句与 NebulaEdgeQuery/NebulaVertexQuery 拼出的相同
+ *
+ * @author Anyzm
+ * Date  2026/10/17 - 22:45
+ * @version 1.0.0
+ */
+public class NebulaQueryTemplate {
+
+    public enum Operation {
+        /**
+         * go from 起点 over 边 yield 边的全部属性
+         */
+        GO_OUT,
+        /**
+         * go from 终点 over 边 REVERSELY yield 边的全部属性
+         */
+        GO_REVERSE,
+        /**
+         * fetch prop on 标签 顶点 yield 标签的全部属性
+         */
+        FETCH
+    }
+
+    private final String head;
+
+    private final String tail;
+
+    private final IdWriter idWriter;
+
+    private NebulaQueryTemplate(String head, String tail, IdWriter idWriter) {
+        this.head = head;
+        this.tail = tail;
+        this.idWriter = idWriter;
+    }
+
+    /**
+     * @param graphTypeManager 类型管理器
+     * @param clazz            GO_OUT/GO_REVERSE 为边类型，FETCH 为顶点类型
+     * @param operation        查询
+     * @return 编译好的模板
+     */
+    @SuppressWarnings("unchecked")
+    public static NebulaQueryTemplate compile(GraphTypeManager graphTypeManager, Class clazz, Operation operation) {
+        if (Operation.FETCH.equals(operation)) {
+            GraphVertexType graphVertexType = graphTypeManager.getGraphVertexType(clazz);
+            CheckThrower.ifTrueThrow(graphVertexType == null, "Vertex type not found: " + clazz);
+            return new NebulaQueryTemplate("fetch prop on " + graphVertexType.getVertexName(),
+                    yieldClause(graphVertexType, graphVertexType.getAllFields()),
+                    (builder, vertexId) -> GraphHelper.appendQueryId(builder, graphVertexType, vertexId));
+        }
+        GraphEdgeType graphEdgeType = graphTypeManager.getGraphEdgeType(clazz);
+        CheckThrower.ifTrueThrow(graphEdgeType == null, "Edge type not found: " + clazz);
+        String over = " over " + graphEdgeType.getEdgeName();
+        String yield = yieldClause(graphEdgeType, graphEdgeType.getAllFields());
+        if (Operation.GO_REVERSE.equals(operation)) {
+            return new NebulaQueryTemplate("go from ", over + " " + EdgeDirectionEnum.REVERSELY.getWord() + yield,
+                    (builder, vertexId) -> GraphHelper.appendQueryDstId(builder, graphEdgeType, vertexId));
+        }
+        return new NebulaQueryTemplate("go from ", over + yield,
+                (builder, vertexId) -> GraphHelper.appendQuerySrcId(builder, graphEdgeType, vertexId));
+    }
+
+    /**
+     * 与 NebulaQueryUtils.yield(graphTypeManager, sqlBuilder, clazz, fields) 相同
+     */
+    private static String yieldClause(GraphLabel graphLabel, Collection<String> fields) {
+        StringBuilder builder = new StringBuilder(" yield ");
+        String name = graphLabel.getName();
+        for (String field : fields) {
+            String fieldName = graphLabel.getFieldName(field);
+            String propertyName = graphLabel.getPropertyName(fieldName);
+            builder.append(name).append('.').append(fieldName).append(" as ").append(propertyName).append(',');
+        }
+        builder.setLength(builder.length() - 1);
+        return builder.toString();
+    }
+
+    /**
+     * @param vertexIds 顶点id
+     * @return 完整的查询语句
+     */
+    public String render(String... vertexIds) {
+        StringBuilder builder = new StringBuilder(head.length() + tail.length() + vertexIds.length * 24);
+        builder.append(head);
+        for (String vertexId : vertexIds) {
+            idWriter.append(builder.append(' '), vertexId).append(',');
+        }
+        // 与查询构造器一致，去掉最后一个id后的逗号
+        builder.setLength(builder.length() - 1);
+        return builder.append(tail).toString();
+    }
+
+    private interface IdWriter {
+
+        StringBuilder append(StringBuilder builder, String vertexId);
+
+    }
+
+}
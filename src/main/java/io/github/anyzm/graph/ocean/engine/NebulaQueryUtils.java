@@ -5,6 +5,7 @@
  */
 package io.github.anyzm.graph.ocean.engine;
 
+import com.google.common.collect.Lists;
 import io.github.anyzm.graph.ocean.common.GraphHelper;
 import io.github.anyzm.graph.ocean.dao.GraphTypeManager;
 import io.github.anyzm.graph.ocean.domain.GraphCondition;
@@ -15,6 +16,7 @@ import io.github.anyzm.graph.ocean.domain.impl.GraphEdgeType;
 import io.github.anyzm.graph.ocean.domain.impl.GraphVertexType;
 import org.apache.commons.lang3.StringUtils;
 
+import java.util.List;
 import java.util.Map;
 
 /**
@@ -26,6 +28,15 @@ import java.util.Map;
  */
 public class NebulaQueryUtils {
 
+    static final String YIELD = " yield ";
+
+    static final String YIELD_DISTINCT = " yield distinct ";
+
+    /**
+     * 按字段别名去重查询时的写法，多一个空格，保持原样
+     */
+    static final String YIELD_ALIAS_DISTINCT = " yield  distinct ";
+
     public static void appendVertexSrcId(GraphEdgeType graphEdgeType, StringBuilder sqlBuilder, String... vertexIds) {
         for (String vertexId : vertexIds) {
             String vertexIdKey = GraphHelper.getQuerySrcId(graphEdgeType, vertexId);
@@ -68,7 +79,7 @@ public class NebulaQueryUtils {
     }
 
     public static void yield(StringBuilder sqlBuilder, String... fields) {
-        sqlBuilder.append(" yield ");
+        sqlBuilder.append(YIELD);
         appendFields(sqlBuilder, fields);
     }
 
@@ -77,12 +88,17 @@ public class NebulaQueryUtils {
     }
 
     private static void yieldWithDistinct(boolean distinct, GraphTypeManager graphTypeManager, StringBuilder sqlBuilder, String prefix, Class clazz, String... fields) {
+        sqlBuilder.append(distinct ? YIELD_DISTINCT : YIELD);
+        appendColumns(sqlBuilder, yieldColumns(graphTypeManager, prefix, clazz, fields));
+    }
+
+    /**
+     * @return yield 标签属性时的列，与 yield(graphTypeManager, sqlBuilder, prefix, clazz, fields) 写出的相同
+     */
+    static List<String> yieldColumns(GraphTypeManager graphTypeManager, String prefix, Class clazz, String... fields) {
         GraphLabel graphLabel = graphTypeManager.getGraphLabel(clazz);
         String name = graphLabel.getName();
-        sqlBuilder.append(" yield ");
-        if (distinct) {
-            sqlBuilder.append("distinct ");
-        }
+        List<String> columns = Lists.newArrayListWithExpectedSize(fields.length);
         for (String field : fields) {
             String fieldName = graphLabel.getFieldName(field);
             String propertyName = graphLabel.getPropertyName(fieldName);
@@ -91,7 +107,25 @@ public class NebulaQueryUtils {
                 temp.append(prefix);
             }
             temp.append(name).append(".").append(fieldName).append(" as ").append(propertyName);
-            sqlBuilder.append(temp).append(",");
+            columns.add(temp.toString());
+        }
+        return columns;
+    }
+
+    /**
+     * @return 字段 as 别名 的列
+     */
+    static List<String> yieldColumns(Map<String, String> fieldAlias) {
+        List<String> columns = Lists.newArrayListWithExpectedSize(fieldAlias.size());
+        for (Map.Entry<String, String> entry : fieldAlias.entrySet()) {
+            columns.add(entry.getKey() + " as " + entry.getValue());
+        }
+        return columns;
+    }
+
+    private static void appendColumns(StringBuilder sqlBuilder, List<String> columns) {
+        for (String column : columns) {
+            sqlBuilder.append(column).append(",");
         }
         sqlBuilder.deleteCharAt(sqlBuilder.length() - 1);
     }
@@ -105,7 +139,7 @@ public class NebulaQueryUtils {
     }
 
     public static void yieldDistinct(StringBuilder sqlBuilder, String... fields) {
-        sqlBuilder.append(" yield distinct ");
+        sqlBuilder.append(YIELD_DISTINCT);
         appendFields(sqlBuilder, fields);
     }
 
@@ -114,14 +148,8 @@ public class NebulaQueryUtils {
     }
 
     private static void yieldWithDistinct(StringBuilder sqlBuilder, Map<String, String> fieldAlias, boolean distinct) {
-        sqlBuilder.append(" yield ");
-        if (distinct) {
-            sqlBuilder.append(" distinct ");
-        }
-        for (Map.Entry<String, String> entry : fieldAlias.entrySet()) {
-            sqlBuilder.append(entry.getKey()).append(" as ").append(entry.getValue()).append(",");
-        }
-        sqlBuilder.deleteCharAt(sqlBuilder.length() - 1);
+        sqlBuilder.append(distinct ? YIELD_ALIAS_DISTINCT : YIELD);
+        appendColumns(sqlBuilder, yieldColumns(fieldAlias));
     }
 
     public static void pipe(StringBuilder sqlBuilder) {
@@ -5,16 +5,22 @@
  */
 package io.github.anyzm.graph.ocean.engine;
 
+import com.google.common.collect.Lists;
+import io.github.anyzm.graph.ocean.common.GraphHelper;
 import io.github.anyzm.graph.ocean.dao.GraphTypeManager;
 import io.github.anyzm.graph.ocean.domain.GraphCondition;
 import io.github.anyzm.graph.ocean.domain.GraphExpression;
 import io.github.anyzm.graph.ocean.domain.GraphQuery;
 import io.github.anyzm.graph.ocean.domain.VertexQuery;
 import io.github.anyzm.graph.ocean.domain.impl.GraphVertexType;
+import io.github.anyzm.graph.ocean.exception.CheckThrower;
 import lombok.Getter;
 import lombok.Setter;
 
+import java.util.Collections;
+import java.util.List;
 import java.util.Map;
+import java.util.function.Consumer;
 
 /**
  * Description  NebulaVertexQuery is used for
@@ -29,274 +35,321 @@ public class NebulaVertexQuery implements VertexQuery {
     @Setter
     private static GraphTypeManager graphTypeManager;
 
-    private StringBuilder sqlBuilder = new StringBuilder();
+    /**
+     * 按调用顺序记录的子句，生成语句时优化后一次写出
+     */
+    private final List<NebulaQueryClause> clauses = Lists.newArrayList();
 
-    private NebulaVertexQuery() {
+    /**
+     * 生成的语句和绑定参数，添加子句后失效
+     */
+    private String renderedSql;
+
+    private NebulaBoundParameters renderedParameters;
+
+    /**
+     * 绑定的类型管理器，为空时使用静态的 graphTypeManager
+     */
+    private final GraphTypeManager boundTypeManager;
+
+    private NebulaVertexQuery(GraphTypeManager boundTypeManager) {
+        this.boundTypeManager = boundTypeManager;
     }
 
     public static NebulaVertexQuery build() {
-        return new NebulaVertexQuery();
+        return new NebulaVertexQuery(null);
+    }
+
+    /**
+     * @param graphTypeManager 查询使用的类型管理器，不受其他 mapper 设置的静态类型管理器影响
+     * @return 查询API
+     */
+    public static NebulaVertexQuery build(GraphTypeManager graphTypeManager) {
+        CheckThrower.ifTrueThrow(graphTypeManager == null, "GraphTypeManager must not be null");
+        return new NebulaVertexQuery(graphTypeManager);
+    }
+
+    private GraphTypeManager typeManager() {
+        return boundTypeManager != null ? boundTypeManager : graphTypeManager;
+    }
+
+    private NebulaVertexQuery add(NebulaQueryClause clause) {
+        clauses.add(clause);
+        renderedSql = null;
+        renderedParameters = null;
+        return this;
+    }
+
+    private NebulaVertexQuery text(NebulaQueryClause.Kind kind, Consumer<StringBuilder> writer) {
+        StringBuilder builder = new StringBuilder();
+        writer.accept(builder);
+        return add(new NebulaQueryClause.Text(kind, builder.toString()));
+    }
+
+    /**
+     * 拼接另一个查询生成的语句，本包实现的查询带上绑定参数
+     */
+    private NebulaVertexQuery appendQuery(NebulaQueryClause.Kind kind, String separator, GraphQuery graphQuery) {
+        NebulaBoundParameters parameters = NebulaBoundParameters.of(graphQuery);
+        String sql = graphQuery.buildSql();
+        if (!separator.isEmpty()) {
+            add(new NebulaQueryClause.Text(kind, separator));
+        }
+        return add(new NebulaQueryClause.Text(NebulaQueryClause.Kind.TEXT, sql, parameters,
+                parameters == null ? graphQuery.getParameters() : Collections.emptyMap()));
+    }
+
+    private void render() {
+        if (renderedSql == null) {
+            NebulaBoundParameters parameters = new NebulaBoundParameters();
+            renderedSql = NebulaQueryClause.render(clauses, parameters);
+            renderedParameters = parameters;
+        }
+    }
+
+    /**
+     * where 条件和拼接的子查询带来的绑定参数
+     */
+    NebulaBoundParameters getBoundParameters() {
+        render();
+        return renderedParameters;
+    }
+
+    /**
+     * @return 按调用顺序记录的子句，生成语句时才做优化
+     */
+    public List<NebulaQueryClause> getClauses() {
+        return Collections.unmodifiableList(clauses);
     }
 
     @Override
     public VertexQuery fetchPropOn(Class clazz, String... vertexIds) {
-        GraphVertexType graphVertexType = graphTypeManager.getGraphVertexType(clazz);
+        GraphVertexType graphVertexType = typeManager().getGraphVertexType(clazz);
         String vertexName = graphVertexType.getVertexName();
-        sqlBuilder.append("fetch prop on ").append(vertexName);
-        NebulaQueryUtils.appendVertexId(graphVertexType, sqlBuilder, vertexIds);
-        sqlBuilder.deleteCharAt(sqlBuilder.length() - 1);
-        return this;
+        return add(new NebulaQueryClause.From(NebulaQueryClause.Kind.FETCH, "fetch prop on " + vertexName, Lists.newArrayList(vertexIds),
+                (builder, vertexId) -> GraphHelper.appendQueryId(builder, graphVertexType, vertexId), ""));
     }
 
     @Override
     public VertexQuery connectAdd(GraphQuery graphQuery) {
-        sqlBuilder.append(graphQuery.buildSql());
-        return this;
+        return appendQuery(NebulaQueryClause.Kind.TEXT, "", graphQuery);
     }
 
     @Override
     public String buildSql() {
-        return this.sqlBuilder.toString();
+        render();
+        return renderedSql;
+    }
+
+    @Override
+    public Map<String, Object> getParameters() {
+        return getBoundParameters().toMap();
     }
 
     @Override
     public VertexQuery limit(int size) {
-        NebulaQueryUtils.limit(sqlBuilder, size);
-        return this;
+        return add(new NebulaQueryClause.Limit(null, size));
     }
 
     @Override
     public VertexQuery limit(int offset, int size) {
-        NebulaQueryUtils.limit(sqlBuilder, offset, size);
-        return this;
+        return add(new NebulaQueryClause.Limit(offset, size));
     }
 
     @Override
     public VertexQuery distinct() {
-        NebulaQueryUtils.distinct(sqlBuilder);
-        return this;
+        return text(NebulaQueryClause.Kind.TEXT, builder -> NebulaQueryUtils.distinct(builder));
+    }
+
+    private NebulaVertexQuery yield(String head, boolean distinct, List<String> columns) {
+        return add(new NebulaQueryClause.Yield(head, distinct, columns));
     }
 
     @Override
     public VertexQuery yield() {
-        sqlBuilder.append(" yield ");
-        return this;
+        return add(new NebulaQueryClause.Text(NebulaQueryClause.Kind.TEXT, NebulaQueryUtils.YIELD));
     }
 
     @Override
     public VertexQuery yield(String symbol, Class clazz, String... fields) {
-        NebulaQueryUtils.yield(graphTypeManager, sqlBuilder, symbol, clazz, fields);
-        return this;
+        return yield(NebulaQueryUtils.YIELD, false, NebulaQueryUtils.yieldColumns(typeManager(), symbol, clazz, fields));
     }
 
     @Override
     public VertexQuery yield(Class clazz, String... fields) {
-        NebulaQueryUtils.yield(graphTypeManager, sqlBuilder, clazz, fields);
-        return this;
+        return yield(NebulaQueryUtils.YIELD, false, NebulaQueryUtils.yieldColumns(typeManager(), null, clazz, fields));
     }
 
     @Override
     public VertexQuery yield(String... fields) {
-        NebulaQueryUtils.yield(sqlBuilder, fields);
-        return this;
+        return yield(NebulaQueryUtils.YIELD, false, Lists.newArrayList(fields));
     }
 
     @Override
     public VertexQuery yield(Map<String, String> fieldAlias) {
-        NebulaQueryUtils.yield(sqlBuilder, fieldAlias);
-        return this;
+        return yield(NebulaQueryUtils.YIELD, false, NebulaQueryUtils.yieldColumns(fieldAlias));
     }
 
     @Override
     public VertexQuery yieldDistinct(Class clazz, String... fields) {
-        NebulaQueryUtils.yieldDistinct(graphTypeManager, sqlBuilder, clazz, fields);
-        return this;
+        return yield(NebulaQueryUtils.YIELD_DISTINCT, true, NebulaQueryUtils.yieldColumns(typeManager(), null, clazz, fields));
     }
 
     @Override
-    public VertexQuery yieldDistinct(String symbol, Class clazz, String... fields) {
-        NebulaQueryUtils.yieldDistinct(graphTypeManager, sqlBuilder, symbol, clazz, fields);
-        return this;
+    public VertexQuery yieldDistinct(String prefix, Class clazz, String... fields) {
+        return yield(NebulaQueryUtils.YIELD_DISTINCT, true, NebulaQueryUtils.yieldColumns(typeManager(), prefix, clazz, fields));
     }
 
     @Override
     public VertexQuery yieldDistinct(String... fields) {
-        NebulaQueryUtils.yieldDistinct(sqlBuilder, fields);
-        return this;
+        return yield(NebulaQueryUtils.YIELD_DISTINCT, true, Lists.newArrayList(fields));
     }
 
     @Override
     public VertexQuery yieldDistinct(Map<String, String> fieldAlias) {
-        NebulaQueryUtils.yieldDistinct(sqlBuilder, fieldAlias);
-        return this;
+        return yield(NebulaQueryUtils.YIELD_ALIAS_DISTINCT, true, NebulaQueryUtils.yieldColumns(fieldAlias));
     }
 
     @Override
     public VertexQuery pipe() {
-        NebulaQueryUtils.pipe(sqlBuilder);
-        return this;
+        return text(NebulaQueryClause.Kind.PIPE, builder -> NebulaQueryUtils.pipe(builder));
     }
 
     @Override
     public GraphQuery unionAll(GraphQuery graphQuery) {
-        NebulaQueryUtils.unionAll(sqlBuilder, graphQuery);
-        return this;
+        return appendQuery(NebulaQueryClause.Kind.SET_OPERATION, " union all ", graphQuery);
     }
 
     @Override
     public GraphQuery union(GraphQuery graphQuery) {
-        NebulaQueryUtils.union(sqlBuilder, graphQuery);
-        return this;
+        return appendQuery(NebulaQueryClause.Kind.SET_OPERATION, " union ", graphQuery);
     }
 
     @Override
     public VertexQuery groupBy(Class clazz, String... fields) {
-        NebulaQueryUtils.groupBy(graphTypeManager, sqlBuilder, clazz, fields);
-        return this;
+        return text(NebulaQueryClause.Kind.GROUP_BY, builder -> NebulaQueryUtils.groupBy(typeManager(), builder, clazz, fields));
     }
 
     @Override
     public VertexQuery groupBy(String... fields) {
-        NebulaQueryUtils.groupBy(sqlBuilder, fields);
-        return this;
+        return text(NebulaQueryClause.Kind.GROUP_BY, builder -> NebulaQueryUtils.groupBy(builder, fields));
     }
 
     @Override
     public VertexQuery countComma(String alias) {
-        NebulaQueryUtils.countComma(sqlBuilder, alias);
-        return this;
+        return text(NebulaQueryClause.Kind.TEXT, builder -> NebulaQueryUtils.countComma(builder, alias));
     }
 
     @Override
     public VertexQuery countComma(String field, String alias) {
-        NebulaQueryUtils.countComma(sqlBuilder, field, alias);
-        return this;
+        return text(NebulaQueryClause.Kind.TEXT, builder -> NebulaQueryUtils.countComma(builder, field, alias));
     }
 
     @Override
     public VertexQuery countComma(Class clazz, String field, String alias) {
-        NebulaQueryUtils.countComma(graphTypeManager, sqlBuilder, clazz, field, alias);
-        return this;
+        return text(NebulaQueryClause.Kind.TEXT, builder -> NebulaQueryUtils.countComma(typeManager(), builder, clazz, field, alias));
     }
 
     @Override
     public VertexQuery countComma(GraphExpression graphExpression, String alias) {
-        NebulaQueryUtils.countComma(sqlBuilder, graphExpression, alias);
-        return this;
+        return text(NebulaQueryClause.Kind.TEXT, builder -> NebulaQueryUtils.countComma(builder, graphExpression, alias));
     }
 
     @Override
     public VertexQuery count(String field, String alias) {
-        NebulaQueryUtils.count(sqlBuilder, field, alias);
-        return this;
+        return text(NebulaQueryClause.Kind.TEXT, builder -> NebulaQueryUtils.count(builder, field, alias));
     }
 
     @Override
     public VertexQuery count(Map<String, String> fieldAlias) {
-        NebulaQueryUtils.count(sqlBuilder, fieldAlias);
-        return this;
+        return text(NebulaQueryClause.Kind.TEXT, builder -> NebulaQueryUtils.count(builder, fieldAlias));
     }
 
     @Override
     public VertexQuery count(String alias) {
-        NebulaQueryUtils.count(sqlBuilder, alias);
-        return this;
+        return text(NebulaQueryClause.Kind.TEXT, builder -> NebulaQueryUtils.count(builder, alias));
     }
 
     @Override
     public VertexQuery count(Class clazz, String field, String alias) {
-        NebulaQueryUtils.count(graphTypeManager, sqlBuilder, clazz, field, alias);
-        return this;
+        return text(NebulaQueryClause.Kind.TEXT, builder -> NebulaQueryUtils.count(typeManager(), builder, clazz, field, alias));
     }
 
     @Override
     public VertexQuery count(GraphExpression graphExpression, String alias) {
-        NebulaQueryUtils.count(sqlBuilder, graphExpression, alias);
-        return this;
+        return text(NebulaQueryClause.Kind.TEXT, builder -> NebulaQueryUtils.count(builder, graphExpression, alias));
     }
 
     @Override
     public VertexQuery avg(GraphExpression graphExpression, String alias) {
-        NebulaQueryUtils.avg(sqlBuilder, graphExpression, alias);
-        return this;
+        return text(NebulaQueryClause.Kind.TEXT, builder -> NebulaQueryUtils.avg(builder, graphExpression, alias));
     }
 
     @Override
     public VertexQuery avg(String field, String alias) {
-        NebulaQueryUtils.avg(sqlBuilder, field, alias);
-        return this;
+        return text(NebulaQueryClause.Kind.TEXT, builder -> NebulaQueryUtils.avg(builder, field, alias));
     }
 
     @Override
     public VertexQuery avg(Class clazz, String field, String alias) {
-        NebulaQueryUtils.avg(graphTypeManager, sqlBuilder, clazz, field, alias);
-        return this;
+        return text(NebulaQueryClause.Kind.TEXT, builder -> NebulaQueryUtils.avg(typeManager(), builder, clazz, field, alias));
     }
 
     @Override
     public VertexQuery avgComma(GraphExpression graphExpression, String alias) {
-        NebulaQueryUtils.avgComma(sqlBuilder, graphExpression, alias);
-        return this;
+        return text(NebulaQueryClause.Kind.TEXT, builder -> NebulaQueryUtils.avgComma(builder, graphExpression, alias));
     }
 
     @Override
     public VertexQuery avgComma(String field, String alias) {
-        NebulaQueryUtils.avgComma(sqlBuilder, field, alias);
-        return this;
+        return text(NebulaQueryClause.Kind.TEXT, builder -> NebulaQueryUtils.avgComma(builder, field, alias));
     }
 
     @Override
     public VertexQuery avgComma(Class clazz, String field, String alias) {
-        NebulaQueryUtils.avgComma(graphTypeManager, sqlBuilder, clazz, field, alias);
-        return this;
+        return text(NebulaQueryClause.Kind.TEXT, builder -> NebulaQueryUtils.avgComma(typeManager(), builder, clazz, field, alias));
     }
 
     @Override
     public VertexQuery sum(GraphExpression graphExpression, String alias) {
-        NebulaQueryUtils.sum(sqlBuilder, graphExpression, alias);
-        return this;
+        return text(NebulaQueryClause.Kind.TEXT, builder -> NebulaQueryUtils.sum(builder, graphExpression, alias));
     }
 
     @Override
     public VertexQuery sum(String field, String alias) {
-        NebulaQueryUtils.sum(sqlBuilder, field, alias);
-        return this;
+        return text(NebulaQueryClause.Kind.TEXT, builder -> NebulaQueryUtils.sum(builder, field, alias));
     }
 
     @Override
     public VertexQuery sum(Class clazz, String field, String alias) {
-        NebulaQueryUtils.sum(graphTypeManager, sqlBuilder, clazz, field, alias);
-        return this;
+        return text(NebulaQueryClause.Kind.TEXT, builder -> NebulaQueryUtils.sum(typeManager(), builder, clazz, field, alias));
     }
 
     @Override
     public VertexQuery sumComma(GraphExpression graphExpression, String alias) {
-        NebulaQueryUtils.sumComma(sqlBuilder, graphExpression, alias);
-        return this;
+        return text(NebulaQueryClause.Kind.TEXT, builder -> NebulaQueryUtils.sumComma(builder, graphExpression, alias));
     }
 
     @Override
     public VertexQuery sumComma(String field, String alias) {
-        NebulaQueryUtils.sumComma(sqlBuilder, field, alias);
-        return this;
+        return text(NebulaQueryClause.Kind.TEXT, builder -> NebulaQueryUtils.sumComma(builder, field, alias));
     }
 
     @Override
     public VertexQuery sumComma(Class clazz, String field, String alias) {
-        NebulaQueryUtils.sumComma(graphTypeManager, sqlBuilder, clazz, field, alias);
-        return this;
+        return text(NebulaQueryClause.Kind.TEXT, builder -> NebulaQueryUtils.sumComma(typeManager(), builder, clazz, field, alias));
     }
 
     @Override
     public VertexQuery comma() {
-        NebulaQueryUtils.comma(sqlBuilder);
-        return this;
+        return text(NebulaQueryClause.Kind.TEXT, builder -> NebulaQueryUtils.comma(builder));
     }
 
     @Override
     public VertexQuery where(GraphCondition graphCondition) {
-        NebulaQueryUtils.where(sqlBuilder, graphCondition);
-        return this;
+        NebulaBoundParameters parameters = NebulaBoundParameters.of(graphCondition);
+        return add(new NebulaQueryClause.Where(graphCondition.buildSql(), parameters,
+                parameters == null ? graphCondition.getParameters() : Collections.emptyMap()));
     }
 
 }
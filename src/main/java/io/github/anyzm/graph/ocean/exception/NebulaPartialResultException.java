@@ -0,0 +1,62 @@
+/* Copyright (c) 2022 com.github.anyzm. All rights reserved.
+ *
+ * This source code is licensed under Apache 2.0 License,
+ * attached with Common Clause Condition 1.0, found in the LICENSES directory.
+ */
+package io.github.anyzm.graph.ocean.exception;
+
+import io.github.anyzm.graph.ocean.domain.impl.QueryResult;
+import io.github.anyzm.graph.ocean.enums.ErrorEnum;
+import lombok.Getter;
+
+import java.util.List;
+
+/**
+ * Description  NebulaPartialResultException is used for
+ * 按顶点id拆分的查询部分失败：成功的分片结果已合并，失败分片的顶点id和异常一并带出，
+ * 调用方可以使用部分结果，或者只对失败的顶点id重试；第一个分片的异常作为 cause，其余作为 suppressed
+ *
+ * @author Anyzm
+ * Date  2026/10/18 - 00:20
+ * @version 1.0.0
+ */
+@Getter
+public class NebulaPartialResultException extends NebulaException {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * 成功分片合并后的查询结果
+     */
+    private final QueryResult partialResult;
+
+    /**
+     * 成功分片转换出的实体
+     */
+    private final List<?> partialEntities;
+
+    /**
+     * 失败分片包含的顶点id
+     */
+    private final List<String> failedVertexIds;
+
+    public NebulaPartialResultException(QueryResult partialResult, List<?> partialEntities, List<String> failedVertexIds,
+                                        List<Throwable> causes) {
+        super(ErrorEnum.QUERY_NEBULA_EROR);
+        this.partialResult = partialResult;
+        this.partialEntities = partialEntities;
+        this.failedVertexIds = failedVertexIds;
+        if (!causes.isEmpty()) {
+            initCause(causes.get(0));
+            for (int i = 1; i < causes.size(); i++) {
+                addSuppressed(causes.get(i));
+            }
+        }
+    }
+
+    @Override
+    public String getMessage() {
+        return super.getMessage() + ",失败的顶点id数=" + failedVertexIds.size() + ",成功返回的记录数=" + partialResult.size();
+    }
+
+}
@@ -0,0 +1,29 @@
+/* Copyright (c) 2022 com.github.anyzm. All rights reserved.
+ *
+ * This source code is licensed under Apache 2.0 License,
+ * attached with Common Clause Condition 1.0, found in the LICENSES directory.
+ */
+package io.github.anyzm.graph.ocean.loader;
+
+/**
+ * Description  BulkLoadFormat is used for
+ * 批量导入的文件格式
+ *
+ * @author Anyzm
+ * Date  2026/10/17 - 17:20
+ * @version 1.0.0
+ */
+public enum BulkLoadFormat {
+
+    /**
+     * 首行为列名的 csv，字段可以用双引号包裹；每条记录必须在一个物理行内，
+     * 引号内含换行的记录会被拒绝
+     */
+    CSV,
+
+    /**
+     * 每行一个 json 对象
+     */
+    JSONL,
+
+}
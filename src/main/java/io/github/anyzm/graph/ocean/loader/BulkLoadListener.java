@@ -0,0 +1,34 @@
+/* Copyright (c) 2022 com.github.anyzm. All rights reserved.
+ *
+ * This source code is licensed under Apache 2.0 License,
+ * attached with Common Clause Condition 1.0, found in the LICENSES directory.
+ */
+package io.github.anyzm.graph.ocean.loader;
+
+/**
+ * Description  BulkLoadListener is used for
+ * 批量导入的进度和拒绝行回调，回调在解析线程中执行，实现需要线程安全且尽量轻量
+ *
+ * @author Anyzm
+ * Date  2026/10/17 - 17:22
+ * @version 1.0.0
+ */
+public interface BulkLoadListener {
+
+    /**
+     * 一个批次写入完成后回调
+     *
+     * @param progress 当前进度
+     */
+    public void onProgress(BulkLoadProgress progress);
+
+    /**
+     * 某一行无法解析或映射时回调，该行被跳过
+     *
+     * @param offset 行在文件中的字节偏移
+     * @param line   行内容
+     * @param e      异常
+     */
+    public void onRejected(long offset, String line, Exception e);
+
+}
@@ -0,0 +1,55 @@
+/* Copyright (c) 2022 com.github.anyzm. All rights reserved.
+ *
+ * This source code is licensed under Apache 2.0 License,
+ * attached with Common Clause Condition 1.0, found in the LICENSES directory.
+ */
+package io.github.anyzm.graph.ocean.loader;
+
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * Description  BulkLoadProgress is used for
+ * 批量导入进度快照，committedOffset 之前的数据已经全部写入，可以作为续传的起始偏移
+ *
+ * @author Anyzm
+ * Date  2026/10/17 - 17:25
+ * @version 1.0.0
+ */
+@Getter
+@ToString
+public class BulkLoadProgress {
+
+    private final long fileSize;
+
+    private final long committedOffset;
+
+    private final long loadedRows;
+
+    private final long rejectedRows;
+
+    private final long costMillis;
+
+    public BulkLoadProgress(long fileSize, long committedOffset, long loadedRows, long rejectedRows, long costMillis) {
+        this.fileSize = fileSize;
+        this.committedOffset = committedOffset;
+        this.loadedRows = loadedRows;
+        this.rejectedRows = rejectedRows;
+        this.costMillis = costMillis;
+    }
+
+    /**
+     * @return 每秒写入行数
+     */
+    public double getRowsPerSecond() {
+        return costMillis <= 0 ? 0 : loadedRows * 1000.0 / costMillis;
+    }
+
+    /**
+     * @return 已提交的字节占文件大小的比例
+     */
+    public double getPercent() {
+        return fileSize <= 0 ? 1 : committedOffset * 1.0 / fileSize;
+    }
+
+}
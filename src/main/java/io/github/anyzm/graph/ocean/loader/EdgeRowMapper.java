@@ -0,0 +1,66 @@
+/* Copyright (c) 2022 com.github.anyzm. All rights reserved.
+ *
+ * This source code is licensed under Apache 2.0 License,
+ * attached with Common Clause Condition 1.0, found in the LICENSES directory.
+ */
+package io.github.anyzm.graph.ocean.loader;
+
+import io.github.anyzm.graph.ocean.dao.GraphTypeManager;
+import io.github.anyzm.graph.ocean.domain.impl.GraphEdgeEntity;
+import io.github.anyzm.graph.ocean.domain.impl.GraphEdgeType;
+import io.github.anyzm.graph.ocean.enums.ErrorEnum;
+import io.github.anyzm.graph.ocean.exception.CheckThrower;
+import io.github.anyzm.graph.ocean.exception.NebulaException;
+import org.apache.commons.lang3.StringUtils;
+
+import java.util.Map;
+
+/**
+ * Description  EdgeRowMapper is used for
+ * 按边类型元数据把一行映射为边实体，列名即图属性名，不经过实体类反射
+ *
+ * @author Anyzm
+ * Date  2026/10/17 - 17:36
+ * @version 1.0.0
+ */
+public class EdgeRowMapper<S, T, E> implements GraphRowMapper {
+
+    private final GraphEdgeType<S, T, E> graphEdgeType;
+
+    private final String srcIdColumn;
+
+    private final String dstIdColumn;
+
+    /**
+     * @param graphEdgeType 边类型
+     * @param srcIdColumn   起点id所在的列
+     * @param dstIdColumn   终点id所在的列
+     */
+    public EdgeRowMapper(GraphEdgeType<S, T, E> graphEdgeType, String srcIdColumn, String dstIdColumn) {
+        CheckThrower.ifTrueThrow(graphEdgeType == null, ErrorEnum.NOT_SUPPORT_EDGE_TAG);
+        CheckThrower.ifTrueThrow(StringUtils.isAnyBlank(srcIdColumn, dstIdColumn), ErrorEnum.PARAMETER_NOT_NULL);
+        this.graphEdgeType = graphEdgeType;
+        this.srcIdColumn = srcIdColumn;
+        this.dstIdColumn = dstIdColumn;
+    }
+
+    /**
+     * @param graphTypeManager 类型管理器
+     * @param edgeClazz        标注了 GraphEdge 的边类
+     * @param srcIdColumn      起点id所在的列
+     * @param dstIdColumn      终点id所在的列
+     */
+    public EdgeRowMapper(GraphTypeManager graphTypeManager, Class<E> edgeClazz, String srcIdColumn, String dstIdColumn) {
+        this(graphTypeManager.<S, T, E>getGraphEdgeType(edgeClazz), srcIdColumn, dstIdColumn);
+    }
+
+    @Override
+    public GraphEdgeEntity<S, T, E> map(Map<String, String> row) throws NebulaException {
+        String srcId = row.get(srcIdColumn);
+        String dstId = row.get(dstIdColumn);
+        CheckThrower.ifTrueThrow(StringUtils.isAnyBlank(srcId, dstId), ErrorEnum.INVALID_ID);
+        return new GraphEdgeEntity<>(graphEdgeType, srcId, dstId, graphEdgeType.getSrcVertexType(),
+                graphEdgeType.getDstVertexType(), RowValues.collectProps(graphEdgeType, row));
+    }
+
+}
@@ -0,0 +1,32 @@
+/* Copyright (c) 2022 com.github.anyzm. All rights reserved.
+ *
+ * This source code is licensed under Apache 2.0 License,
+ * attached with Common Clause Condition 1.0, found in the LICENSES directory.
+ */
+package io.github.anyzm.graph.ocean.loader;
+
+import io.github.anyzm.graph.ocean.domain.impl.GraphPropertyEntity;
+import io.github.anyzm.graph.ocean.exception.NebulaException;
+
+import java.util.Map;
+
+/**
+ * Description  GraphRowMapper is used for
+ * 把文件中的一行(列名 -> 值)映射为顶点或边实体
+ *
+ * @author Anyzm
+ * Date  2026/10/17 - 17:28
+ * @version 1.0.0
+ */
+public interface GraphRowMapper {
+
+    /**
+     * 映射一行
+     *
+     * @param row 列名 -> 值
+     * @return GraphVertexEntity 或 GraphEdgeEntity，返回 null 时跳过该行
+     * @throws NebulaException 行数据非法时抛出，该行被拒绝
+     */
+    public GraphPropertyEntity map(Map<String, String> row) throws NebulaException;
+
+}
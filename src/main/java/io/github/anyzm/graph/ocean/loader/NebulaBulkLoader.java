@@ -0,0 +1,431 @@
+/* Copyright (c) 2022 com.github.anyzm. All rights reserved.
+ *
+ * This source code is licensed under Apache 2.0 License,
+ * attached with Common Clause Condition 1.0, found in the LICENSES directory.
+ */
+package io.github.anyzm.graph.ocean.loader;
+
+import com.alibaba.fastjson.JSON;
+import com.alibaba.fastjson.JSONObject;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.vesoft.nebula.client.graph.exception.AuthFailedException;
+import com.vesoft.nebula.client.graph.exception.ClientServerIncompatibleException;
+import com.vesoft.nebula.client.graph.exception.IOErrorException;
+import com.vesoft.nebula.client.graph.exception.NotValidConnectionException;
+import io.github.anyzm.graph.ocean.dao.GraphMapper;
+import io.github.anyzm.graph.ocean.dao.GraphUpdateEdgeEngineFactory;
+import io.github.anyzm.graph.ocean.dao.GraphUpdateVertexEngineFactory;
+import io.github.anyzm.graph.ocean.domain.impl.GraphEdgeEntity;
+import io.github.anyzm.graph.ocean.domain.impl.GraphPropertyEntity;
+import io.github.anyzm.graph.ocean.domain.impl.GraphVertexEntity;
+import io.github.anyzm.graph.ocean.engine.NebulaUpdateEdgeEngineFactory;
+import io.github.anyzm.graph.ocean.engine.NebulaUpdateVertexEngineFactory;
+import io.github.anyzm.graph.ocean.exception.CheckThrower;
+import io.github.anyzm.graph.ocean.exception.NebulaException;
+import io.github.anyzm.graph.ocean.mapper.NebulaAdaptiveBatchController;
+import io.github.anyzm.graph.ocean.mapper.NebulaBatchDispatcher;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Description  NebulaBulkLoader is used for
+ * 大文件批量导入：通过内存映射按窗口读取 csv/jsonl 文件，按行数切分批次后由多个解析线程并行解析、
+ * 映射为顶点/边实体，并使用与 mapper 相同的更新引擎工厂生成语句写入 nebula。
+ * 进度中的 committedOffset 是已连续写入完成的字节偏移，导入中断后可以从该偏移续传
+ *
+ * @author Anyzm
+ * Date  2026/10/17 - 17:45
+ * @version 1.0.0
+ */
+@Slf4j
+public class NebulaBulkLoader {
+
+    public static final int DEFAULT_PARSE_THREADS = 4;
+
+    public static final int DEFAULT_CHUNK_ROWS = 1000;
+
+    public static final int DEFAULT_WINDOW_BYTES = 64 * 1024 * 1024;
+
+    private static final byte LINE_FEED = '\n';
+
+    private final GraphMapper graphMapper;
+
+    private final String space;
+
+    private final GraphRowMapper rowMapper;
+
+    private final BulkLoadFormat format;
+
+    @Setter
+    @Getter
+    private GraphUpdateVertexEngineFactory graphUpdateVertexEngineFactory = new NebulaUpdateVertexEngineFactory();
+
+    @Setter
+    @Getter
+    private GraphUpdateEdgeEngineFactory graphUpdateEdgeEngineFactory = new NebulaUpdateEdgeEngineFactory();
+
+    /**
+     * 并行解析和写入的线程数
+     */
+    @Setter
+    @Getter
+    private int parseThreads = DEFAULT_PARSE_THREADS;
+
+    /**
+     * 每个批次的行数
+     */
+    @Setter
+    @Getter
+    private int chunkRows = DEFAULT_CHUNK_ROWS;
+
+    /**
+     * 每次映射的文件窗口大小
+     */
+    @Setter
+    @Getter
+    private int windowBytes = DEFAULT_WINDOW_BYTES;
+
+    @Setter
+    @Getter
+    private char csvDelimiter = ',';
+
+    @Setter
+    @Getter
+    private BulkLoadListener listener;
+
+    /**
+     * @param graphMapper 执行更新语句的 mapper
+     * @param space       图空间
+     * @param rowMapper   行映射器
+     * @param format      文件格式
+     */
+    public NebulaBulkLoader(GraphMapper graphMapper, String space, GraphRowMapper rowMapper, BulkLoadFormat format) {
+        CheckThrower.ifTrueThrow(graphMapper == null, "GraphMapper must not be null");
+        CheckThrower.ifTrueThrow(rowMapper == null, "RowMapper must not be null");
+        CheckThrower.ifTrueThrow(format == null, "Format must not be null");
+        this.graphMapper = graphMapper;
+        this.space = space;
+        this.rowMapper = rowMapper;
+        this.format = format;
+    }
+
+    public BulkLoadProgress load(Path file) throws IOException, NotValidConnectionException, IOErrorException,
+            AuthFailedException, ClientServerIncompatibleException {
+        return load(file, 0);
+    }
+
+    /**
+     * 从指定偏移开始导入文件
+     *
+     * @param file        文件
+     * @param startOffset 起始字节偏移，必须是行首，一般取上次导入进度的 committedOffset
+     * @return 最终进度
+     */
+    public BulkLoadProgress load(Path file, long startOffset) throws IOException, NotValidConnectionException,
+            IOErrorException, AuthFailedException, ClientServerIncompatibleException {
+        CheckThrower.ifFalseThrow(parseThreads >= 1, "ParseThreads must greater than zero");
+        CheckThrower.ifFalseThrow(chunkRows >= 1, "ChunkRows must greater than zero");
+        CheckThrower.ifFalseThrow(windowBytes >= 1, "WindowBytes must greater than zero");
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long fileSize = channel.size();
+            CheckThrower.ifFalseThrow(startOffset >= 0 && startOffset <= fileSize, "StartOffset out of file range");
+            long position = startOffset;
+            List<String> header = null;
+            if (BulkLoadFormat.CSV.equals(format)) {
+                ByteBuffer headerBuffer = mapLine(channel, 0, fileSize);
+                int headerLength = headerBuffer.remaining();
+                String headerLine = StandardCharsets.UTF_8.decode(headerBuffer).toString();
+                if (headerLine.startsWith("\uFEFF")) {
+                    headerLine = headerLine.substring(1);
+                }
+                header = parseCsvLine(trimLine(headerLine), csvDelimiter);
+                position = Math.max(position, headerLength);
+            }
+            ProgressTracker tracker = new ProgressTracker(fileSize, position);
+            NebulaBatchDispatcher dispatcher = new NebulaBatchDispatcher(parseThreads);
+            try {
+                NebulaBatchDispatcher.Dispatch dispatch = dispatcher.open();
+                int window = windowBytes;
+                while (position < fileSize && !dispatch.isFailed()) {
+                    long size = Math.min(window, fileSize - position);
+                    MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, position, size);
+                    boolean eof = position + size == fileSize;
+                    int chunkStart = 0;
+                    int lines = 0;
+                    for (int i = 0; i < size && !dispatch.isFailed(); i++) {
+                        if (buffer.get(i) != LINE_FEED || ++lines < chunkRows) {
+                            continue;
+                        }
+                        submit(dispatch, buffer, position, chunkStart, i + 1, header, tracker);
+                        chunkStart = i + 1;
+                        lines = 0;
+                    }
+                    int chunkEnd = eof ? (int) size : lastLineEnd(buffer, chunkStart, (int) size);
+                    if (chunkEnd > chunkStart) {
+                        submit(dispatch, buffer, position, chunkStart, chunkEnd, header, tracker);
+                        chunkStart = chunkEnd;
+                    }
+                    if (chunkStart == 0 && !eof) {
+                        // 窗口内没有完整的行，扩大窗口重新映射
+                        CheckThrower.ifTrueThrow(window > Integer.MAX_VALUE / 2, "Line too long to map");
+                        window *= 2;
+                        continue;
+                    }
+                    window = windowBytes;
+                    position += chunkStart;
+                }
+                dispatch.await();
+            } catch (Exception e) {
+                log.error("批量导入nebula失败,可以从偏移{}续传,file={}", tracker.getCommittedOffset(), file);
+                throw e;
+            } finally {
+                dispatcher.shutdown();
+            }
+            BulkLoadProgress progress = tracker.snapshot();
+            log.info("批量导入nebula完成,file={},progress={}", file, progress);
+            return progress;
+        }
+    }
+
+    private void submit(NebulaBatchDispatcher.Dispatch dispatch, MappedByteBuffer buffer, long windowOffset,
+                        int start, int end, List<String> header, ProgressTracker tracker) {
+        ByteBuffer duplicate = buffer.duplicate();
+        duplicate.limit(end).position(start);
+        ByteBuffer chunk = duplicate.slice();
+        long chunkOffset = windowOffset + start;
+        long chunkEnd = windowOffset + end;
+        dispatch.submit(() -> loadChunk(chunk, chunkOffset, chunkEnd, header, tracker));
+    }
+
+    /**
+     * 解析并写入一个批次
+     *
+     * @return 执行的语句数
+     */
+    private int loadChunk(ByteBuffer chunk, long chunkOffset, long chunkEnd, List<String> header,
+                          ProgressTracker tracker) throws NotValidConnectionException, IOErrorException,
+            AuthFailedException, ClientServerIncompatibleException {
+        String text = StandardCharsets.UTF_8.decode(chunk).toString();
+        Map<String, List<GraphVertexEntity<?>>> vertexPartitions = Maps.newLinkedHashMap();
+        Map<String, List<GraphEdgeEntity<?, ?, ?>>> edgePartitions = Maps.newLinkedHashMap();
+        long lineOffset = chunkOffset;
+        int loaded = 0;
+        int rejected = 0;
+        int lineStart = 0;
+        while (lineStart < text.length()) {
+            int lineEnd = text.indexOf(LINE_FEED, lineStart);
+            if (lineEnd < 0) {
+                lineEnd = text.length();
+            }
+            String line = trimLine(text.substring(lineStart, lineEnd));
+            long offset = lineOffset;
+            lineOffset += NebulaAdaptiveBatchController.utf8Length(text.subSequence(lineStart, lineEnd)) + 1;
+            lineStart = lineEnd + 1;
+            if (line.trim().isEmpty()) {
+                continue;
+            }
+            try {
+                GraphPropertyEntity entity = rowMapper.map(parseRow(line, header));
+                if (entity instanceof GraphVertexEntity) {
+                    GraphVertexEntity<?> vertexEntity = (GraphVertexEntity<?>) entity;
+                    vertexPartitions.computeIfAbsent(vertexEntity.getGraphVertexType().getVertexName(),
+                            k -> Lists.newArrayList()).add(vertexEntity);
+                } else if (entity instanceof GraphEdgeEntity) {
+                    GraphEdgeEntity<?, ?, ?> edgeEntity = (GraphEdgeEntity<?, ?, ?>) entity;
+                    edgePartitions.computeIfAbsent(edgeEntity.getGraphEdgeType().getEdgeName(),
+                            k -> Lists.newArrayList()).add(edgeEntity);
+                } else if (entity != null) {
+                    throw new NebulaException("-1", "Unsupported entity type " + entity.getClass().getName());
+                }
+                loaded++;
+            } catch (RuntimeException e) {
+                rejected++;
+                log.debug("批量导入拒绝行,offset={},line={}", offset, line, e);
+                if (listener != null) {
+                    listener.onRejected(offset, line, e);
+                }
+            }
+        }
+        List<String> sqlList = Lists.newArrayList();
+        for (List<GraphVertexEntity<?>> vertexEntities : vertexPartitions.values()) {
+            sqlList.addAll(graphUpdateVertexEngineFactory.build(
+                    NebulaBulkLoader.<Object>uncheckedVertices(vertexEntities)).getSqlList());
+        }
+        for (List<GraphEdgeEntity<?, ?, ?>> edgeEntities : edgePartitions.values()) {
+            sqlList.addAll(graphUpdateEdgeEngineFactory.build(
+                    NebulaBulkLoader.<Object, Object, Object>uncheckedEdges(edgeEntities)).getSqlList());
+        }
+        if (!sqlList.isEmpty()) {
+            graphMapper.executeBatchUpdateSql(space, sqlList);
+        }
+        BulkLoadProgress progress = tracker.complete(chunkOffset, chunkEnd, loaded, rejected);
+        if (listener != null) {
+            listener.onProgress(progress);
+        }
+        return sqlList.size();
+    }
+
+    /**
+     * 同一分区内的实体来自同一个标签/边类型，引擎工厂只按标签/边类型生成语句，不依赖具体的泛型参数
+     */
+    @SuppressWarnings("unchecked")
+    private static <T> List<GraphVertexEntity<T>> uncheckedVertices(List<GraphVertexEntity<?>> vertexEntities) {
+        return (List<GraphVertexEntity<T>>) (List<?>) vertexEntities;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <S, T, E> List<GraphEdgeEntity<S, T, E>> uncheckedEdges(List<GraphEdgeEntity<?, ?, ?>> edgeEntities) {
+        return (List<GraphEdgeEntity<S, T, E>>) (List<?>) edgeEntities;
+    }
+
+    private Map<String, String> parseRow(String line, List<String> header) {
+        if (BulkLoadFormat.JSONL.equals(format)) {
+            JSONObject jsonObject = JSON.parseObject(line);
+            Map<String, String> row = Maps.newHashMapWithExpectedSize(jsonObject.size());
+            for (Map.Entry<String, Object> entry : jsonObject.entrySet()) {
+                if (entry.getValue() != null) {
+                    row.put(entry.getKey(), String.valueOf(entry.getValue()));
+                }
+            }
+            return row;
+        }
+        List<String> values = parseCsvLine(line, csvDelimiter);
+        CheckThrower.ifTrueThrow(values.size() != header.size(), "Column count not match header");
+        Map<String, String> row = Maps.newHashMapWithExpectedSize(header.size());
+        for (int i = 0; i < header.size(); i++) {
+            row.put(header.get(i), values.get(i));
+        }
+        return row;
+    }
+
+    /**
+     * 解析一行 csv，双引号包裹的字段中可以包含分隔符，两个连续双引号表示一个双引号。
+     * 批次和行都按换行符切分，一条记录必须在一个物理行内，字段中的换行需要转义后再导入；
+     * 行尾仍在引号内说明字段跨了行，此时抛出异常，该行以及被切开的后半行都会作为拒绝行交给监听器，
+     * 不会错位映射
+     */
+    static List<String> parseCsvLine(String line, char delimiter) {
+        List<String> values = Lists.newArrayList();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c != '"') {
+                    field.append(c);
+                } else if (i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else {
+                    quoted = false;
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == delimiter) {
+                values.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        CheckThrower.ifTrueThrow(quoted, "Unterminated quoted field, csv record must not span lines");
+        values.add(field.toString());
+        return values;
+    }
+
+    private static String trimLine(String line) {
+        int end = line.length();
+        while (end > 0 && (line.charAt(end - 1) == '\n' || line.charAt(end - 1) == '\r')) {
+            end--;
+        }
+        return line.substring(0, end);
+    }
+
+    private static int lastLineEnd(ByteBuffer buffer, int from, int size) {
+        for (int i = size - 1; i >= from; i--) {
+            if (buffer.get(i) == LINE_FEED) {
+                return i + 1;
+            }
+        }
+        return from;
+    }
+
+    /**
+     * 映射从 position 开始的第一行(含换行符)
+     */
+    private ByteBuffer mapLine(FileChannel channel, long position, long fileSize) throws IOException {
+        long window = windowBytes;
+        while (true) {
+            long size = Math.min(window, fileSize - position);
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, position, size);
+            for (int i = 0; i < size; i++) {
+                if (buffer.get(i) == LINE_FEED) {
+                    buffer.limit(i + 1);
+                    return buffer;
+                }
+            }
+            if (position + size == fileSize) {
+                return buffer;
+            }
+            CheckThrower.ifTrueThrow(window > Integer.MAX_VALUE / 2, "Line too long to map");
+            window *= 2;
+        }
+    }
+
+    /**
+     * 进度统计，批次可能乱序完成，committedOffset 只推进到连续完成的位置
+     */
+    private static class ProgressTracker {
+
+        private final long fileSize;
+
+        private final long startTime = System.currentTimeMillis();
+
+        private final TreeMap<Long, Long> completedChunks = new TreeMap<>();
+
+        private long committedOffset;
+
+        private long loadedRows;
+
+        private long rejectedRows;
+
+        private ProgressTracker(long fileSize, long committedOffset) {
+            this.fileSize = fileSize;
+            this.committedOffset = committedOffset;
+        }
+
+        private synchronized long getCommittedOffset() {
+            return committedOffset;
+        }
+
+        private synchronized BulkLoadProgress complete(long chunkOffset, long chunkEnd, int loaded, int rejected) {
+            loadedRows += loaded;
+            rejectedRows += rejected;
+            completedChunks.put(chunkOffset, chunkEnd);
+            Long end;
+            while ((end = completedChunks.remove(committedOffset)) != null) {
+                committedOffset = end;
+            }
+            return snapshot();
+        }
+
+        private synchronized BulkLoadProgress snapshot() {
+            return new BulkLoadProgress(fileSize, committedOffset, loadedRows, rejectedRows,
+                    System.currentTimeMillis() - startTime);
+        }
+    }
+
+}
@@ -0,0 +1,119 @@
+/* Copyright (c) 2022 com.github.anyzm. All rights reserved.
+ *
+ * This source code is licensed under Apache 2.0 License,
+ * attached with Common Clause Condition 1.0, found in the LICENSES directory.
+ */
+package io.github.anyzm.graph.ocean.loader;
+
+import com.google.common.collect.Maps;
+import io.github.anyzm.graph.ocean.domain.GraphLabel;
+import io.github.anyzm.graph.ocean.enums.GraphDataTypeEnum;
+import io.github.anyzm.graph.ocean.exception.NebulaException;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Collection;
+import java.util.Map;
+
+/**
+ * Description  RowValues is used for
+ * 行数据到属性的转换：按标签的属性列表取列，按属性类型把文本解析为 java 值，
+ * 由更新引擎按类型编码写入，不会把文件中的文本原样拼进语句；
+ * 非字符串类型的空值视为缺失，解析失败时抛出异常，该行计为拒绝
+ *
+ * @author Anyzm
+ * Date  2026/10/17 - 17:40
+ * @version 1.0.0
+ */
+class RowValues {
+
+    private RowValues() {
+    }
+
+    static Map<String, Object> collectProps(GraphLabel graphLabel, Map<String, String> row) {
+        Collection<String> fields = graphLabel.getAllFields();
+        Map<String, Object> props = Maps.newHashMapWithExpectedSize(fields.size());
+        for (String field : fields) {
+            String value = row.get(field);
+            if (value == null) {
+                continue;
+            }
+            GraphDataTypeEnum graphDataTypeEnum = graphLabel.getFieldDataType(field);
+            if (value.isEmpty() && !GraphDataTypeEnum.STRING.equals(graphDataTypeEnum)) {
+                continue;
+            }
+            try {
+                props.put(field, parseValue(graphDataTypeEnum, value.trim(), value));
+            } catch (IllegalArgumentException | DateTimeParseException e) {
+                throw new NebulaException("-1", "Invalid " + graphDataTypeEnum + " value of " + field + ": " + value);
+            }
+        }
+        return props;
+    }
+
+    /**
+     * @param graphDataTypeEnum 属性类型
+     * @param trimmed           去掉首尾空白的文本，非字符串类型使用
+     * @param value             原始文本，字符串类型使用
+     * @return 属性值，空值类型返回 null
+     */
+    private static Object parseValue(GraphDataTypeEnum graphDataTypeEnum, String trimmed, String value) {
+        switch (graphDataTypeEnum) {
+            case INT:
+                return Long.parseLong(trimmed);
+            case DOUBLE:
+                double number = Double.parseDouble(trimmed);
+                if (Double.isNaN(number) || Double.isInfinite(number)) {
+                    throw new IllegalArgumentException(trimmed);
+                }
+                return number;
+            case BOOLEAN:
+                if ("true".equalsIgnoreCase(trimmed)) {
+                    return Boolean.TRUE;
+                }
+                if ("false".equalsIgnoreCase(trimmed)) {
+                    return Boolean.FALSE;
+                }
+                throw new IllegalArgumentException(trimmed);
+            case DATE:
+                return LocalDate.parse(trimmed);
+            case DATE_TIME:
+                return parseDateTime(trimmed);
+            case TIMESTAMP:
+                // 秒级时间戳或日期时间
+                if (isInteger(trimmed)) {
+                    return Long.parseLong(trimmed);
+                }
+                return parseDateTime(trimmed);
+            case NULL:
+                return null;
+            default:
+                return value;
+        }
+    }
+
+    /**
+     * 日期和时间之间可以是 T 或空格
+     */
+    private static LocalDateTime parseDateTime(String value) {
+        if (value.length() > 10 && value.charAt(10) == ' ') {
+            value = value.substring(0, 10) + 'T' + value.substring(11);
+        }
+        return LocalDateTime.parse(value);
+    }
+
+    private static boolean isInteger(String value) {
+        int start = value.startsWith("-") ? 1 : 0;
+        if (start == value.length()) {
+            return false;
+        }
+        for (int i = start; i < value.length(); i++) {
+            if (!Character.isDigit(value.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+}
@@ -0,0 +1,59 @@
+/* Copyright (c) 2022 com.github.anyzm. All rights reserved.
+ *
+ * This source code is licensed under Apache 2.0 License,
+ * attached with Common Clause Condition 1.0, found in the LICENSES directory.
+ */
+package io.github.anyzm.graph.ocean.loader;
+
+import io.github.anyzm.graph.ocean.dao.GraphTypeManager;
+import io.github.anyzm.graph.ocean.domain.impl.GraphVertexEntity;
+import io.github.anyzm.graph.ocean.domain.impl.GraphVertexType;
+import io.github.anyzm.graph.ocean.enums.ErrorEnum;
+import io.github.anyzm.graph.ocean.exception.CheckThrower;
+import io.github.anyzm.graph.ocean.exception.NebulaException;
+import org.apache.commons.lang3.StringUtils;
+
+import java.util.Map;
+
+/**
+ * Description  VertexRowMapper is used for
+ * 按顶点类型元数据把一行映射为顶点实体，列名即图属性名，不经过实体类反射
+ *
+ * @author Anyzm
+ * Date  2026/10/17 - 17:32
+ * @version 1.0.0
+ */
+public class VertexRowMapper<T> implements GraphRowMapper {
+
+    private final GraphVertexType<T> graphVertexType;
+
+    private final String idColumn;
+
+    /**
+     * @param graphVertexType 顶点类型
+     * @param idColumn        顶点id所在的列
+     */
+    public VertexRowMapper(GraphVertexType<T> graphVertexType, String idColumn) {
+        CheckThrower.ifTrueThrow(graphVertexType == null, ErrorEnum.INVALID_VERTEX_TAG);
+        CheckThrower.ifTrueThrow(StringUtils.isBlank(idColumn), ErrorEnum.PARAMETER_NOT_NULL);
+        this.graphVertexType = graphVertexType;
+        this.idColumn = idColumn;
+    }
+
+    /**
+     * @param graphTypeManager 类型管理器
+     * @param vertexClazz      标注了 GraphVertex 的顶点类
+     * @param idColumn         顶点id所在的列
+     */
+    public VertexRowMapper(GraphTypeManager graphTypeManager, Class<T> vertexClazz, String idColumn) {
+        this(graphTypeManager.getGraphVertexType(vertexClazz), idColumn);
+    }
+
+    @Override
+    public GraphVertexEntity<T> map(Map<String, String> row) throws NebulaException {
+        String id = row.get(idColumn);
+        CheckThrower.ifTrueThrow(StringUtils.isBlank(id), ErrorEnum.INVALID_ID);
+        return new GraphVertexEntity<>(graphVertexType, id, RowValues.collectProps(graphVertexType, row));
+    }
+
+}
@@ -0,0 +1,179 @@
+/* Copyright (c) 2022 com.github.anyzm. All rights reserved.
+ *
+ * This source code is licensed under Apache 2.0 License,
+ * attached with Common Clause Condition 1.0, found in the LICENSES directory.
+ */
+package io.github.anyzm.graph.ocean.mapper;
+
+import io.github.anyzm.graph.ocean.exception.CheckThrower;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Description  NebulaAdaptiveBatchController is used for
+ * 批量更新的自适应批次大小控制器，按语句的 UTF-8 字节数而不是语句条数切分批次，
+ * 每个标签(tag/edge)单独维护字节预算：批次耗时低于目标延迟时线性增加预算，
+ * 超过目标延迟或执行失败时预算减半(AIMD)，宽顶点和窄边因此各自收敛到合适的批次大小
+ *
+ * @author Anyzm
+ * Date  2026/10/17 - 16:40
+ * @version 1.0.0
+ */
+@Slf4j
+public class NebulaAdaptiveBatchController {
+
+    /**
+     * 直接执行 sql 列表时没有标签信息，使用默认标签
+     */
+    public static final String DEFAULT_LABEL = "default";
+
+    public static final int DEFAULT_INITIAL_BYTES = 256 * 1024;
+
+    public static final int DEFAULT_MIN_BYTES = 16 * 1024;
+
+    public static final int DEFAULT_MAX_BYTES = 4 * 1024 * 1024;
+
+    public static final long DEFAULT_TARGET_LATENCY_MILLIS = 200L;
+
+    @Getter
+    private final int initialBytes;
+
+    @Getter
+    private final int minBytes;
+
+    @Getter
+    private final int maxBytes;
+
+    @Getter
+    private final long targetLatencyMillis;
+
+    /**
+     * 加性增长的步长
+     */
+    private final int increaseBytes;
+
+    private final ConcurrentMap<String, LabelBatchState> labelStates = new ConcurrentHashMap<>();
+
+    public NebulaAdaptiveBatchController() {
+        this(DEFAULT_INITIAL_BYTES, DEFAULT_MIN_BYTES, DEFAULT_MAX_BYTES, DEFAULT_TARGET_LATENCY_MILLIS);
+    }
+
+    /**
+     * @param initialBytes        初始字节预算
+     * @param minBytes            最小字节预算
+     * @param maxBytes            最大字节预算
+     * @param targetLatencyMillis 单批次目标耗时(毫秒)
+     */
+    public NebulaAdaptiveBatchController(int initialBytes, int minBytes, int maxBytes, long targetLatencyMillis) {
+        CheckThrower.ifFalseThrow(minBytes >= 1, "MinBytes must greater than zero");
+        CheckThrower.ifFalseThrow(minBytes <= initialBytes && initialBytes <= maxBytes,
+                "InitialBytes must between minBytes and maxBytes");
+        CheckThrower.ifFalseThrow(targetLatencyMillis >= 1, "TargetLatencyMillis must greater than zero");
+        this.initialBytes = initialBytes;
+        this.minBytes = minBytes;
+        this.maxBytes = maxBytes;
+        this.targetLatencyMillis = targetLatencyMillis;
+        this.increaseBytes = Math.max(minBytes, initialBytes / 8);
+    }
+
+    /**
+     * 计算字符串按 UTF-8 编码后的字节数，不实际编码
+     *
+     * @param sequence 字符串
+     * @return 字节数
+     */
+    public static int utf8Length(CharSequence sequence) {
+        int length = sequence.length();
+        int bytes = length;
+        for (int i = 0; i < length; i++) {
+            char c = sequence.charAt(i);
+            if (c < 0x80) {
+                continue;
+            }
+            if (c < 0x800) {
+                bytes += 1;
+            } else if (Character.isHighSurrogate(c) && i + 1 < length && Character.isLowSurrogate(sequence.charAt(i + 1))) {
+                bytes += 2;
+                i++;
+            } else {
+                bytes += 2;
+            }
+        }
+        return bytes;
+    }
+
+    private LabelBatchState state(String label) {
+        return labelStates.computeIfAbsent(label == null ? DEFAULT_LABEL : label, k -> new LabelBatchState(initialBytes));
+    }
+
+    /**
+     * @param label 标签名
+     * @return 该标签当前的批次字节预算
+     */
+    public int getByteBudget(String label) {
+        return state(label).getByteBudget();
+    }
+
+    /**
+     * 记录一个批次执行成功
+     *
+     * @param label         标签名
+     * @param bytes         批次字节数
+     * @param latencyMillis 批次耗时(毫秒)
+     */
+    public void onSuccess(String label, int bytes, long latencyMillis) {
+        state(label).onSuccess(bytes, latencyMillis);
+    }
+
+    /**
+     * 记录一个批次执行失败
+     *
+     * @param label 标签名
+     */
+    public void onFailure(String label) {
+        state(label).onFailure();
+    }
+
+    /**
+     * 单个标签的批次状态
+     */
+    private class LabelBatchState {
+
+        private int byteBudget;
+
+        private LabelBatchState(int byteBudget) {
+            this.byteBudget = byteBudget;
+        }
+
+        private synchronized int getByteBudget() {
+            return byteBudget;
+        }
+
+        private synchronized void onSuccess(int bytes, long latencyMillis) {
+            if (latencyMillis > targetLatencyMillis) {
+                decrease();
+                return;
+            }
+            // 批次没有用满预算时说明数据量本身不足，不据此放大预算
+            if (bytes * 2 >= byteBudget) {
+                byteBudget = Math.min(maxBytes, byteBudget + increaseBytes);
+            }
+        }
+
+        private synchronized void onFailure() {
+            decrease();
+        }
+
+        private void decrease() {
+            int budget = Math.max(minBytes, byteBudget / 2);
+            if (budget != byteBudget) {
+                log.debug("缩小批次字节预算,{}->{}", byteBudget, budget);
+            }
+            byteBudget = budget;
+        }
+    }
+
+}
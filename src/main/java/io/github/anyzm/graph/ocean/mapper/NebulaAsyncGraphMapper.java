@@ -0,0 +1,194 @@
+/* Copyright (c) 2022 com.github.anyzm. All rights reserved.
+ *
+ * This source code is licensed under Apache 2.0 License,
+ * attached with Common Clause Condition 1.0, found in the LICENSES directory.
+ */
+package io.github.anyzm.graph.ocean.mapper;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import io.github.anyzm.graph.ocean.dao.AsyncGraphMapper;
+import io.github.anyzm.graph.ocean.dao.GraphMapper;
+import io.github.anyzm.graph.ocean.domain.GraphQuery;
+import io.github.anyzm.graph.ocean.domain.impl.QueryResult;
+import io.github.anyzm.graph.ocean.exception.CheckThrower;
+import io.github.anyzm.graph.ocean.session.NebulaPoolSessionManager;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Function;
+
+/**
+ * Description  NebulaAsyncGraphMapper is used for
+ * 异步图映射器，在指定线程池中执行同步的 GraphMapper，
+ * session 仍然来自同步 mapper 使用的 NebulaPoolSessionManager，线程池大小不宜超过连接池大小
+ *
+ * @author Anyzm
+ * Date  2026/10/17 - 15:32
+ * @version 1.0.0
+ */
+@Slf4j
+public class NebulaAsyncGraphMapper implements AsyncGraphMapper {
+
+    public static final int DEFAULT_THREADS = 8;
+
+    @Getter
+    private final GraphMapper graphMapper;
+
+    private final Executor executor;
+
+    /**
+     * 是否由异步 mapper 自己创建的线程池，自己创建的线程池在 shutdown 时关闭
+     */
+    private final boolean ownExecutor;
+
+    public NebulaAsyncGraphMapper(NebulaPoolSessionManager nebulaPoolSessionManager, String space) {
+        this(new NebulaGraphMapper(nebulaPoolSessionManager, space), Executors.newFixedThreadPool(DEFAULT_THREADS,
+                new ThreadFactoryBuilder().setNameFormat("graph-ocean-async-%d").setDaemon(true).build()), true);
+    }
+
+    /**
+     * @param graphMapper 同步 mapper
+     * @param executor    执行线程池，由调用方负责关闭
+     */
+    public NebulaAsyncGraphMapper(GraphMapper graphMapper, Executor executor) {
+        this(graphMapper, executor, false);
+    }
+
+    private NebulaAsyncGraphMapper(GraphMapper graphMapper, Executor executor, boolean ownExecutor) {
+        CheckThrower.ifTrueThrow(graphMapper == null, "GraphMapper must not be null");
+        CheckThrower.ifTrueThrow(executor == null, "Executor must not be null");
+        this.graphMapper = graphMapper;
+        this.executor = executor;
+        this.ownExecutor = ownExecutor;
+    }
+
+    private <R> CompletableFuture<R> supplyAsync(GraphCall<R> call) {
+        CompletableFuture<R> future = new CompletableFuture<>();
+        try {
+            executor.execute(() -> {
+                try {
+                    future.complete(call.call());
+                } catch (Throwable e) {
+                    future.completeExceptionally(e);
+                }
+            });
+        } catch (Exception e) {
+            log.warn("异步执行nebula任务提交失败", e);
+            future.completeExceptionally(e);
+        }
+        return future;
+    }
+
+    public void shutdown() {
+        if (ownExecutor) {
+            ((ExecutorService) executor).shutdown();
+        }
+    }
+
+    @Override
+    public <T> CompletableFuture<Integer> saveVertexEntities(List<T> entities) {
+        return supplyAsync(() -> graphMapper.saveVertexEntities(entities));
+    }
+
+    @Override
+    public <S, T, E> CompletableFuture<Integer> saveEdgeEntitiesWithVertex(List<E> entities, Function<String, S> srcVertexEntityFunction,
+                                                                           Function<String, T> dstVertexEntityFunction) {
+        return supplyAsync(() -> graphMapper.saveEdgeEntitiesWithVertex(entities, srcVertexEntityFunction, dstVertexEntityFunction));
+    }
+
+    @Override
+    public <S, T, E> CompletableFuture<Integer> saveEdgeEntities(List<E> entities) {
+        return supplyAsync(() -> graphMapper.saveEdgeEntities(entities));
+    }
+
+    @Override
+    public <T> CompletableFuture<Integer> deleteVertices(Class<T> vertexClazz, Collection<String> vertexIds) {
+        return supplyAsync(() -> graphMapper.deleteVertices(vertexClazz, vertexIds));
+    }
+
+    @Override
+    public <T> CompletableFuture<Integer> deleteVerticesWithEdges(Class<T> vertexClazz, Collection<String> vertexIds) {
+        return supplyAsync(() -> graphMapper.deleteVerticesWithEdges(vertexClazz, vertexIds));
+    }
+
+    @Override
+    public <E> CompletableFuture<Integer> deleteEdges(List<E> entities) {
+        return supplyAsync(() -> graphMapper.deleteEdges(entities));
+    }
+
+    @Override
+    public CompletableFuture<Integer> executeBatchUpdateSql(String space, List<String> sqlList) {
+        return supplyAsync(() -> graphMapper.executeBatchUpdateSql(space, sqlList));
+    }
+
+    @Override
+    public CompletableFuture<Integer> executeUpdateSql(String space, String sql) {
+        return supplyAsync(() -> graphMapper.executeUpdateSql(space, sql));
+    }
+
+    @Override
+    public CompletableFuture<Integer> executeUpdateSql(String sql) {
+        return supplyAsync(() -> graphMapper.executeUpdateSql(sql));
+    }
+
+    @Override
+    public CompletableFuture<QueryResult> executeQuerySql(String sql) {
+        return supplyAsync(() -> graphMapper.executeQuerySql(sql));
+    }
+
+    @Override
+    public CompletableFuture<QueryResult> executeQuerySql(String space, String sql) {
+        return supplyAsync(() -> graphMapper.executeQuerySql(space, sql));
+    }
+
+    @Override
+    public <T> CompletableFuture<List<T>> executeQuerySql(String sql, Class<T> clazz) {
+        return supplyAsync(() -> graphMapper.executeQuerySql(sql, clazz));
+    }
+
+    @Override
+    public CompletableFuture<QueryResult> executeQuery(GraphQuery query) {
+        return supplyAsync(() -> graphMapper.executeQuery(query));
+    }
+
+    @Override
+    public CompletableFuture<QueryResult> executeQuery(String space, GraphQuery query) {
+        return supplyAsync(() -> graphMapper.executeQuery(space, query));
+    }
+
+    @Override
+    public <T> CompletableFuture<List<T>> executeQuery(GraphQuery query, Class<T> clazz) {
+        return supplyAsync(() -> graphMapper.executeQuery(query, clazz));
+    }
+
+    @Override
+    public <T> CompletableFuture<List<T>> goOutEdge(Class<T> edgeClazz, String... vertexIds) {
+        return supplyAsync(() -> graphMapper.goOutEdge(edgeClazz, vertexIds));
+    }
+
+    @Override
+    public <T> CompletableFuture<List<T>> goReverseEdge(Class<T> edgeClazz, String... vertexIds) {
+        return supplyAsync(() -> graphMapper.goReverseEdge(edgeClazz, vertexIds));
+    }
+
+    @Override
+    public <T> CompletableFuture<List<T>> fetchVertexTag(Class<T> vertexClazz, String... vertexIds) {
+        return supplyAsync(() -> graphMapper.fetchVertexTag(vertexClazz, vertexIds));
+    }
+
+    /**
+     * 一次同步的图操作
+     */
+    private interface GraphCall<R> {
+
+        R call() throws Exception;
+
+    }
+
+}
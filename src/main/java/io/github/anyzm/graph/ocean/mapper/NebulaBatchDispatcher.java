@@ -0,0 +1,272 @@
+/* Copyright (c) 2022 com.github.anyzm. All rights reserved.
+ *
+ * This source code is licensed under Apache 2.0 License,
+ * attached with Common Clause Condition 1.0, found in the LICENSES directory.
+ */
+package io.github.anyzm.graph.ocean.mapper;
+
+import com.google.common.collect.Lists;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.vesoft.nebula.client.graph.exception.AuthFailedException;
+import com.vesoft.nebula.client.graph.exception.ClientServerIncompatibleException;
+import com.vesoft.nebula.client.graph.exception.IOErrorException;
+import com.vesoft.nebula.client.graph.exception.NotValidConnectionException;
+import io.github.anyzm.graph.ocean.exception.CheckThrower;
+import io.github.anyzm.graph.ocean.exception.NebulaException;
+import lombok.Getter;
+import lombok.ToString;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Description  NebulaBatchDispatcher is used for
+ * 批量更新的并发分发器，把分好批的语句通过多个连接池 session 同时发送给 graphd，
+ * 同时在途的批次数受 maxInFlight 限制；任意一批失败后不再发送新的批次，
+ * 等在途批次结束后抛出第一个异常，与串行执行的 fail-fast 语义一致
+ *
+ * @author Anyzm
+ * Date  2026/10/17 - 14:10
+ * @version 1.0.0
+ */
+@Slf4j
+public class NebulaBatchDispatcher {
+
+    public static final int DEFAULT_MAX_IN_FLIGHT = 4;
+
+    @Getter
+    private final int maxInFlight;
+
+    private final ExecutorService executorService;
+
+    /**
+     * 是否由分发器自己创建的线程池，自己创建的线程池在 shutdown 时关闭
+     */
+    private final boolean ownExecutor;
+
+    public NebulaBatchDispatcher() {
+        this(DEFAULT_MAX_IN_FLIGHT);
+    }
+
+    /**
+     * @param maxInFlight 同时在途的最大批次数
+     */
+    public NebulaBatchDispatcher(int maxInFlight) {
+        this(Executors.newFixedThreadPool(maxInFlight, new ThreadFactoryBuilder()
+                .setNameFormat("graph-ocean-batch-%d").setDaemon(true).build()), maxInFlight, true);
+    }
+
+    /**
+     * @param executorService 执行批次的线程池，由调用方负责关闭
+     * @param maxInFlight     同时在途的最大批次数
+     */
+    public NebulaBatchDispatcher(ExecutorService executorService, int maxInFlight) {
+        this(executorService, maxInFlight, false);
+    }
+
+    private NebulaBatchDispatcher(ExecutorService executorService, int maxInFlight, boolean ownExecutor) {
+        CheckThrower.ifFalseThrow(maxInFlight >= 1, "MaxInFlight must greater than zero");
+        CheckThrower.ifTrueThrow(executorService == null, "ExecutorService must not be null");
+        this.executorService = executorService;
+        this.maxInFlight = maxInFlight;
+        this.ownExecutor = ownExecutor;
+    }
+
+    /**
+     * 并发执行所有批次
+     *
+     * @param tasks 批次
+     * @return 汇总结果
+     */
+    public BatchDispatchResult dispatch(List<BatchTask> tasks) throws NotValidConnectionException, IOErrorException,
+            AuthFailedException, ClientServerIncompatibleException {
+        Dispatch dispatch = open();
+        for (BatchTask task : tasks) {
+            if (!dispatch.submit(task)) {
+                break;
+            }
+        }
+        return dispatch.await();
+    }
+
+    /**
+     * 开启一次分发，可以边生成批次边提交
+     *
+     * @return 分发过程
+     */
+    public Dispatch open() {
+        return new Dispatch();
+    }
+
+    public void shutdown() {
+        if (ownExecutor) {
+            executorService.shutdown();
+        }
+    }
+
+    /**
+     * 一个批次，返回本批次执行的语句数
+     */
+    public interface BatchTask {
+
+        /**
+         * 执行批次
+         *
+         * @return 执行的语句数
+         */
+        public int execute() throws NotValidConnectionException, IOErrorException, AuthFailedException,
+                ClientServerIncompatibleException;
+
+    }
+
+    /**
+     * 批次执行的汇总结果
+     */
+    @Getter
+    @ToString
+    public static class BatchDispatchResult {
+
+        private final int chunkCount;
+
+        private final long statementCount;
+
+        private final long costMillis;
+
+        public BatchDispatchResult(int chunkCount, long statementCount, long costMillis) {
+            this.chunkCount = chunkCount;
+            this.statementCount = statementCount;
+            this.costMillis = costMillis;
+        }
+    }
+
+    /**
+     * 一次分发过程，submit 在在途批次达到上限时阻塞
+     */
+    public class Dispatch {
+
+        private final Semaphore permits = new Semaphore(maxInFlight);
+
+        private final List<Future<?>> futures = Lists.newArrayList();
+
+        private final AtomicReference<Throwable> error = new AtomicReference<>();
+
+        private final AtomicInteger chunkCount = new AtomicInteger();
+
+        private final AtomicLong statementCount = new AtomicLong();
+
+        private final long startTime = System.currentTimeMillis();
+
+        private Dispatch() {
+        }
+
+        /**
+         * 提交一个批次
+         *
+         * @param task 批次
+         * @return 已有批次失败时返回 false，调用方应停止提交
+         */
+        public boolean submit(BatchTask task) {
+            if (error.get() != null) {
+                return false;
+            }
+            try {
+                permits.acquire();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                error.compareAndSet(null, e);
+                return false;
+            }
+            if (error.get() != null) {
+                permits.release();
+                return false;
+            }
+            try {
+                futures.add(executorService.submit(() -> {
+                    try {
+                        if (error.get() == null) {
+                            statementCount.addAndGet(task.execute());
+                            chunkCount.incrementAndGet();
+                        }
+                    } catch (Throwable e) {
+                        error.compareAndSet(null, e);
+                    } finally {
+                        permits.release();
+                    }
+                }));
+            } catch (RejectedExecutionException e) {
+                // 线程池已关闭或队列已满，批次没有执行，归还许可并按失败处理
+                permits.release();
+                error.compareAndSet(null, e);
+                return false;
+            }
+            return true;
+        }
+
+        /**
+         * @return 是否已有批次失败
+         */
+        public boolean isFailed() {
+            return error.get() != null;
+        }
+
+        /**
+         * 等待所有在途批次结束，有失败时抛出第一个异常
+         *
+         * @return 汇总结果
+         */
+        public BatchDispatchResult await() throws NotValidConnectionException, IOErrorException, AuthFailedException,
+                ClientServerIncompatibleException {
+            for (Future<?> future : futures) {
+                try {
+                    future.get();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    error.compareAndSet(null, e);
+                    break;
+                } catch (ExecutionException e) {
+                    error.compareAndSet(null, e.getCause());
+                }
+            }
+            Throwable throwable = error.get();
+            if (throwable != null) {
+                log.error("批量更新nebula失败,已完成批次={}", chunkCount.get());
+                rethrow(throwable);
+            }
+            return new BatchDispatchResult(chunkCount.get(), statementCount.get(),
+                    System.currentTimeMillis() - startTime);
+        }
+
+        private void rethrow(Throwable throwable) throws NotValidConnectionException, IOErrorException,
+                AuthFailedException, ClientServerIncompatibleException {
+            if (throwable instanceof RuntimeException) {
+                throw (RuntimeException) throwable;
+            }
+            if (throwable instanceof Error) {
+                throw (Error) throwable;
+            }
+            if (throwable instanceof NotValidConnectionException) {
+                throw (NotValidConnectionException) throwable;
+            }
+            if (throwable instanceof IOErrorException) {
+                throw (IOErrorException) throwable;
+            }
+            if (throwable instanceof AuthFailedException) {
+                throw (AuthFailedException) throwable;
+            }
+            if (throwable instanceof ClientServerIncompatibleException) {
+                throw (ClientServerIncompatibleException) throwable;
+            }
+            throw new NebulaException(throwable);
+        }
+    }
+
+}
@@ -0,0 +1,317 @@
+/* Copyright (c) 2022 com.github.anyzm. All rights reserved.
+ *
+ * This source code is licensed under Apache 2.0 License,
+ * attached with Common Clause Condition 1.0, found in the LICENSES directory.
+ */
+package io.github.anyzm.graph.ocean.mapper;
+
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
+import io.github.anyzm.graph.ocean.common.utils.CollectionUtils;
+import io.github.anyzm.graph.ocean.dao.GraphEdgeEntityFactory;
+import io.github.anyzm.graph.ocean.dao.GraphTypeManager;
+import io.github.anyzm.graph.ocean.dao.GraphVertexEntityFactory;
+import io.github.anyzm.graph.ocean.domain.GraphLabel;
+import io.github.anyzm.graph.ocean.domain.impl.GraphEdgeEntity;
+import io.github.anyzm.graph.ocean.domain.impl.GraphPropertyEntity;
+import io.github.anyzm.graph.ocean.domain.impl.GraphVertexEntity;
+import io.github.anyzm.graph.ocean.exception.CheckThrower;
+import io.github.anyzm.graph.ocean.exception.NebulaException;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Description  NebulaChangeTracker is used for
+ * 属性变更跟踪，用于只更新发生变化的属性：
+ * 通过 mapper 查询出的实体会自动记录快照，也可以调用 snapshot 手动记录，或者调用 markDirty 显式标记变化的属性；
+ * 保存被跟踪的实体时只生成 UPDATE VERTEX/UPDATE EDGE 更新变化的属性，没有变化的实体不发送语句，
+ * 未被跟踪的实体仍然按原来的方式全量写入。查询自动记录的快照最多保留 maxFetchedSnapshots 个，
+ * 超出时淘汰最久未使用的；手动记录的快照常驻内存，不再需要时调用 forget 或 clear 释放
+ *
+ * @author Anyzm
+ * Date  2026/10/17 - 18:20
+ * @version 1.0.0
+ */
+@Slf4j
+public class NebulaChangeTracker {
+
+    public static final int DEFAULT_MAX_FETCHED_SNAPSHOTS = 10000;
+
+    private final GraphTypeManager graphTypeManager;
+
+    private final GraphVertexEntityFactory graphVertexEntityFactory;
+
+    private final GraphEdgeEntityFactory graphEdgeEntityFactory;
+
+    /**
+     * 实体键 -> 手动记录或写入时的属性
+     */
+    private final Map<List<String>, Map<String, Object>> snapshots = new ConcurrentHashMap<>();
+
+    /**
+     * 实体键 -> 查询时自动记录的属性，按访问顺序淘汰
+     */
+    private final Map<List<String>, Map<String, Object>> fetchedSnapshots = new LinkedHashMap<List<String>, Map<String, Object>>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<List<String>, Map<String, Object>> eldest) {
+            return size() > maxFetchedSnapshots;
+        }
+    };
+
+    /**
+     * 查询自动记录的快照上限，0 表示查询结果不自动记录快照
+     */
+    private volatile int maxFetchedSnapshots = DEFAULT_MAX_FETCHED_SNAPSHOTS;
+
+    /**
+     * 实体键 -> 显式标记变化的属性
+     */
+    private final Map<List<String>, Set<String>> dirtyProperties = new ConcurrentHashMap<>();
+
+    NebulaChangeTracker(GraphTypeManager graphTypeManager, GraphVertexEntityFactory graphVertexEntityFactory,
+                        GraphEdgeEntityFactory graphEdgeEntityFactory) {
+        this.graphTypeManager = graphTypeManager;
+        this.graphVertexEntityFactory = graphVertexEntityFactory;
+        this.graphEdgeEntityFactory = graphEdgeEntityFactory;
+    }
+
+    /**
+     * 实体键由类型、标签名和id组成的列表，不拼接字符串，id 中包含分隔符时也不会冲突
+     */
+    static List<String> vertexKey(GraphVertexEntity<?> graphVertexEntity) {
+        return Arrays.asList("v", graphVertexEntity.getGraphVertexType().getVertexName(), graphVertexEntity.getId());
+    }
+
+    static List<String> edgeKey(GraphEdgeEntity<?, ?, ?> graphEdgeEntity) {
+        return Arrays.asList("e", graphEdgeEntity.getGraphEdgeType().getEdgeName(), graphEdgeEntity.getSrcId(),
+                graphEdgeEntity.getDstId());
+    }
+
+    private GraphPropertyEntity buildGraphEntity(Object entity) throws NebulaException {
+        GraphLabel graphLabel = graphTypeManager.getGraphLabel(entity.getClass());
+        if (graphLabel != null && graphLabel.isEdge()) {
+            return graphEdgeEntityFactory.buildGraphEdgeEntity(entity);
+        }
+        return graphVertexEntityFactory.buildGraphVertexEntity(entity);
+    }
+
+    static List<String> key(GraphPropertyEntity graphEntity) {
+        if (graphEntity instanceof GraphEdgeEntity) {
+            return edgeKey((GraphEdgeEntity<?, ?, ?>) graphEntity);
+        }
+        return vertexKey((GraphVertexEntity<?>) graphEntity);
+    }
+
+    /**
+     * 记录实体当前的属性作为比较基准
+     *
+     * @param entity 顶点或边
+     */
+    public void snapshot(Object entity) throws NebulaException {
+        if (entity == null) {
+            return;
+        }
+        GraphPropertyEntity graphEntity = buildGraphEntity(entity);
+        if (graphEntity != null) {
+            List<String> key = key(graphEntity);
+            snapshots.put(key, Maps.newHashMap(graphEntity.getProps()));
+            removeFetched(key);
+            dirtyProperties.remove(key);
+        }
+    }
+
+    private Map<String, Object> removeFetched(List<String> key) {
+        synchronized (fetchedSnapshots) {
+            return fetchedSnapshots.remove(key);
+        }
+    }
+
+    /**
+     * 批量记录快照
+     *
+     * @param entities 顶点或边
+     */
+    public void snapshot(List<?> entities) throws NebulaException {
+        if (CollectionUtils.isEmpty(entities)) {
+            return;
+        }
+        for (Object entity : entities) {
+            snapshot(entity);
+        }
+    }
+
+    /**
+     * 记录查询结果的快照，查询结果可能缺少id等必要属性，无法构造的实体不跟踪
+     *
+     * @param entities 查询出的顶点或边
+     */
+    void snapshotFetched(List<?> entities) {
+        if (CollectionUtils.isEmpty(entities)) {
+            return;
+        }
+        if (maxFetchedSnapshots == 0) {
+            return;
+        }
+        for (Object entity : entities) {
+            try {
+                GraphPropertyEntity graphEntity = buildGraphEntity(entity);
+                if (graphEntity != null) {
+                    List<String> key = key(graphEntity);
+                    Map<String, Object> props = Maps.newHashMap(graphEntity.getProps());
+                    // 已经手动跟踪的实体仍然保存在常驻快照中
+                    if (snapshots.replace(key, props) == null) {
+                        synchronized (fetchedSnapshots) {
+                            fetchedSnapshots.put(key, props);
+                        }
+                    }
+                    dirtyProperties.remove(key);
+                }
+            } catch (RuntimeException e) {
+                log.debug("查询结果无法记录快照,entity={}", entity, e);
+            }
+        }
+    }
+
+    /**
+     * @param maxFetchedSnapshots 查询自动记录的快照上限，0 表示查询结果不自动记录快照
+     */
+    public void setMaxFetchedSnapshots(int maxFetchedSnapshots) {
+        CheckThrower.ifFalseThrow(maxFetchedSnapshots >= 0, "MaxFetchedSnapshots must not be negative");
+        synchronized (fetchedSnapshots) {
+            this.maxFetchedSnapshots = maxFetchedSnapshots;
+            Iterator<List<String>> iterator = fetchedSnapshots.keySet().iterator();
+            for (int excess = fetchedSnapshots.size() - maxFetchedSnapshots; excess > 0; excess--) {
+                iterator.next();
+                iterator.remove();
+            }
+        }
+    }
+
+    public int getMaxFetchedSnapshots() {
+        return maxFetchedSnapshots;
+    }
+
+    /**
+     * 显式标记实体中变化的属性
+     *
+     * @param entity     顶点或边
+     * @param properties 属性名，图属性名或类的字段名均可
+     */
+    public void markDirty(Object entity, String... properties) throws NebulaException {
+        GraphPropertyEntity graphEntity = buildGraphEntity(entity);
+        if (graphEntity == null || properties == null || properties.length == 0) {
+            return;
+        }
+        GraphLabel graphLabel = graphTypeManager.getGraphLabel(entity.getClass());
+        Set<String> dirty = dirtyProperties.computeIfAbsent(key(graphEntity), k -> Sets.newConcurrentHashSet());
+        for (String property : properties) {
+            dirty.add(graphLabel.getAllFields().contains(property) ? property : graphLabel.getFieldName(property));
+        }
+    }
+
+    /**
+     * 不再跟踪实体
+     *
+     * @param entity 顶点或边
+     */
+    public void forget(Object entity) throws NebulaException {
+        GraphPropertyEntity graphEntity = buildGraphEntity(entity);
+        if (graphEntity != null) {
+            List<String> key = key(graphEntity);
+            snapshots.remove(key);
+            removeFetched(key);
+            dirtyProperties.remove(key);
+        }
+    }
+
+    public void clear() {
+        snapshots.clear();
+        synchronized (fetchedSnapshots) {
+            fetchedSnapshots.clear();
+        }
+        dirtyProperties.clear();
+    }
+
+    /**
+     * @return 跟踪中的实体数
+     */
+    public int size() {
+        Set<List<String>> keys = Sets.newHashSet(snapshots.keySet());
+        synchronized (fetchedSnapshots) {
+            keys.addAll(fetchedSnapshots.keySet());
+        }
+        keys.addAll(dirtyProperties.keySet());
+        return keys.size();
+    }
+
+    /**
+     * 计算实体变化的属性
+     *
+     * @param graphEntity 顶点或边实体
+     * @return 变化的属性，未被跟踪时返回 null
+     */
+    Map<String, Object> diff(GraphPropertyEntity graphEntity) {
+        List<String> key = key(graphEntity);
+        Map<String, Object> snapshot = snapshots.get(key);
+        if (snapshot == null) {
+            synchronized (fetchedSnapshots) {
+                snapshot = fetchedSnapshots.get(key);
+            }
+        }
+        Set<String> dirty = dirtyProperties.getOrDefault(key, Collections.emptySet());
+        if (snapshot == null && dirty.isEmpty()) {
+            return null;
+        }
+        Map<String, Object> current = graphEntity.getProps();
+        Map<String, Object> changed = Maps.newLinkedHashMap();
+        for (String property : dirty) {
+            changed.put(property, current.get(property));
+        }
+        if (snapshot != null) {
+            for (Map.Entry<String, Object> entry : current.entrySet()) {
+                if (!Objects.equals(snapshot.get(entry.getKey()), entry.getValue())) {
+                    changed.put(entry.getKey(), entry.getValue());
+                }
+            }
+            for (String property : snapshot.keySet()) {
+                if (!current.containsKey(property)) {
+                    changed.put(property, null);
+                }
+            }
+        }
+        return changed;
+    }
+
+    /**
+     * 写入成功后以当前属性作为新的快照
+     *
+     * @param graphEntities 已写入的被跟踪实体
+     */
+    void commit(List<? extends GraphPropertyEntity> graphEntities) {
+        for (GraphPropertyEntity graphEntity : graphEntities) {
+            List<String> key = key(graphEntity);
+            Map<String, Object> props = Maps.newHashMap(graphEntity.getProps());
+            boolean fetched;
+            synchronized (fetchedSnapshots) {
+                fetched = !snapshots.containsKey(key) && fetchedSnapshots.containsKey(key);
+                if (fetched) {
+                    fetchedSnapshots.put(key, props);
+                }
+            }
+            if (!fetched) {
+                snapshots.put(key, props);
+            }
+            dirtyProperties.remove(key);
+        }
+    }
+
+}
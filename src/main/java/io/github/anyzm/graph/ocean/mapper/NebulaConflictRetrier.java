@@ -0,0 +1,190 @@
+/* Copyright (c) 2022 com.github.anyzm. All rights reserved.
+ *
+ * This source code is licensed under Apache 2.0 License,
+ * attached with Common Clause Condition 1.0, found in the LICENSES directory.
+ */
+package io.github.anyzm.graph.ocean.mapper;
+
+import com.google.common.collect.Maps;
+import com.vesoft.nebula.client.graph.exception.AuthFailedException;
+import com.vesoft.nebula.client.graph.exception.ClientServerIncompatibleException;
+import com.vesoft.nebula.client.graph.exception.IOErrorException;
+import com.vesoft.nebula.client.graph.exception.NotValidConnectionException;
+import io.github.anyzm.graph.ocean.exception.CheckThrower;
+import io.github.anyzm.graph.ocean.exception.NebulaVersionConflictException;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.ToString;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Description  NebulaConflictRetrier is used for
+ * 版本冲突(E_DATA_CONFLICT_ERROR)的自动重试：批次因冲突失败后，批次中的语句都幂等时 mapper 把它们逐条重放，
+ * 只有再次冲突的语句按重试策略退避重试，重试次数用完后抛出 NebulaVersionConflictException；
+ * 可以按标签单独配置重试策略，并按标签统计冲突、重试和放弃的次数
+ *
+ * @author Anyzm
+ * Date  2026/10/17 - 18:55
+ * @version 1.0.0
+ */
+@Slf4j
+public class NebulaConflictRetrier {
+
+    @Setter
+    @Getter
+    private NebulaRetryPolicy defaultPolicy;
+
+    private final ConcurrentMap<String, NebulaRetryPolicy> labelPolicies = new ConcurrentHashMap<>();
+
+    private final ConcurrentMap<String, ConflictCounter> counters = new ConcurrentHashMap<>();
+
+    public NebulaConflictRetrier() {
+        this(new NebulaRetryPolicy());
+    }
+
+    public NebulaConflictRetrier(NebulaRetryPolicy defaultPolicy) {
+        CheckThrower.ifTrueThrow(defaultPolicy == null, "DefaultPolicy must not be null");
+        this.defaultPolicy = defaultPolicy;
+    }
+
+    /**
+     * 为标签单独设置重试策略
+     *
+     * @param label  标签名
+     * @param policy 重试策略，为空时恢复使用默认策略
+     */
+    public void setLabelPolicy(String label, NebulaRetryPolicy policy) {
+        if (policy == null) {
+            labelPolicies.remove(label);
+        } else {
+            labelPolicies.put(label, policy);
+        }
+    }
+
+    public NebulaRetryPolicy getPolicy(String label) {
+        return labelPolicies.getOrDefault(label, defaultPolicy);
+    }
+
+    private ConflictCounter counter(String label) {
+        return counters.computeIfAbsent(label, k -> new ConflictCounter());
+    }
+
+    /**
+     * @param label 标签名
+     * @return 标签的冲突统计
+     */
+    public ConflictStats getStats(String label) {
+        return counter(label).snapshot();
+    }
+
+    /**
+     * @return 所有标签的冲突统计
+     */
+    public Map<String, ConflictStats> getAllStats() {
+        Map<String, ConflictStats> stats = Maps.newTreeMap();
+        counters.forEach((label, counter) -> stats.put(label, counter.snapshot()));
+        return stats;
+    }
+
+    /**
+     * 记录一次批次冲突
+     *
+     * @param label 标签名
+     */
+    void onBatchConflict(String label) {
+        counter(label).batchConflicts.incrementAndGet();
+    }
+
+    /**
+     * 执行单条语句，冲突时按标签的重试策略重试
+     *
+     * @param label     标签名
+     * @param statement 语句执行
+     */
+    void execute(String label, Statement statement) throws NotValidConnectionException, IOErrorException,
+            AuthFailedException, ClientServerIncompatibleException {
+        NebulaRetryPolicy policy = getPolicy(label);
+        ConflictCounter counter = counter(label);
+        for (int attempt = 1; ; attempt++) {
+            try {
+                statement.execute();
+                return;
+            } catch (NebulaVersionConflictException e) {
+                counter.conflicts.incrementAndGet();
+                if (attempt >= policy.getMaxAttempts() || !policy.sleepBeforeRetry(attempt)) {
+                    counter.exhausted.incrementAndGet();
+                    log.error("nebula版本冲突重试失败,label={},attempts={}", label, attempt);
+                    throw e;
+                }
+                counter.retries.incrementAndGet();
+                log.debug("nebula版本冲突,label={},第{}次重试", label, attempt);
+            }
+        }
+    }
+
+    /**
+     * 一条语句的执行
+     */
+    interface Statement {
+
+        void execute() throws NotValidConnectionException, IOErrorException, AuthFailedException,
+                ClientServerIncompatibleException;
+
+    }
+
+    private static class ConflictCounter {
+
+        private final AtomicLong batchConflicts = new AtomicLong();
+
+        private final AtomicLong conflicts = new AtomicLong();
+
+        private final AtomicLong retries = new AtomicLong();
+
+        private final AtomicLong exhausted = new AtomicLong();
+
+        private ConflictStats snapshot() {
+            return new ConflictStats(batchConflicts.get(), conflicts.get(), retries.get(), exhausted.get());
+        }
+    }
+
+    /**
+     * 冲突统计
+     */
+    @Getter
+    @ToString
+    public static class ConflictStats {
+
+        /**
+         * 因冲突转为逐条重放的批次数
+         */
+        private final long batchConflicts;
+
+        /**
+         * 逐条重放中发生冲突的次数
+         */
+        private final long conflicts;
+
+        /**
+         * 重试次数
+         */
+        private final long retries;
+
+        /**
+         * 重试次数用完后放弃的语句数
+         */
+        private final long exhausted;
+
+        public ConflictStats(long batchConflicts, long conflicts, long retries, long exhausted) {
+            this.batchConflicts = batchConflicts;
+            this.conflicts = conflicts;
+            this.retries = retries;
+            this.exhausted = exhausted;
+        }
+    }
+
+}
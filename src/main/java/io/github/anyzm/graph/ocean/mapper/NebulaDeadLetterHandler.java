@@ -0,0 +1,30 @@
+/* Copyright (c) 2022 com.github.anyzm. All rights reserved.
+ *
+ * This source code is licensed under Apache 2.0 License,
+ * attached with Common Clause Condition 1.0, found in the LICENSES directory.
+ */
+package io.github.anyzm.graph.ocean.mapper;
+
+import io.github.anyzm.graph.ocean.domain.impl.GraphPropertyEntity;
+import io.github.anyzm.graph.ocean.exception.NebulaExecuteException;
+
+/**
+ * Description  NebulaDeadLetterHandler is used for
+ * 死信回调：批量保存失败后 mapper 二分拆分失败的批次，成功的部分照常写入，
+ * 单独执行仍然失败的顶点(GraphVertexEntity)或边(GraphEdgeEntity)交给该回调处理，不再抛出异常
+ *
+ * @author Anyzm
+ * Date  2026/10/17 - 19:50
+ * @version 1.0.0
+ */
+public interface NebulaDeadLetterHandler {
+
+    /**
+     * 处理无法写入的实体，可能在批量分发线程中并发调用
+     *
+     * @param graphEntity 顶点或边实体
+     * @param cause       单独执行该实体语句时的异常
+     */
+    void onRejected(GraphPropertyEntity graphEntity, NebulaExecuteException cause);
+
+}
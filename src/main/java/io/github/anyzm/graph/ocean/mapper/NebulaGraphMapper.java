@@ -6,25 +6,29 @@
 package io.github.anyzm.graph.ocean.mapper;
 
 import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
 import com.vesoft.nebula.client.graph.exception.AuthFailedException;
 import com.vesoft.nebula.client.graph.exception.ClientServerIncompatibleException;
 import com.vesoft.nebula.client.graph.exception.IOErrorException;
 import com.vesoft.nebula.client.graph.exception.NotValidConnectionException;
+import io.github.anyzm.graph.ocean.common.GraphHelper;
 import io.github.anyzm.graph.ocean.common.utils.CollectionUtils;
 import io.github.anyzm.graph.ocean.dao.*;
 import io.github.anyzm.graph.ocean.dao.impl.DefaultGraphEdgeEntityFactory;
 import io.github.anyzm.graph.ocean.dao.impl.DefaultGraphTypeManager;
 import io.github.anyzm.graph.ocean.dao.impl.DefaultGraphVertexEntityFactory;
-import io.github.anyzm.graph.ocean.domain.EdgeQuery;
 import io.github.anyzm.graph.ocean.domain.GraphLabel;
 import io.github.anyzm.graph.ocean.domain.GraphQuery;
-import io.github.anyzm.graph.ocean.domain.VertexQuery;
 import io.github.anyzm.graph.ocean.domain.impl.*;
 import io.github.anyzm.graph.ocean.engine.*;
-import io.github.anyzm.graph.ocean.enums.EdgeDirectionEnum;
 import io.github.anyzm.graph.ocean.enums.ErrorEnum;
 import io.github.anyzm.graph.ocean.exception.CheckThrower;
 import io.github.anyzm.graph.ocean.exception.NebulaException;
+import io.github.anyzm.graph.ocean.exception.NebulaExecuteException;
+import io.github.anyzm.graph.ocean.exception.NebulaPartialResultException;
+import io.github.anyzm.graph.ocean.exception.NebulaVersionConflictException;
+import io.github.anyzm.graph.ocean.session.NebulaErrorClassifier;
 import io.github.anyzm.graph.ocean.session.NebulaPoolSessionManager;
 import io.github.anyzm.graph.ocean.session.NebulaSessionWrapper;
 import lombok.Getter;
@@ -32,9 +36,18 @@ import lombok.Setter;
 import lombok.extern.slf4j.Slf4j;
 
 import java.io.UnsupportedEncodingException;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Function;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 /**
  * Description  NebulaGraphMapper is used for
@@ -48,7 +61,18 @@ public class NebulaGraphMapper implements GraphMapper {
 
     private static final int BATCH_SIZE = 500;
 
-    private static final String SQL = "execute %s ; %s;";
+    /**
+     * 完整语句为 execute space ; sql1;sql2;
+     */
+    private static final String SQL_PREFIX = "execute ";
+
+    private static final String SQL_SPACE_SEPARATOR = " ; ";
+
+    private static final String DELETE_VERTEX_SQL = "DELETE VERTEX ";
+
+    private static final String WITH_EDGE = " WITH EDGE";
+
+    private static final String DELETE_EDGE_SQL = "DELETE EDGE ";
 
     @Setter
     @Getter
@@ -68,7 +92,94 @@ public class NebulaGraphMapper implements GraphMapper {
 
     private GraphTypeManager graphTypeManager;
 
+    /**
+     * 批量更新和分片查询的并发分发器，为空时按批次串行执行
+     */
+    @Setter
+    @Getter
+    private NebulaBatchDispatcher batchDispatcher;
+
+    /**
+     * 自适应批次大小控制器，为空时按固定的 BATCH_SIZE 条语句切分批次
+     */
+    @Setter
+    @Getter
+    private NebulaAdaptiveBatchController adaptiveBatchController;
+
+    /**
+     * 保存边和顶点时按顶点id去重：起点、终点构造器对每个不同的顶点id只调用一次，
+     * 同一批次中每个顶点只写入一次，星型数据(大量边共享少数顶点)可以省去大部分顶点写入
+     */
+    @Setter
+    @Getter
+    private boolean deduplicateVertices;
+
+    /**
+     * 流式保存时每个批次包含的实体数，内存中最多同时存在 maxInFlight + 1 个批次
+     */
+    @Setter
+    @Getter
+    private int streamChunkSize = BATCH_SIZE;
+
+    /**
+     * 每条删除语句包含的顶点id或边数
+     */
+    @Setter
+    @Getter
+    private int deleteIdsPerStatement = 200;
+
+    /**
+     * goOutEdge/goReverseEdge/fetchVertexTag 每条查询语句包含的顶点id数，id 去重后超过时拆成多条语句，
+     * 配置了 batchDispatcher 时各分片并发执行，结果按分片顺序合并
+     */
+    @Setter
+    @Getter
+    private int fetchIdsPerStatement = 1000;
+
+    /**
+     * 属性变更跟踪，为空时不跟踪，保存时全量写入
+     */
+    @Getter
+    private volatile NebulaChangeTracker changeTracker;
+
+    /**
+     * 版本冲突重试，为空时冲突直接抛出
+     */
+    @Setter
+    @Getter
+    private NebulaConflictRetrier conflictRetrier;
+
+    /**
+     * 瞬时错误重试，为空时失败直接抛出
+     */
+    @Setter
+    @Getter
+    private NebulaTransientRetrier transientRetrier;
+
+    /**
+     * 死信回调，不为空时批量保存顶点和边失败后二分定位出错的实体，其余实体照常写入
+     */
+    @Setter
+    @Getter
+    private NebulaDeadLetterHandler deadLetterHandler;
+
+    /**
+     * 预写日志，不为空时批量更新语句追加到日志后即返回，由日志的后台线程写入 nebula
+     */
+    @Setter
+    @Getter
+    private NebulaWriteAheadJournal writeAheadJournal;
+
+    /**
+     * goOutEdge/goReverseEdge/fetchVertexTag 的预编译查询，每个 (类, 查询) 编译一次
+     */
+    private final Map<NebulaQueryTemplate.Operation, Map<Class<?>, NebulaQueryTemplate>> queryTemplates =
+            new EnumMap<>(NebulaQueryTemplate.Operation.class);
+
     private void init() {
+        for (NebulaQueryTemplate.Operation operation : NebulaQueryTemplate.Operation.values()) {
+            queryTemplates.put(operation, new ConcurrentHashMap<>());
+        }
         this.graphVertexEntityFactory = new DefaultGraphVertexEntityFactory(graphTypeManager);
         this.graphEdgeEntityFactory = new DefaultGraphEdgeEntityFactory(graphTypeManager);
         NebulaCondition.setGraphTypeManager(graphTypeManager);
@@ -76,6 +187,30 @@ public class NebulaGraphMapper implements GraphMapper {
         NebulaEdgeQuery.setGraphTypeManager(graphTypeManager);
     }
 
+    GraphVertexEntityFactory getGraphVertexEntityFactory() {
+        return this.graphVertexEntityFactory;
+    }
+
+    GraphEdgeEntityFactory getGraphEdgeEntityFactory() {
+        return this.graphEdgeEntityFactory;
+    }
+
+    /**
+     * 开启属性变更跟踪，被跟踪的实体保存时只更新变化的属性
+     *
+     * @return 变更跟踪器
+     */
+    public synchronized NebulaChangeTracker enableChangeTracking() {
+        if (this.changeTracker == null) {
+            this.changeTracker = new NebulaChangeTracker(graphTypeManager, graphVertexEntityFactory, graphEdgeEntityFactory);
+        }
+        return this.changeTracker;
+    }
+
+    public synchronized void disableChangeTracking() {
+        this.changeTracker = null;
+    }
+
     public NebulaGraphMapper(NebulaPoolSessionManager nebulaPoolSessionManager,
                              String space) {
         this.graphTypeManager = new DefaultGraphTypeManager();
@@ -98,10 +233,100 @@ public class NebulaGraphMapper implements GraphMapper {
         init();
     }
 
-    private <T> int batchUpdateVertex(List<GraphVertexEntity<T>> graphVertexEntityList) throws NebulaException, ClientServerIncompatibleException, AuthFailedException, NotValidConnectionException, IOErrorException {
-        VertexUpdateEngine build = this.graphUpdateVertexEngineFactory.build(graphVertexEntityList);
-        List<String> sqlList = build.getSqlList();
-        return executeBatchUpdateSql(space, sqlList);
+    /**
+     * 按顶点标签分组后各自构造更新语句，分组之间并发写入
+     */
+    <T> int batchUpdateVertex(List<GraphVertexEntity<T>> graphVertexEntityList) throws NebulaException, ClientServerIncompatibleException, AuthFailedException, NotValidConnectionException, IOErrorException {
+        NebulaChangeTracker tracker = this.changeTracker;
+        NebulaDeadLetterHandler handler = this.deadLetterHandler;
+        if (tracker == null) {
+            if (handler != null) {
+                executeBisecting(partitionVertices(graphVertexEntityList), vertexSqlBuilder(Collections.emptySet()), handler);
+                return 0;
+            }
+            return executeBatchUpdateSql(space, buildVertexSqlLists(graphVertexEntityList));
+        }
+        List<GraphVertexEntity<T>> untracked = Lists.newArrayList();
+        List<GraphVertexEntity<T>> tracked = Lists.newArrayList();
+        Map<String, List<GraphVertexEntity<T>>> partialPartitions = Maps.newLinkedHashMap();
+        for (GraphVertexEntity<T> graphVertexEntity : graphVertexEntityList) {
+            Map<String, Object> changed = tracker.diff(graphVertexEntity);
+            if (changed == null) {
+                untracked.add(graphVertexEntity);
+                continue;
+            }
+            tracked.add(graphVertexEntity);
+            if (!changed.isEmpty()) {
+                partialPartitions.computeIfAbsent(graphVertexEntity.getGraphVertexType().getVertexName(), k -> Lists.newArrayList())
+                        .add(new GraphVertexEntity<>(graphVertexEntity.getGraphVertexType(), graphVertexEntity.getId(), changed));
+            }
+        }
+        log.debug("保存顶点信息到nebula,跟踪实体数={},部分更新数={}", tracked.size(),
+                partialPartitions.values().stream().mapToInt(List::size).sum());
+        if (handler != null) {
+            Map<String, List<GraphVertexEntity<T>>> labelEntities = partitionVertices(untracked);
+            Set<GraphVertexEntity<T>> partials = Sets.newIdentityHashSet();
+            partialPartitions.forEach((label, partialEntities) -> {
+                partials.addAll(partialEntities);
+                labelEntities.computeIfAbsent(label, k -> Lists.newArrayList()).addAll(partialEntities);
+            });
+            boolean journaled = this.writeAheadJournal != null;
+            List<GraphVertexEntity<T>> rejected = executeBisecting(labelEntities, vertexSqlBuilder(partials), handler);
+            if (!journaled) {
+                tracker.commit(withoutRejected(tracked, rejected));
+            }
+            return 0;
+        }
+        Map<String, List<String>> labelSqlLists = buildVertexSqlLists(untracked);
+        for (Map.Entry<String, List<GraphVertexEntity<T>>> entry : partialPartitions.entrySet()) {
+            List<String> sqlList = new NebulaBatchVertexPartialUpdate<>(entry.getValue()).getSqlList();
+            labelSqlLists.computeIfAbsent(entry.getKey(), k -> Lists.newArrayList()).addAll(sqlList);
+        }
+        boolean journaled = this.writeAheadJournal != null;
+        int result = executeBatchUpdateSql(space, labelSqlLists);
+        // 写入预写日志时语句还没有到达 nebula，日志之后可能拒绝该记录，快照保持不变，下次保存仍会发送这些变化
+        if (!journaled) {
+            tracker.commit(tracked);
+        }
+        return result;
+    }
+
+    private <T> Map<String, List<GraphVertexEntity<T>>> partitionVertices(List<GraphVertexEntity<T>> graphVertexEntityList) {
+        Map<String, List<GraphVertexEntity<T>>> partitions = Maps.newLinkedHashMap();
+        for (GraphVertexEntity<T> graphVertexEntity : graphVertexEntityList) {
+            partitions.computeIfAbsent(graphVertexEntity.getGraphVertexType().getVertexName(),
+                    k -> Lists.newArrayList()).add(graphVertexEntity);
+        }
+        return partitions;
+    }
+
+    /**
+     * 同一标签的顶点转换为更新语句，partials 中的顶点只更新变化的属性
+     */
+    private <T> EntitySqlBuilder<GraphVertexEntity<T>> vertexSqlBuilder(Set<GraphVertexEntity<T>> partials) {
+        return entities -> {
+            List<GraphVertexEntity<T>> fullEntities = Lists.newArrayList();
+            List<GraphVertexEntity<T>> partialEntities = Lists.newArrayList();
+            entities.forEach(entity -> (partials.contains(entity) ? partialEntities : fullEntities).add(entity));
+            List<String> sqlList = Lists.newArrayList();
+            if (!fullEntities.isEmpty()) {
+                sqlList.addAll(this.graphUpdateVertexEngineFactory.build(fullEntities).getSqlList());
+            }
+            if (!partialEntities.isEmpty()) {
+                sqlList.addAll(new NebulaBatchVertexPartialUpdate<>(partialEntities).getSqlList());
+            }
+            return sqlList;
+        };
+    }
+
+    private <T> Map<String, List<String>> buildVertexSqlLists(List<GraphVertexEntity<T>> graphVertexEntityList) throws NebulaException {
+        Map<String, List<GraphVertexEntity<T>>> partitions = partitionVertices(graphVertexEntityList);
+        Map<String, List<String>> labelSqlLists = Maps.newLinkedHashMapWithExpectedSize(partitions.size());
+        for (Map.Entry<String, List<GraphVertexEntity<T>>> entry : partitions.entrySet()) {
+            VertexUpdateEngine build = this.graphUpdateVertexEngineFactory.build(entry.getValue());
+            labelSqlLists.put(entry.getKey(), build.getSqlList());
+        }
+        return labelSqlLists;
     }
 
     @Override
@@ -119,10 +344,100 @@ public class NebulaGraphMapper implements GraphMapper {
         return batchUpdateVertex(vertexEntities);
     }
 
-    private <S, T, E> int batchUpdateEdge(List<GraphEdgeEntity<S, T, E>> graphEdgeEntities) throws NebulaException, ClientServerIncompatibleException, AuthFailedException, NotValidConnectionException, IOErrorException {
-        EdgeUpdateEngine<S, T, E> build = this.graphUpdateEdgeEngineFactory.build(graphEdgeEntities);
-        List<String> sqlList = build.getSqlList();
-        return executeBatchUpdateSql(space, sqlList);
+    /**
+     * 按边类型分组后各自构造更新语句，分组之间并发写入
+     */
+    <S, T, E> int batchUpdateEdge(List<GraphEdgeEntity<S, T, E>> graphEdgeEntities) throws NebulaException, ClientServerIncompatibleException, AuthFailedException, NotValidConnectionException, IOErrorException {
+        NebulaChangeTracker tracker = this.changeTracker;
+        NebulaDeadLetterHandler handler = this.deadLetterHandler;
+        if (tracker == null) {
+            if (handler != null) {
+                executeBisecting(partitionEdges(graphEdgeEntities), edgeSqlBuilder(Collections.emptySet()), handler);
+                return 0;
+            }
+            return executeBatchUpdateSql(space, buildEdgeSqlLists(graphEdgeEntities));
+        }
+        List<GraphEdgeEntity<S, T, E>> untracked = Lists.newArrayList();
+        List<GraphEdgeEntity<S, T, E>> tracked = Lists.newArrayList();
+        Map<String, List<GraphEdgeEntity<S, T, E>>> partialPartitions = Maps.newLinkedHashMap();
+        for (GraphEdgeEntity<S, T, E> graphEdgeEntity : graphEdgeEntities) {
+            Map<String, Object> changed = tracker.diff(graphEdgeEntity);
+            if (changed == null) {
+                untracked.add(graphEdgeEntity);
+                continue;
+            }
+            tracked.add(graphEdgeEntity);
+            if (!changed.isEmpty()) {
+                partialPartitions.computeIfAbsent(graphEdgeEntity.getGraphEdgeType().getEdgeName(), k -> Lists.newArrayList())
+                        .add(new GraphEdgeEntity<>(graphEdgeEntity.getGraphEdgeType(), graphEdgeEntity.getSrcId(),
+                                graphEdgeEntity.getDstId(), graphEdgeEntity.getSrcVertexType(),
+                                graphEdgeEntity.getDstVertexType(), changed));
+            }
+        }
+        if (handler != null) {
+            Map<String, List<GraphEdgeEntity<S, T, E>>> labelEntities = partitionEdges(untracked);
+            Set<GraphEdgeEntity<S, T, E>> partials = Sets.newIdentityHashSet();
+            partialPartitions.forEach((label, partialEntities) -> {
+                partials.addAll(partialEntities);
+                labelEntities.computeIfAbsent(label, k -> Lists.newArrayList()).addAll(partialEntities);
+            });
+            boolean journaled = this.writeAheadJournal != null;
+            List<GraphEdgeEntity<S, T, E>> rejected = executeBisecting(labelEntities, edgeSqlBuilder(partials), handler);
+            if (!journaled) {
+                tracker.commit(withoutRejected(tracked, rejected));
+            }
+            return 0;
+        }
+        Map<String, List<String>> labelSqlLists = buildEdgeSqlLists(untracked);
+        for (Map.Entry<String, List<GraphEdgeEntity<S, T, E>>> entry : partialPartitions.entrySet()) {
+            List<String> sqlList = new NebulaBatchEdgesPartialUpdate<>(entry.getValue()).getSqlList();
+            labelSqlLists.computeIfAbsent(entry.getKey(), k -> Lists.newArrayList()).addAll(sqlList);
+        }
+        boolean journaled = this.writeAheadJournal != null;
+        int result = executeBatchUpdateSql(space, labelSqlLists);
+        // 写入预写日志时语句还没有到达 nebula，日志之后可能拒绝该记录，快照保持不变，下次保存仍会发送这些变化
+        if (!journaled) {
+            tracker.commit(tracked);
+        }
+        return result;
+    }
+
+    private <S, T, E> Map<String, List<GraphEdgeEntity<S, T, E>>> partitionEdges(List<GraphEdgeEntity<S, T, E>> graphEdgeEntities) {
+        Map<String, List<GraphEdgeEntity<S, T, E>>> partitions = Maps.newLinkedHashMap();
+        for (GraphEdgeEntity<S, T, E> graphEdgeEntity : graphEdgeEntities) {
+            partitions.computeIfAbsent(graphEdgeEntity.getGraphEdgeType().getEdgeName(),
+                    k -> Lists.newArrayList()).add(graphEdgeEntity);
+        }
+        return partitions;
+    }
+
+    /**
+     * 同一类型的边转换为更新语句，partials 中的边只更新变化的属性
+     */
+    private <S, T, E> EntitySqlBuilder<GraphEdgeEntity<S, T, E>> edgeSqlBuilder(Set<GraphEdgeEntity<S, T, E>> partials) {
+        return entities -> {
+            List<GraphEdgeEntity<S, T, E>> fullEntities = Lists.newArrayList();
+            List<GraphEdgeEntity<S, T, E>> partialEntities = Lists.newArrayList();
+            entities.forEach(entity -> (partials.contains(entity) ? partialEntities : fullEntities).add(entity));
+            List<String> sqlList = Lists.newArrayList();
+            if (!fullEntities.isEmpty()) {
+                sqlList.addAll(this.graphUpdateEdgeEngineFactory.build(fullEntities).getSqlList());
+            }
+            if (!partialEntities.isEmpty()) {
+                sqlList.addAll(new NebulaBatchEdgesPartialUpdate<>(partialEntities).getSqlList());
+            }
+            return sqlList;
+        };
+    }
+
+    private <S, T, E> Map<String, List<String>> buildEdgeSqlLists(List<GraphEdgeEntity<S, T, E>> graphEdgeEntities) throws NebulaException {
+        Map<String, List<GraphEdgeEntity<S, T, E>>> partitions = partitionEdges(graphEdgeEntities);
+        Map<String, List<String>> labelSqlLists = Maps.newLinkedHashMapWithExpectedSize(partitions.size());
+        for (Map.Entry<String, List<GraphEdgeEntity<S, T, E>>> entry : partitions.entrySet()) {
+            EdgeUpdateEngine<S, T, E> build = this.graphUpdateEdgeEngineFactory.build(entry.getValue());
+            labelSqlLists.put(entry.getKey(), build.getSqlList());
+        }
+        return labelSqlLists;
     }
 
     @Override
@@ -131,6 +446,9 @@ public class NebulaGraphMapper implements GraphMapper {
         if (CollectionUtils.isEmpty(entities)) {
             return 0;
         }
+        if (this.deduplicateVertices) {
+            return saveEdgeEntitiesWithDistinctVertex(entities, srcVertexEntityFunction, dstVertexEntityFunction);
+        }
         List<GraphEdgeEntity<S, T, E>> graphEdgeEntities = Lists.newArrayListWithExpectedSize(entities.size());
         List<GraphVertexEntity<S>> srcGraphVertexEntities = Lists.newArrayListWithExpectedSize(entities.size());
         List<GraphVertexEntity<T>> dstGraphVertexEntities = Lists.newArrayListWithExpectedSize(entities.size());
@@ -139,8 +457,8 @@ public class NebulaGraphMapper implements GraphMapper {
             log.debug("构造对象entity={},graphEdgeEntity={}", entity, graphEdgeEntity);
             S srcEntity = srcVertexEntityFunction.apply(graphEdgeEntity.getSrcId());
             T dstEntity = dstVertexEntityFunction.apply(graphEdgeEntity.getDstId());
-            GraphVertexEntity<S> srcVertexEntity = (GraphVertexEntity<S>) graphVertexEntityFactory.buildGraphVertexEntity(srcEntity);
-            GraphVertexEntity<T> dstVertexEntity = (GraphVertexEntity<T>) graphVertexEntityFactory.buildGraphVertexEntity(dstEntity);
+            GraphVertexEntity<S> srcVertexEntity = graphVertexEntityFactory.buildGraphVertexEntity(srcEntity);
+            GraphVertexEntity<T> dstVertexEntity = graphVertexEntityFactory.buildGraphVertexEntity(dstEntity);
             srcGraphVertexEntities.add(srcVertexEntity);
             dstGraphVertexEntities.add(dstVertexEntity);
             graphEdgeEntities.add(graphEdgeEntity);
@@ -148,6 +466,52 @@ public class NebulaGraphMapper implements GraphMapper {
         return batchUpdateEdgeWithVertex(graphEdgeEntities, srcGraphVertexEntities, dstGraphVertexEntities);
     }
 
+    /**
+     * 按顶点id去重保存边和顶点，每个顶点只交给第一个引用它的边类型分组写入
+     */
+    private <S, T, E> int saveEdgeEntitiesWithDistinctVertex(List<E> entities, Function<String, S> srcVertexEntityFunction,
+                                                             Function<String, T> dstVertexEntityFunction) throws NebulaException, ClientServerIncompatibleException, AuthFailedException, NotValidConnectionException, IOErrorException {
+        Map<String, GraphVertexEntity<S>> srcVertexById = Maps.newHashMap();
+        Map<String, GraphVertexEntity<T>> dstVertexById = Maps.newHashMap();
+        Set<String> distinctVertexKeys = Sets.newHashSet();
+        Map<String, List<GraphEdgeEntity<S, T, E>>> edgePartitions = Maps.newLinkedHashMap();
+        Map<String, List<GraphVertexEntity<S>>> srcPartitions = Maps.newHashMap();
+        Map<String, List<GraphVertexEntity<T>>> dstPartitions = Maps.newHashMap();
+        for (E entity : entities) {
+            GraphEdgeEntity<S, T, E> graphEdgeEntity = graphEdgeEntityFactory.buildGraphEdgeEntity(entity);
+            log.debug("构造对象entity={},graphEdgeEntity={}", entity, graphEdgeEntity);
+            String edgeName = graphEdgeEntity.getGraphEdgeType().getEdgeName();
+            edgePartitions.computeIfAbsent(edgeName, k -> Lists.newArrayList()).add(graphEdgeEntity);
+            GraphVertexEntity<S> srcVertexEntity = srcVertexById.get(graphEdgeEntity.getSrcId());
+            if (srcVertexEntity == null) {
+                S srcEntity = srcVertexEntityFunction.apply(graphEdgeEntity.getSrcId());
+                srcVertexEntity = graphVertexEntityFactory.buildGraphVertexEntity(srcEntity);
+                srcVertexById.put(graphEdgeEntity.getSrcId(), srcVertexEntity);
+                if (distinctVertexKeys.add(srcVertexEntity.getGraphVertexType().getVertexName() + ":" + srcVertexEntity.getId())) {
+                    srcPartitions.computeIfAbsent(edgeName, k -> Lists.newArrayList()).add(srcVertexEntity);
+                }
+            }
+            GraphVertexEntity<T> dstVertexEntity = dstVertexById.get(graphEdgeEntity.getDstId());
+            if (dstVertexEntity == null) {
+                T dstEntity = dstVertexEntityFunction.apply(graphEdgeEntity.getDstId());
+                dstVertexEntity = graphVertexEntityFactory.buildGraphVertexEntity(dstEntity);
+                dstVertexById.put(graphEdgeEntity.getDstId(), dstVertexEntity);
+                if (distinctVertexKeys.add(dstVertexEntity.getGraphVertexType().getVertexName() + ":" + dstVertexEntity.getId())) {
+                    dstPartitions.computeIfAbsent(edgeName, k -> Lists.newArrayList()).add(dstVertexEntity);
+                }
+            }
+        }
+        log.debug("保存边信息到nebula,边数={},去重后顶点数={}", entities.size(), distinctVertexKeys.size());
+        Map<String, List<String>> labelSqlLists = Maps.newLinkedHashMapWithExpectedSize(edgePartitions.size());
+        for (Map.Entry<String, List<GraphEdgeEntity<S, T, E>>> entry : edgePartitions.entrySet()) {
+            EdgeUpdateEngine<S, T, E> build = this.graphUpdateEdgeEngineFactory.build(entry.getValue(),
+                    srcPartitions.getOrDefault(entry.getKey(), Collections.emptyList()),
+                    dstPartitions.getOrDefault(entry.getKey(), Collections.emptyList()));
+            labelSqlLists.put(entry.getKey(), build.getSqlList());
+        }
+        return executeBatchUpdateSql(space, labelSqlLists);
+    }
+
     @Override
     public <S, T, E> int saveEdgeEntities(List<E> entities) throws NebulaException, ClientServerIncompatibleException, AuthFailedException, NotValidConnectionException, IOErrorException {
         if (CollectionUtils.isEmpty(entities)) {
@@ -162,40 +526,448 @@ public class NebulaGraphMapper implements GraphMapper {
         return batchUpdateEdge(graphEdgeEntities);
     }
 
+    @Override
+    public <T> long saveVertexStream(Stream<T> entities) throws NebulaException, ClientServerIncompatibleException, AuthFailedException, NotValidConnectionException, IOErrorException {
+        return saveVertexStream(entities.iterator());
+    }
+
+    @Override
+    public <T> long saveVertexStream(Iterator<T> entities) throws NebulaException, ClientServerIncompatibleException, AuthFailedException, NotValidConnectionException, IOErrorException {
+        return saveStream(entities, chunk -> {
+            List<GraphVertexEntity<T>> vertexEntities = Lists.newArrayListWithExpectedSize(chunk.size());
+            for (T entity : chunk) {
+                vertexEntities.add(graphVertexEntityFactory.buildGraphVertexEntity(entity));
+            }
+            return buildVertexSqlLists(vertexEntities);
+        });
+    }
+
+    @Override
+    public <E> long saveEdgeStream(Stream<E> entities) throws NebulaException, ClientServerIncompatibleException, AuthFailedException, NotValidConnectionException, IOErrorException {
+        return saveEdgeStream(entities.iterator());
+    }
+
+    @Override
+    public <E> long saveEdgeStream(Iterator<E> entities) throws NebulaException, ClientServerIncompatibleException, AuthFailedException, NotValidConnectionException, IOErrorException {
+        return saveStream(entities, chunk -> {
+            List<GraphEdgeEntity<Object, Object, E>> edgeEntities = Lists.newArrayListWithExpectedSize(chunk.size());
+            for (E entity : chunk) {
+                edgeEntities.add(graphEdgeEntityFactory.buildGraphEdgeEntity(entity));
+            }
+            return buildEdgeSqlLists(edgeEntities);
+        });
+    }
+
+    /**
+     * 流式保存：调用线程只负责按 streamChunkSize 收集实体，实体转换、语句生成和执行都在批次任务中完成，
+     * 使用并发分发器时在途批次数达到上限后收集线程阻塞，内存占用与数据总量无关
+     *
+     * @param entities     实体迭代器
+     * @param chunkBuilder 把一批实体转换为 标签名 -> sql列表
+     * @return 保存的实体数
+     */
+    private <R> long saveStream(Iterator<R> entities, ChunkSqlBuilder<R> chunkBuilder) throws NebulaException, ClientServerIncompatibleException, AuthFailedException, NotValidConnectionException, IOErrorException {
+        CheckThrower.ifFalseThrow(this.streamChunkSize >= 1, "StreamChunkSize must greater than zero");
+        // 使用预写日志时按顺序追加，不并发分发
+        NebulaBatchDispatcher.Dispatch dispatch = this.batchDispatcher == null || this.writeAheadJournal != null
+                ? null : this.batchDispatcher.open();
+        long count = 0;
+        while (entities.hasNext()) {
+            List<R> chunk = Lists.newArrayListWithExpectedSize(this.streamChunkSize);
+            while (entities.hasNext() && chunk.size() < this.streamChunkSize) {
+                chunk.add(entities.next());
+            }
+            if (dispatch == null) {
+                executeBatchUpdateSql(space, chunkBuilder.build(chunk));
+            } else if (!dispatch.submit(() -> {
+                // 已经在分发线程中执行，批次内不再二次分发，避免占满线程池后互相等待
+                Map<String, List<String>> labelSqlLists = chunkBuilder.build(chunk);
+                executeBatchUpdateSqlSerially(space, labelSqlLists);
+                return labelSqlLists.values().stream().mapToInt(List::size).sum();
+            })) {
+                break;
+            }
+            count += chunk.size();
+        }
+        if (dispatch != null) {
+            NebulaBatchDispatcher.BatchDispatchResult result = dispatch.await();
+            log.debug("流式保存到nebula完成,size={},result={}", count, result);
+        }
+        return count;
+    }
+
+    @Override
+    public <T> int deleteVertices(Class<T> vertexClazz, Collection<String> vertexIds) throws NebulaException, ClientServerIncompatibleException, AuthFailedException, NotValidConnectionException, IOErrorException {
+        return deleteVertices(vertexClazz, vertexIds, "");
+    }
+
+    @Override
+    public <T> int deleteVerticesWithEdges(Class<T> vertexClazz, Collection<String> vertexIds) throws NebulaException, ClientServerIncompatibleException, AuthFailedException, NotValidConnectionException, IOErrorException {
+        return deleteVertices(vertexClazz, vertexIds, WITH_EDGE);
+    }
+
+    private <T> int deleteVertices(Class<T> vertexClazz, Collection<String> vertexIds, String sqlSuffix) throws NebulaException, ClientServerIncompatibleException, AuthFailedException, NotValidConnectionException, IOErrorException {
+        if (CollectionUtils.isEmpty(vertexIds)) {
+            return 0;
+        }
+        CheckThrower.ifFalseThrow(this.deleteIdsPerStatement >= 1, "DeleteIdsPerStatement must greater than zero");
+        GraphVertexType<T> graphVertexType = graphTypeManager.getGraphVertexType(vertexClazz);
+        CheckThrower.ifTrueThrow(graphVertexType == null, ErrorEnum.NOT_SUPPORT_VERTEX_TAG);
+        List<String> distinctIds = Lists.newArrayList(Sets.newLinkedHashSet(vertexIds));
+        List<String> sqlList = Lists.newArrayListWithExpectedSize(distinctIds.size() / this.deleteIdsPerStatement + 1);
+        StringBuilder builder = new StringBuilder(256);
+        for (List<String> ids : Lists.partition(distinctIds, this.deleteIdsPerStatement)) {
+            builder.setLength(0);
+            builder.append(DELETE_VERTEX_SQL);
+            for (int i = 0; i < ids.size(); i++) {
+                if (i > 0) {
+                    builder.append(',');
+                }
+                GraphHelper.appendQueryId(builder, graphVertexType, ids.get(i));
+            }
+            sqlList.add(builder.append(sqlSuffix).toString());
+        }
+        log.debug("删除nebula顶点,tag={},size={}", graphVertexType.getVertexName(), distinctIds.size());
+        return executeBatchUpdateSql(space, graphVertexType.getVertexName(), sqlList);
+    }
+
+    @Override
+    public <E> int deleteEdges(List<E> entities) throws NebulaException, ClientServerIncompatibleException, AuthFailedException, NotValidConnectionException, IOErrorException {
+        if (CollectionUtils.isEmpty(entities)) {
+            return 0;
+        }
+        CheckThrower.ifFalseThrow(this.deleteIdsPerStatement >= 1, "DeleteIdsPerStatement must greater than zero");
+        Map<String, Set<String>> partitions = Maps.newLinkedHashMap();
+        for (E entity : entities) {
+            GraphEdgeEntity<Object, Object, E> graphEdgeEntity = graphEdgeEntityFactory.buildGraphEdgeEntity(entity);
+            GraphEdgeType<Object, Object, E> graphEdgeType = graphEdgeEntity.getGraphEdgeType();
+            String edge = GraphHelper.getQuerySrcId(graphEdgeType, graphEdgeEntity.getSrcId()) + "->"
+                    + GraphHelper.getQueryDstId(graphEdgeType, graphEdgeEntity.getDstId());
+            partitions.computeIfAbsent(graphEdgeType.getEdgeName(), k -> Sets.newLinkedHashSet()).add(edge);
+        }
+        Map<String, List<String>> labelSqlLists = Maps.newLinkedHashMapWithExpectedSize(partitions.size());
+        for (Map.Entry<String, Set<String>> entry : partitions.entrySet()) {
+            List<String> sqlList = Lists.newArrayList();
+            StringBuilder builder = new StringBuilder(256);
+            for (List<String> edges : Lists.partition(Lists.newArrayList(entry.getValue()), this.deleteIdsPerStatement)) {
+                builder.setLength(0);
+                builder.append(DELETE_EDGE_SQL).append(entry.getKey()).append(' ');
+                for (int i = 0; i < edges.size(); i++) {
+                    if (i > 0) {
+                        builder.append(',');
+                    }
+                    builder.append(edges.get(i));
+                }
+                sqlList.add(builder.toString());
+            }
+            labelSqlLists.put(entry.getKey(), sqlList);
+        }
+        log.debug("删除nebula边,size={}", entities.size());
+        return executeBatchUpdateSql(space, labelSqlLists);
+    }
+
+    /**
+     * 按边类型分组，每组的边和对应的起点、终点一起构造更新语句，分组之间并发写入
+     */
     private <S, T, E> int batchUpdateEdgeWithVertex(List<GraphEdgeEntity<S, T, E>> graphEdgeEntities,
                                                     List<GraphVertexEntity<S>> srcGraphVertexEntities,
                                                     List<GraphVertexEntity<T>> graphVertexEntities) throws NebulaException, ClientServerIncompatibleException, AuthFailedException, NotValidConnectionException, IOErrorException {
-        EdgeUpdateEngine<S, T, E> build = this.graphUpdateEdgeEngineFactory.build(graphEdgeEntities,
-                srcGraphVertexEntities, graphVertexEntities);
-        List<String> sqlList = build.getSqlList();
-        return executeBatchUpdateSql(space, sqlList);
+        Map<String, List<Integer>> partitions = Maps.newLinkedHashMap();
+        for (int i = 0; i < graphEdgeEntities.size(); i++) {
+            partitions.computeIfAbsent(graphEdgeEntities.get(i).getGraphEdgeType().getEdgeName(),
+                    k -> Lists.newArrayList()).add(i);
+        }
+        Map<String, List<String>> labelSqlLists = Maps.newLinkedHashMapWithExpectedSize(partitions.size());
+        for (Map.Entry<String, List<Integer>> entry : partitions.entrySet()) {
+            List<Integer> indexes = entry.getValue();
+            EdgeUpdateEngine<S, T, E> build;
+            if (partitions.size() == 1) {
+                build = this.graphUpdateEdgeEngineFactory.build(graphEdgeEntities, srcGraphVertexEntities, graphVertexEntities);
+            } else {
+                build = this.graphUpdateEdgeEngineFactory.build(
+                        indexes.stream().map(graphEdgeEntities::get).collect(Collectors.toList()),
+                        indexes.stream().map(srcGraphVertexEntities::get).collect(Collectors.toList()),
+                        indexes.stream().map(graphVertexEntities::get).collect(Collectors.toList()));
+            }
+            labelSqlLists.put(entry.getKey(), build.getSqlList());
+        }
+        return executeBatchUpdateSql(space, labelSqlLists);
+    }
+
+    /**
+     * 按实体批次保存，批次失败时二分拆分重新生成语句执行，成功的一半正常提交，
+     * 拆分到单个实体仍然失败时交给死信回调；每个出错的实体只多出 O(log n) 次请求。
+     * 版本冲突和瞬时错误与实体内容无关，不拆分，直接抛出
+     *
+     * @param labelEntities 标签名 -> 实体列表
+     * @param sqlBuilder    把同一标签的一批实体转换为更新语句
+     * @param handler       死信回调
+     * @return 被拒绝的实体
+     */
+    private <G extends GraphPropertyEntity> List<G> executeBisecting(Map<String, List<G>> labelEntities, EntitySqlBuilder<G> sqlBuilder,
+                                                                     NebulaDeadLetterHandler handler) throws NebulaException, ClientServerIncompatibleException, AuthFailedException, NotValidConnectionException, IOErrorException {
+        NebulaWriteAheadJournal journal = this.writeAheadJournal;
+        if (journal != null) {
+            // 写入 nebula 是异步的，无法在调用时定位出错的实体，由日志的 rejectedRecordHandler 处理
+            Map<String, List<String>> labelSqlLists = Maps.newLinkedHashMapWithExpectedSize(labelEntities.size());
+            for (Map.Entry<String, List<G>> entry : labelEntities.entrySet()) {
+                labelSqlLists.put(entry.getKey(), sqlBuilder.build(entry.getValue()));
+            }
+            journal.append(space, labelSqlLists);
+            return Collections.emptyList();
+        }
+        List<G> rejected = Collections.synchronizedList(Lists.newArrayList());
+        NebulaBatchDispatcher.Dispatch dispatch = this.batchDispatcher == null ? null : this.batchDispatcher.open();
+        outer:
+        for (Map.Entry<String, List<G>> entry : labelEntities.entrySet()) {
+            String label = entry.getKey();
+            for (List<G> entities : Lists.partition(entry.getValue(), BATCH_SIZE)) {
+                if (dispatch == null) {
+                    executeBisecting(label, entities, sqlBuilder, handler, rejected);
+                } else if (!dispatch.submit(() -> {
+                    executeBisecting(label, entities, sqlBuilder, handler, rejected);
+                    return entities.size();
+                })) {
+                    break outer;
+                }
+            }
+        }
+        if (dispatch != null) {
+            NebulaBatchDispatcher.BatchDispatchResult result = dispatch.await();
+            log.debug("二分批量更新nebula完成,labels={},result={}", labelEntities.keySet(), result);
+        }
+        if (!rejected.isEmpty()) {
+            log.warn("批量更新nebula完成,拒绝实体数={}", rejected.size());
+        }
+        return rejected;
+    }
+
+    private <G extends GraphPropertyEntity> void executeBisecting(String label, List<G> entities, EntitySqlBuilder<G> sqlBuilder,
+                                                                  NebulaDeadLetterHandler handler, List<G> rejected) throws NebulaException, ClientServerIncompatibleException, AuthFailedException, NotValidConnectionException, IOErrorException {
+        try {
+            executeBatchUpdateSqlSerially(space, Collections.singletonMap(label, sqlBuilder.build(entities)));
+        } catch (NebulaExecuteException e) {
+            if (e instanceof NebulaVersionConflictException || NebulaErrorClassifier.isRetryable(e)) {
+                throw e;
+            }
+            if (entities.size() == 1) {
+                log.warn("nebula拒绝写入实体,label={},entity={}", label, entities.get(0), e);
+                rejected.add(entities.get(0));
+                handler.onRejected(entities.get(0), e);
+                return;
+            }
+            int middle = entities.size() / 2;
+            log.debug("批量更新nebula失败,二分重试,label={},size={}", label, entities.size());
+            executeBisecting(label, entities.subList(0, middle), sqlBuilder, handler, rejected);
+            executeBisecting(label, entities.subList(middle, entities.size()), sqlBuilder, handler, rejected);
+        }
+    }
+
+    /**
+     * 去掉被拒绝的实体，被拒绝实体的快照保持不变
+     */
+    private static <G extends GraphPropertyEntity> List<G> withoutRejected(List<G> tracked, List<? extends GraphPropertyEntity> rejected) {
+        if (rejected.isEmpty()) {
+            return tracked;
+        }
+        Set<List<String>> rejectedKeys = rejected.stream().map(NebulaChangeTracker::key).collect(Collectors.toSet());
+        return tracked.stream().filter(entity -> !rejectedKeys.contains(NebulaChangeTracker.key(entity)))
+                .collect(Collectors.toList());
     }
 
     @Override
     public int executeBatchUpdateSql(String space, List<String> sqlList) throws NebulaException, ClientServerIncompatibleException, AuthFailedException, NotValidConnectionException, IOErrorException {
-        for (int i = 0; i < sqlList.size(); i += BATCH_SIZE) {
-            List<String> sqls = sqlList.subList(i, Math.min(sqlList.size(), i + BATCH_SIZE));
-            String sql = sqls.stream().collect(Collectors.joining(";"));
-            NebulaSessionWrapper session = null;
-            try {
-                session = nebulaPoolSessionManager.getSession();
-                int execute = session.execute(String.format(SQL, space, sql));
-                CheckThrower.ifTrueThrow(execute != 0, ErrorEnum.UPDATE_NEBULA_EROR);
-            } finally {
-                if (session != null) {
-                    session.release();
+        return executeBatchUpdateSql(space, NebulaAdaptiveBatchController.DEFAULT_LABEL, sqlList);
+    }
+
+    int executeBatchUpdateSql(String space, String label, List<String> sqlList) throws NebulaException, ClientServerIncompatibleException, AuthFailedException, NotValidConnectionException, IOErrorException {
+        return executeBatchUpdateSql(space, Collections.singletonMap(label, sqlList));
+    }
+
+    /**
+     * 分批执行多个标签的更新语句，批次边切分边执行，自适应控制器可以根据前面批次的表现调整后面批次的大小；
+     * 串行执行时按标签顺序执行，并发执行时各标签的批次轮流提交，慢的标签不会阻塞其他标签
+     *
+     * @param space         图空间
+     * @param labelSqlLists 标签名 -> sql列表
+     * @return 更新状态码
+     */
+    int executeBatchUpdateSql(String space, Map<String, List<String>> labelSqlLists) throws NebulaException, ClientServerIncompatibleException, AuthFailedException, NotValidConnectionException, IOErrorException {
+        NebulaWriteAheadJournal journal = this.writeAheadJournal;
+        if (journal != null) {
+            journal.append(space, labelSqlLists);
+            return 0;
+        }
+        return executeBatchUpdateSqlDirectly(space, labelSqlLists);
+    }
+
+    /**
+     * 不经过预写日志直接写入 nebula
+     */
+    int executeBatchUpdateSqlDirectly(String space, Map<String, List<String>> labelSqlLists) throws NebulaException, ClientServerIncompatibleException, AuthFailedException, NotValidConnectionException, IOErrorException {
+        if (this.batchDispatcher == null) {
+            executeBatchUpdateSqlSerially(space, labelSqlLists);
+            return 0;
+        }
+        List<String> labels = Lists.newArrayList(labelSqlLists.keySet());
+        int[] cursors = new int[labels.size()];
+        NebulaBatchDispatcher.Dispatch dispatch = this.batchDispatcher.open();
+        boolean remaining = true;
+        while (remaining && !dispatch.isFailed()) {
+            remaining = false;
+            for (int i = 0; i < labels.size(); i++) {
+                String label = labels.get(i);
+                List<String> sqlList = labelSqlLists.get(label);
+                if (cursors[i] >= sqlList.size()) {
+                    continue;
+                }
+                int to = nextChunkEnd(label, sqlList, cursors[i]);
+                List<String> sqls = sqlList.subList(cursors[i], to);
+                cursors[i] = to;
+                remaining |= to < sqlList.size();
+                if (!dispatch.submit(() -> {
+                    executeBatchChunk(space, label, sqls);
+                    return sqls.size();
+                })) {
+                    break;
                 }
             }
         }
+        NebulaBatchDispatcher.BatchDispatchResult result = dispatch.await();
+        log.debug("并发批量更新nebula完成,labels={},result={}", labels, result);
         return 0;
     }
 
-    @Override
-    public int executeUpdateSql(String space, String sql) throws NebulaException, NotValidConnectionException, IOErrorException, ClientServerIncompatibleException, AuthFailedException {
+    private void executeBatchUpdateSqlSerially(String space, Map<String, List<String>> labelSqlLists) throws NebulaException, ClientServerIncompatibleException, AuthFailedException, NotValidConnectionException, IOErrorException {
+        for (Map.Entry<String, List<String>> entry : labelSqlLists.entrySet()) {
+            String label = entry.getKey();
+            List<String> sqlList = entry.getValue();
+            int from = 0;
+            while (from < sqlList.size()) {
+                int to = nextChunkEnd(label, sqlList, from);
+                executeBatchChunk(space, label, sqlList.subList(from, to));
+                from = to;
+            }
+        }
+    }
+
+    /**
+     * 计算下一个批次的结束位置，每个批次至少包含一条语句
+     */
+    private int nextChunkEnd(String label, List<String> sqlList, int from) {
+        NebulaAdaptiveBatchController controller = this.adaptiveBatchController;
+        if (controller == null) {
+            return Math.min(sqlList.size(), from + BATCH_SIZE);
+        }
+        int budget = controller.getByteBudget(label);
+        int bytes = NebulaAdaptiveBatchController.utf8Length(sqlList.get(from));
+        int to = from + 1;
+        while (to < sqlList.size()) {
+            bytes += NebulaAdaptiveBatchController.utf8Length(sqlList.get(to)) + 1;
+            if (bytes > budget) {
+                break;
+            }
+            to++;
+        }
+        return to;
+    }
+
+    /**
+     * 执行一个批次，批次因版本冲突失败且配置了冲突重试时，逐条重放批次中的语句，只重试再次冲突的语句；
+     * 无法知道批次中哪些语句已经成功，只有全部语句都幂等(mapper 生成的 UPSERT、只赋常量值的 UPDATE 等)
+     * 或者批次只有一条语句时才重放，调用方传入的 SET n = n + 1 之类的语句直接抛出冲突
+     */
+    private void executeBatchChunk(String space, String label, List<String> sqls) throws NebulaException, ClientServerIncompatibleException, AuthFailedException, NotValidConnectionException, IOErrorException {
+        try {
+            executeChunk(space, label, sqls);
+        } catch (NebulaVersionConflictException e) {
+            NebulaConflictRetrier retrier = this.conflictRetrier;
+            if (retrier == null || !isReplayable(sqls)) {
+                throw e;
+            }
+            retrier.onBatchConflict(label);
+            log.warn("批量更新nebula版本冲突,逐条重放,label={},size={}", label, sqls.size());
+            for (String sql : sqls) {
+                retrier.execute(label, () -> executeChunk(space, label, Collections.singletonList(sql)));
+            }
+        }
+    }
+
+    private static boolean isReplayable(List<String> sqls) {
+        if (sqls.size() == 1) {
+            return true;
+        }
+        for (String sql : sqls) {
+            if (!NebulaErrorClassifier.isIdempotent(sql)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void executeChunk(String space, String label, List<String> sqls) throws NebulaException, ClientServerIncompatibleException, AuthFailedException, NotValidConnectionException, IOErrorException {
+        NebulaAdaptiveBatchController controller = this.adaptiveBatchController;
+        long startTime = System.currentTimeMillis();
+        boolean success = false;
+        try {
+            int execute = executeWithSession(space, sqls, NebulaSessionWrapper::execute);
+            CheckThrower.ifTrueThrow(execute != 0, ErrorEnum.UPDATE_NEBULA_EROR);
+            success = true;
+        } finally {
+            if (controller != null) {
+                if (success) {
+                    int bytes = sqls.size() - 1;
+                    for (String sql : sqls) {
+                        bytes += NebulaAdaptiveBatchController.utf8Length(sql);
+                    }
+                    controller.onSuccess(label, bytes, System.currentTimeMillis() - startTime);
+                } else {
+                    controller.onFailure(label);
+                }
+            }
+        }
+    }
+
+    /**
+     * 按语句总长度预先分配容量，一次拼出完整语句，不经过格式化和中间字符串
+     */
+    private static String buildStatement(String space, List<String> sqls) {
+        int length = SQL_PREFIX.length() + String.valueOf(space).length() + SQL_SPACE_SEPARATOR.length() + sqls.size();
+        for (String sql : sqls) {
+            length += sql.length();
+        }
+        StringBuilder builder = new StringBuilder(length);
+        builder.append(SQL_PREFIX).append(space).append(SQL_SPACE_SEPARATOR);
+        for (int i = 0; i < sqls.size(); i++) {
+            if (i > 0) {
+                builder.append(';');
+            }
+            builder.append(sqls.get(i));
+        }
+        return builder.append(';').toString();
+    }
+
+    private <R> R executeWithSession(String space, String sql, SessionCall<R> call) throws NebulaException, ClientServerIncompatibleException, AuthFailedException, NotValidConnectionException, IOErrorException {
+        return executeWithSession(space, Collections.singletonList(sql), call);
+    }
+
+    /**
+     * 从连接池获取 session 执行语句，配置了瞬时错误重试时，幂等语句失败后换一个 session 重试
+     */
+    private <R> R executeWithSession(String space, List<String> sqls, SessionCall<R> call) throws NebulaException, ClientServerIncompatibleException, AuthFailedException, NotValidConnectionException, IOErrorException {
+        String statement = buildStatement(space, sqls);
+        NebulaTransientRetrier retrier = this.transientRetrier;
+        if (retrier == null) {
+            return executeOnSession(statement, call);
+        }
+        return retrier.execute(sqls, () -> executeOnSession(statement, call));
+    }
+
+    private <R> R executeOnSession(String statement, SessionCall<R> call) throws NebulaException, ClientServerIncompatibleException, AuthFailedException, NotValidConnectionException, IOErrorException {
         NebulaSessionWrapper session = null;
         try {
             session = nebulaPoolSessionManager.getSession();
-            return session.execute(String.format(SQL, space, sql));
+            return call.call(session, statement);
         } finally {
             if (session != null) {
                 session.release();
@@ -203,6 +975,11 @@ public class NebulaGraphMapper implements GraphMapper {
         }
     }
 
+    @Override
+    public int executeUpdateSql(String space, String sql) throws NebulaException, NotValidConnectionException, IOErrorException, ClientServerIncompatibleException, AuthFailedException {
+        return executeWithSession(space, sql, NebulaSessionWrapper::execute);
+    }
+
     @Override
     public int executeUpdateSql(String sql) throws NebulaException, NotValidConnectionException, IOErrorException, ClientServerIncompatibleException, AuthFailedException {
         return executeUpdateSql(this.space, sql);
@@ -215,66 +992,210 @@ public class NebulaGraphMapper implements GraphMapper {
 
     @Override
     public QueryResult executeQuerySql(String space, String sql) throws NebulaException, ClientServerIncompatibleException, AuthFailedException, NotValidConnectionException, IOErrorException {
-        NebulaSessionWrapper session = null;
-        try {
-            session = nebulaPoolSessionManager.getSession();
-            return session.executeQueryDefined(String.format(SQL, space, sql));
-        } finally {
-            if (session != null) {
-                session.release();
-            }
+        return executeWithSession(space, sql, NebulaSessionWrapper::executeQueryDefined);
+    }
+
+    /**
+     * 带绑定参数执行查询，相同结构的查询生成相同的语句
+     *
+     * @param space      图空间
+     * @param sql        语句，参数以 $参数名 引用
+     * @param parameters 参数名 -> 参数值，为空时按普通查询执行
+     * @return 查询结果
+     */
+    public QueryResult executeQuerySql(String space, String sql, Map<String, Object> parameters) throws NebulaException, ClientServerIncompatibleException, AuthFailedException, NotValidConnectionException, IOErrorException {
+        if (parameters == null || parameters.isEmpty()) {
+            return executeQuerySql(space, sql);
         }
+        return executeWithSession(space, sql, (session, statement) -> session.executeQueryDefined(statement, parameters));
     }
 
     @Override
     public <T> List<T> executeQuerySql(String sql, Class<T> clazz) throws
             NebulaException, IllegalAccessException, InstantiationException, UnsupportedEncodingException, ClientServerIncompatibleException, AuthFailedException, NotValidConnectionException, IOErrorException {
-        QueryResult result = executeQuerySql(sql);
+        return toEntities(executeQuerySql(sql), clazz);
+    }
+
+    private <T> List<T> toEntities(QueryResult result, Class<T> clazz) throws IllegalAccessException, InstantiationException, UnsupportedEncodingException {
         GraphLabel graphLabel = graphTypeManager.getGraphLabel(clazz);
-        return result.getEntities(graphLabel, clazz);
+        List<T> entities = result.getEntities(graphLabel, clazz);
+        NebulaChangeTracker tracker = this.changeTracker;
+        if (tracker != null) {
+            tracker.snapshotFetched(entities);
+        }
+        return entities;
     }
 
     @Override
     public QueryResult executeQuery(GraphQuery query) throws NebulaException, ClientServerIncompatibleException, AuthFailedException, NotValidConnectionException, IOErrorException {
-        return executeQuerySql(query.buildSql());
+        return executeQuery(this.space, query);
     }
 
     @Override
     public QueryResult executeQuery(String space, GraphQuery query) throws NebulaException, ClientServerIncompatibleException, AuthFailedException, NotValidConnectionException, IOErrorException {
-        return executeQuerySql(space, query.buildSql());
+        return executeQuerySql(space, query.buildSql(), query.getParameters());
     }
 
     @Override
     public <T> List<T> executeQuery(GraphQuery query, Class<T> clazz) throws
             NebulaException, IllegalAccessException, InstantiationException, UnsupportedEncodingException, ClientServerIncompatibleException, AuthFailedException, NotValidConnectionException, IOErrorException {
-        return executeQuerySql(query.buildSql(), clazz);
+        return toEntities(executeQuery(query), clazz);
+    }
+
+    /**
+     * @return 绑定当前 mapper 类型管理器的不可变顶点查询，可在线程间共享并派生出多个查询
+     */
+    public NebulaImmutableVertexQuery vertexQuery() {
+        return NebulaImmutableVertexQuery.build(graphTypeManager);
+    }
+
+    /**
+     * @return 绑定当前 mapper 类型管理器的不可变边查询，可在线程间共享并派生出多个查询
+     */
+    public NebulaImmutableEdgeQuery edgeQuery() {
+        return NebulaImmutableEdgeQuery.build(graphTypeManager);
+    }
+
+    /**
+     * @return 绑定当前 mapper 类型管理器的条件
+     */
+    public NebulaCondition condition() {
+        return NebulaCondition.build(graphTypeManager);
+    }
+
+    private NebulaQueryTemplate getQueryTemplate(Class<?> clazz, NebulaQueryTemplate.Operation operation) {
+        return queryTemplates.get(operation).computeIfAbsent(clazz,
+                key -> NebulaQueryTemplate.compile(graphTypeManager, key, operation));
     }
 
     @Override
     public <T> List<T> goOutEdge(Class<T> edgeClazz, String... vertexIds) throws
             UnsupportedEncodingException, IllegalAccessException, InstantiationException, ClientServerIncompatibleException, AuthFailedException, NotValidConnectionException, IOErrorException {
-        GraphEdgeType<Object, Object, T> graphEdgeType = graphTypeManager.getGraphEdgeType(edgeClazz);
-        String[] fieldsName = CollectionUtils.toStringArray(graphEdgeType.getAllFields());
-        EdgeQuery query = NebulaEdgeQuery.build().goFrom(edgeClazz, vertexIds).yield(edgeClazz, fieldsName);
-        return executeQuery(query, edgeClazz);
+        return executeChunkedQuery(edgeClazz, NebulaQueryTemplate.Operation.GO_OUT, vertexIds);
     }
 
     @Override
     public <T> List<T> goReverseEdge(Class<T> edgeClazz, String... vertexIds) throws
             UnsupportedEncodingException, IllegalAccessException, InstantiationException, ClientServerIncompatibleException, AuthFailedException, NotValidConnectionException, IOErrorException {
-        GraphEdgeType<Object, Object, T> graphEdgeType = graphTypeManager.getGraphEdgeType(edgeClazz);
-        String[] fieldsName = CollectionUtils.toStringArray(graphEdgeType.getAllFields());
-        EdgeQuery query = NebulaEdgeQuery.build().goFrom(edgeClazz, EdgeDirectionEnum.REVERSELY, vertexIds).yield(edgeClazz, fieldsName);
-        return executeQuery(query, edgeClazz);
+        return executeChunkedQuery(edgeClazz, NebulaQueryTemplate.Operation.GO_REVERSE, vertexIds);
     }
 
     @Override
     public <T> List<T> fetchVertexTag(Class<T> vertexClazz, String... vertexIds) throws
             UnsupportedEncodingException, IllegalAccessException, InstantiationException, ClientServerIncompatibleException, AuthFailedException, NotValidConnectionException, IOErrorException {
-        GraphVertexType<T> graphVertexType = graphTypeManager.getGraphVertexType(vertexClazz);
-        String[] fieldsName = CollectionUtils.toStringArray(graphVertexType.getAllFields());
-        VertexQuery query = NebulaVertexQuery.build().fetchPropOn(vertexClazz, vertexIds).yield(vertexClazz, fieldsName);
-        return executeQuery(query, vertexClazz);
+        return executeChunkedQuery(vertexClazz, NebulaQueryTemplate.Operation.FETCH, vertexIds);
+    }
+
+    /**
+     * 顶点id去重后按 fetchIdsPerStatement 拆分查询，任一分片失败时其余分片照常执行，
+     * 全部失败时抛出第一个分片的异常，部分失败时抛出带有已合并结果的 NebulaPartialResultException
+     */
+    private <T> List<T> executeChunkedQuery(Class<T> clazz, NebulaQueryTemplate.Operation operation, String... vertexIds) throws
+            UnsupportedEncodingException, IllegalAccessException, InstantiationException, ClientServerIncompatibleException, AuthFailedException, NotValidConnectionException, IOErrorException {
+        CheckThrower.ifFalseThrow(this.fetchIdsPerStatement >= 1, "FetchIdsPerStatement must greater than zero");
+        NebulaQueryTemplate template = getQueryTemplate(clazz, operation);
+        List<String> distinctIds = Lists.newArrayList(Sets.newLinkedHashSet(Arrays.asList(vertexIds)));
+        if (distinctIds.size() <= this.fetchIdsPerStatement) {
+            return executeQuerySql(template.render(CollectionUtils.toStringArray(distinctIds)), clazz);
+        }
+        List<List<String>> chunks = Lists.partition(distinctIds, this.fetchIdsPerStatement);
+        QueryResult[] results = new QueryResult[chunks.size()];
+        Exception[] errors = new Exception[chunks.size()];
+        NebulaBatchDispatcher dispatcher = this.batchDispatcher;
+        NebulaBatchDispatcher.Dispatch dispatch = dispatcher == null ? null : dispatcher.open();
+        for (int i = 0; i < chunks.size(); i++) {
+            int index = i;
+            String sql = template.render(CollectionUtils.toStringArray(chunks.get(i)));
+            NebulaBatchDispatcher.BatchTask task = () -> {
+                try {
+                    results[index] = executeQuerySql(sql);
+                } catch (Exception e) {
+                    errors[index] = e;
+                }
+                return 1;
+            };
+            if (dispatch == null) {
+                task.execute();
+            } else {
+                dispatch.submit(task);
+            }
+        }
+        if (dispatch != null) {
+            dispatch.await();
+        }
+        QueryResult merged = new QueryResult();
+        List<String> failedVertexIds = Lists.newArrayList();
+        List<Throwable> causes = Lists.newArrayList();
+        for (int i = 0; i < chunks.size(); i++) {
+            if (errors[i] == null) {
+                merged.mergeQueryResult(results[i]);
+            } else {
+                failedVertexIds.addAll(chunks.get(i));
+                causes.add(errors[i]);
+            }
+        }
+        if (causes.size() == chunks.size()) {
+            for (int i = 1; i < errors.length; i++) {
+                if (errors[i] != errors[0]) {
+                    errors[0].addSuppressed(errors[i]);
+                }
+            }
+            rethrowQueryError(errors[0]);
+        }
+        List<T> entities = toEntities(merged, clazz);
+        if (!causes.isEmpty()) {
+            log.error("分片查询nebula部分失败,分片数={},失败分片数={},失败的顶点id数={}", chunks.size(), causes.size(),
+                    failedVertexIds.size());
+            throw new NebulaPartialResultException(merged, entities, failedVertexIds, causes);
+        }
+        return entities;
+    }
+
+    private static void rethrowQueryError(Exception exception) throws ClientServerIncompatibleException, AuthFailedException,
+            NotValidConnectionException, IOErrorException {
+        if (exception instanceof RuntimeException) {
+            throw (RuntimeException) exception;
+        }
+        if (exception instanceof ClientServerIncompatibleException) {
+            throw (ClientServerIncompatibleException) exception;
+        }
+        if (exception instanceof AuthFailedException) {
+            throw (AuthFailedException) exception;
+        }
+        if (exception instanceof NotValidConnectionException) {
+            throw (NotValidConnectionException) exception;
+        }
+        if (exception instanceof IOErrorException) {
+            throw (IOErrorException) exception;
+        }
+        throw new NebulaException(exception);
+    }
+
+    /**
+     * 把一批实体转换为按标签分组的更新语句
+     */
+    private interface ChunkSqlBuilder<R> {
+
+        Map<String, List<String>> build(List<R> chunk) throws NebulaException;
+
+    }
+
+    /**
+     * 把同一标签的一批实体转换为更新语句
+     */
+    private interface EntitySqlBuilder<G> {
+
+        List<String> build(List<G> entities) throws NebulaException;
+
+    }
+
+    /**
+     * 在一个 session 上执行语句
+     */
+    private interface SessionCall<R> {
+
+        R call(NebulaSessionWrapper session, String statement) throws NebulaException;
+
     }
 
 }
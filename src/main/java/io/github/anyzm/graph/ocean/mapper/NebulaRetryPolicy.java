@@ -0,0 +1,101 @@
+/* Copyright (c) 2022 com.github.anyzm. All rights reserved.
+ *
+ * This source code is licensed under Apache 2.0 License,
+ * attached with Common Clause Condition 1.0, found in the LICENSES directory.
+ */
+package io.github.anyzm.graph.ocean.mapper;
+
+import io.github.anyzm.graph.ocean.exception.CheckThrower;
+import lombok.Getter;
+import lombok.ToString;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Description  NebulaRetryPolicy is used for
+ * 重试策略：最多尝试 maxAttempts 次(包含第一次)，
+ * 第 n 次重试前等待 [0, min(maxDelayMillis, baseDelayMillis * 2^(n-1))] 之间的随机时间(全抖动指数退避)，
+ * 随机化避免多个客户端在同一热点上同时重试再次冲突
+ *
+ * @author Anyzm
+ * Date  2026/10/17 - 18:50
+ * @version 1.0.0
+ */
+@Getter
+@ToString
+public class NebulaRetryPolicy {
+
+    public static final int DEFAULT_MAX_ATTEMPTS = 5;
+
+    public static final long DEFAULT_BASE_DELAY_MILLIS = 10L;
+
+    public static final long DEFAULT_MAX_DELAY_MILLIS = 1000L;
+
+    private final int maxAttempts;
+
+    private final long baseDelayMillis;
+
+    private final long maxDelayMillis;
+
+    public NebulaRetryPolicy() {
+        this(DEFAULT_MAX_ATTEMPTS, DEFAULT_BASE_DELAY_MILLIS, DEFAULT_MAX_DELAY_MILLIS);
+    }
+
+    /**
+     * @param maxAttempts     最大尝试次数，包含第一次执行
+     * @param baseDelayMillis 第一次重试的最大等待时间(毫秒)
+     * @param maxDelayMillis  单次等待时间上限(毫秒)
+     */
+    public NebulaRetryPolicy(int maxAttempts, long baseDelayMillis, long maxDelayMillis) {
+        CheckThrower.ifFalseThrow(maxAttempts >= 1, "MaxAttempts must greater than zero");
+        CheckThrower.ifFalseThrow(baseDelayMillis >= 0 && maxDelayMillis >= baseDelayMillis,
+                "Delay must not be negative and maxDelayMillis must not less than baseDelayMillis");
+        this.maxAttempts = maxAttempts;
+        this.baseDelayMillis = baseDelayMillis;
+        this.maxDelayMillis = maxDelayMillis;
+    }
+
+    /**
+     * 计算第 retry 次重试前的等待时间
+     *
+     * @param retry 重试序号，从 1 开始
+     * @return 等待时间(毫秒)
+     */
+    public long backoffMillis(int retry) {
+        long ceiling = this.baseDelayMillis << Math.min(Math.max(retry - 1, 0), 30);
+        if (ceiling <= 0 || ceiling > this.maxDelayMillis) {
+            ceiling = this.maxDelayMillis;
+        }
+        return ceiling <= 0 ? 0 : ThreadLocalRandom.current().nextLong(ceiling + 1);
+    }
+
+    /**
+     * 等待第 retry 次重试
+     *
+     * @param retry 重试序号，从 1 开始
+     * @return 等待期间线程被中断时返回 false
+     */
+    boolean sleepBeforeRetry(int retry) {
+        return sleep(backoffMillis(retry));
+    }
+
+    /**
+     * 等待指定时间
+     *
+     * @param millis 等待时间(毫秒)
+     * @return 等待期间线程被中断时返回 false
+     */
+    static boolean sleep(long millis) {
+        if (millis <= 0) {
+            return true;
+        }
+        try {
+            Thread.sleep(millis);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+}
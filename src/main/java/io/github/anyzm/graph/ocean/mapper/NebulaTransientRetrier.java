@@ -0,0 +1,134 @@
+/* Copyright (c) 2022 com.github.anyzm. All rights reserved.
+ *
+ * This source code is licensed under Apache 2.0 License,
+ * attached with Common Clause Condition 1.0, found in the LICENSES directory.
+ */
+package io.github.anyzm.graph.ocean.mapper;
+
+import com.vesoft.nebula.client.graph.exception.AuthFailedException;
+import com.vesoft.nebula.client.graph.exception.ClientServerIncompatibleException;
+import com.vesoft.nebula.client.graph.exception.IOErrorException;
+import com.vesoft.nebula.client.graph.exception.NotValidConnectionException;
+import io.github.anyzm.graph.ocean.exception.CheckThrower;
+import io.github.anyzm.graph.ocean.session.NebulaErrorClassifier;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Predicate;
+
+/**
+ * Description  NebulaTransientRetrier is used for
+ * 瞬时错误重试：rpc 失败、连接断开、会话失效等错误(见 NebulaErrorClassifier)发生时，
+ * 从连接池重新获取 session 并按重试策略退避重试，所有尝试都必须在总截止时间内完成；
+ * 只有幂等的语句(读语句、UPSERT、INSERT ... IF NOT EXISTS)才会重试，其他语句失败后直接抛出，
+ * 避免请求实际已经执行但响应丢失时重复写入
+ *
+ * @author Anyzm
+ * Date  2026/10/17 - 19:30
+ * @version 1.0.0
+ */
+@Slf4j
+public class NebulaTransientRetrier {
+
+    public static final long DEFAULT_DEADLINE_MILLIS = 30000L;
+
+    @Getter
+    private final NebulaRetryPolicy policy;
+
+    /**
+     * 一次调用包括所有重试在内的总时间上限(毫秒)
+     */
+    @Getter
+    private final long deadlineMillis;
+
+    /**
+     * 判断语句是否允许重试，默认只重试幂等语句
+     */
+    @Setter
+    @Getter
+    private Predicate<String> idempotentPredicate = NebulaErrorClassifier::isIdempotent;
+
+    private final AtomicLong retries = new AtomicLong();
+
+    private final AtomicLong exhausted = new AtomicLong();
+
+    public NebulaTransientRetrier() {
+        this(new NebulaRetryPolicy(), DEFAULT_DEADLINE_MILLIS);
+    }
+
+    /**
+     * @param policy         重试策略
+     * @param deadlineMillis 总截止时间(毫秒)
+     */
+    public NebulaTransientRetrier(NebulaRetryPolicy policy, long deadlineMillis) {
+        CheckThrower.ifTrueThrow(policy == null, "Policy must not be null");
+        CheckThrower.ifFalseThrow(deadlineMillis >= 1, "DeadlineMillis must greater than zero");
+        this.policy = policy;
+        this.deadlineMillis = deadlineMillis;
+    }
+
+    /**
+     * @return 累计重试次数
+     */
+    public long getRetryCount() {
+        return retries.get();
+    }
+
+    /**
+     * @return 瞬时错误重试次数用完或超过截止时间后放弃的调用数
+     */
+    public long getExhaustedCount() {
+        return exhausted.get();
+    }
+
+    /**
+     * 执行一次调用，每次尝试都应当重新从连接池获取 session
+     *
+     * @param statements 本次调用执行的语句(不含切换图空间的前缀)，全部允许重试时才会重试
+     * @param attempt    一次尝试
+     * @param <R>        返回值类型
+     * @return 调用结果
+     */
+    <R> R execute(List<String> statements, Attempt<R> attempt) throws NotValidConnectionException, IOErrorException,
+            AuthFailedException, ClientServerIncompatibleException {
+        Predicate<String> predicate = this.idempotentPredicate;
+        for (String statement : statements) {
+            if (!predicate.test(statement)) {
+                return attempt.call();
+            }
+        }
+        long deadline = System.currentTimeMillis() + deadlineMillis;
+        for (int i = 1; ; i++) {
+            try {
+                return attempt.call();
+            } catch (Exception e) {
+                if (!NebulaErrorClassifier.isRetryable(e)) {
+                    throw e;
+                }
+                long backoff = policy.backoffMillis(i);
+                if (i >= policy.getMaxAttempts() || System.currentTimeMillis() + backoff >= deadline
+                        || !NebulaRetryPolicy.sleep(backoff)) {
+                    exhausted.incrementAndGet();
+                    log.error("nebula瞬时错误重试失败,attempts={}", i);
+                    throw e;
+                }
+                retries.incrementAndGet();
+                log.warn("nebula瞬时错误,第{}次重试,error={}", i, e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * 一次尝试
+     */
+    interface Attempt<R> {
+
+        R call() throws NotValidConnectionException, IOErrorException, AuthFailedException,
+                ClientServerIncompatibleException;
+
+    }
+
+}
@@ -0,0 +1,580 @@
+/* Copyright (c) 2022 com.github.anyzm. All rights reserved.
+ *
+ * This source code is licensed under Apache 2.0 License,
+ * attached with Common Clause Condition 1.0, found in the LICENSES directory.
+ */
+package io.github.anyzm.graph.ocean.mapper;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import io.github.anyzm.graph.ocean.exception.CheckThrower;
+import io.github.anyzm.graph.ocean.exception.NebulaException;
+import io.github.anyzm.graph.ocean.exception.NebulaExecuteException;
+import io.github.anyzm.graph.ocean.exception.NebulaVersionConflictException;
+import io.github.anyzm.graph.ocean.session.NebulaErrorClassifier;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiConsumer;
+import java.util.zip.CRC32;
+
+/**
+ * Description  NebulaWriteAheadJournal is used for
+ * 本地预写日志：mapper 的批量更新语句先追加到本地分段的内存映射日志文件，刷盘后即返回调用方，
+ * 再由后台线程按顺序写入 nebula，写入成功后推进检查点并删除已经写完的分段；
+ * 并发追加的记录合并刷盘(组提交)，nebula 不可用时后台线程退避重试，重启后从检查点开始按顺序重放。
+ * 检查点之后的记录至少写入一次，mapper 生成的语句都是幂等的赋值语句，重放不影响结果；
+ * 不能执行的语句(语法、类型错误等)交给 rejectedRecordHandler 后跳过，避免阻塞后面的记录
+ *
+ * @author Anyzm
+ * Date  2026/10/17 - 20:10
+ * @version 1.0.0
+ */
+@Slf4j
+public class NebulaWriteAheadJournal implements AutoCloseable {
+
+    public static final int DEFAULT_SEGMENT_BYTES = 64 * 1024 * 1024;
+
+    public static final long DEFAULT_CLOSE_TIMEOUT_MILLIS = 30000L;
+
+    private static final String SEGMENT_SUFFIX = ".wal";
+
+    private static final String CHECKPOINT_FILE = "checkpoint";
+
+    /**
+     * 记录头：载荷长度(int) + 载荷 crc32(int)，长度为 0 表示分段内没有更多记录
+     */
+    private static final int HEADER_BYTES = 8;
+
+    private static final int CHECKPOINT_BYTES = 16;
+
+    private final NebulaGraphMapper graphMapper;
+
+    @Getter
+    private final Path directory;
+
+    @Getter
+    private final int segmentBytes;
+
+    /**
+     * 写入 nebula 失败后的退避策略，后台线程不限次数重试，只使用其中的退避时间
+     */
+    @Setter
+    @Getter
+    private volatile NebulaRetryPolicy applyRetryPolicy = new NebulaRetryPolicy(Integer.MAX_VALUE, 100L, 30000L);
+
+    /**
+     * 无法执行而被跳过的记录，参数为图空间和 标签名 -> sql列表
+     */
+    @Setter
+    @Getter
+    private volatile BiConsumer<String, Map<String, List<String>>> rejectedRecordHandler;
+
+    @Setter
+    @Getter
+    private long closeTimeoutMillis = DEFAULT_CLOSE_TIMEOUT_MILLIS;
+
+    /**
+     * 分段id -> 分段，只在写锁内增加，由后台线程删除
+     */
+    private final ConcurrentNavigableMap<Long, Segment> segments = new ConcurrentSkipListMap<>();
+
+    /**
+     * 保护当前写入分段和写入位置
+     */
+    private final Object writeLock = new Object();
+
+    /**
+     * 刷盘串行化，等待刷盘的追加线程由一次刷盘一起确认
+     */
+    private final Object syncLock = new Object();
+
+    private final FileChannel checkpointChannel;
+
+    private final MappedByteBuffer checkpointBuffer;
+
+    private final Thread applier;
+
+    private Segment writeSegment;
+
+    /**
+     * 已刷盘的位置，后台线程只读取该位置之前的记录
+     */
+    private volatile Position durablePosition;
+
+    private volatile boolean closed;
+
+    private final AtomicLong appendedRecords = new AtomicLong();
+
+    private final AtomicLong appliedRecords = new AtomicLong();
+
+    private final AtomicLong rejectedRecords = new AtomicLong();
+
+    public NebulaWriteAheadJournal(NebulaGraphMapper graphMapper, Path directory) throws IOException {
+        this(graphMapper, directory, DEFAULT_SEGMENT_BYTES);
+    }
+
+    /**
+     * 打开日志目录，目录中有未写入 nebula 的记录时启动后立即重放
+     *
+     * @param graphMapper  写入 nebula 的 mapper
+     * @param directory    日志目录
+     * @param segmentBytes 单个分段文件大小
+     */
+    public NebulaWriteAheadJournal(NebulaGraphMapper graphMapper, Path directory, int segmentBytes) throws IOException {
+        CheckThrower.ifTrueThrow(graphMapper == null, "GraphMapper must not be null");
+        CheckThrower.ifTrueThrow(directory == null, "Directory must not be null");
+        CheckThrower.ifFalseThrow(segmentBytes >= 4096, "SegmentBytes must not less than 4096");
+        this.graphMapper = graphMapper;
+        this.directory = directory;
+        this.segmentBytes = segmentBytes;
+        Files.createDirectories(directory);
+        this.checkpointChannel = FileChannel.open(directory.resolve(CHECKPOINT_FILE), StandardOpenOption.CREATE,
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+        this.checkpointBuffer = checkpointChannel.map(FileChannel.MapMode.READ_WRITE, 0, CHECKPOINT_BYTES);
+        Position checkpoint = recover();
+        this.applier = new Thread(() -> applyLoop(checkpoint), "graph-ocean-journal-applier");
+        this.applier.setDaemon(true);
+        this.applier.start();
+    }
+
+    /**
+     * @return 本次启动后追加的记录数
+     */
+    public long getAppendedRecords() {
+        return appendedRecords.get();
+    }
+
+    /**
+     * @return 本次启动后写入 nebula 的记录数
+     */
+    public long getAppliedRecords() {
+        return appliedRecords.get();
+    }
+
+    /**
+     * @return 本次启动后因无法执行被跳过的记录数
+     */
+    public long getRejectedRecords() {
+        return rejectedRecords.get();
+    }
+
+    /**
+     * 追加一批更新语句，刷盘后返回
+     *
+     * @param space         图空间
+     * @param labelSqlLists 标签名 -> sql列表
+     */
+    public void append(String space, Map<String, List<String>> labelSqlLists) throws NebulaException {
+        if (labelSqlLists.values().stream().allMatch(List::isEmpty)) {
+            return;
+        }
+        byte[] payload = encode(space, labelSqlLists);
+        CRC32 crc32 = new CRC32();
+        crc32.update(payload);
+        Position end;
+        try {
+            synchronized (writeLock) {
+                CheckThrower.ifTrueThrow(closed, "WriteAheadJournal is closed");
+                int recordBytes = HEADER_BYTES + payload.length;
+                // 分段末尾至少保留一个记录头的空间，读到长度为 0 的记录头即可判断分段结束
+                if (writeSegment.writeOffset + recordBytes + HEADER_BYTES > writeSegment.capacity) {
+                    rollSegment(recordBytes + HEADER_BYTES);
+                }
+                MappedByteBuffer buffer = writeSegment.buffer;
+                int offset = writeSegment.writeOffset;
+                ByteBuffer target = buffer.duplicate();
+                target.position(offset + HEADER_BYTES);
+                target.put(payload);
+                buffer.putInt(offset + 4, (int) crc32.getValue());
+                buffer.putInt(offset, payload.length);
+                writeSegment.writeOffset = offset + recordBytes;
+                end = new Position(writeSegment.id, writeSegment.writeOffset);
+            }
+            sync(end);
+        } catch (IOException e) {
+            throw new NebulaException(e);
+        }
+        appendedRecords.incrementAndGet();
+    }
+
+    /**
+     * 组提交：一次刷盘确认此前所有追加线程写入的记录
+     */
+    private void sync(Position end) {
+        if (durablePosition.compareTo(end) >= 0) {
+            return;
+        }
+        synchronized (syncLock) {
+            if (durablePosition.compareTo(end) >= 0) {
+                return;
+            }
+            Segment segment;
+            Position target;
+            synchronized (writeLock) {
+                segment = writeSegment;
+                target = new Position(segment.id, segment.writeOffset);
+            }
+            // 之前的分段在切换时已经刷盘
+            segment.buffer.force();
+            durablePosition = target;
+        }
+        synchronized (segments) {
+            segments.notifyAll();
+        }
+    }
+
+    /**
+     * 当前分段写满后刷盘并切换到新分段，调用方持有写锁
+     */
+    private void rollSegment(int minBytes) throws IOException {
+        writeSegment.buffer.force();
+        writeSegment = openSegment(writeSegment.id + 1, Math.max(segmentBytes, minBytes));
+        log.debug("预写日志切换分段,segment={}", writeSegment.id);
+    }
+
+    private Segment openSegment(long id, int capacity) throws IOException {
+        Path path = directory.resolve(String.format("%020d%s", id, SEGMENT_SUFFIX));
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        int size = (int) Math.max(channel.size(), capacity);
+        Segment segment = new Segment(id, path, channel, channel.map(FileChannel.MapMode.READ_WRITE, 0, size), size);
+        segments.put(id, segment);
+        return segment;
+    }
+
+    /**
+     * 打开已有分段，删除检查点之前的分段，找到最后一个分段中最后一条完整记录的位置作为写入位置
+     *
+     * @return 检查点
+     */
+    private Position recover() throws IOException {
+        List<Long> ids = Lists.newArrayList();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, "*" + SEGMENT_SUFFIX)) {
+            for (Path path : stream) {
+                String name = path.getFileName().toString();
+                ids.add(Long.parseLong(name.substring(0, name.length() - SEGMENT_SUFFIX.length())));
+            }
+        }
+        Collections.sort(ids);
+        Position checkpoint = readCheckpoint();
+        for (Long id : ids) {
+            if (checkpoint != null && id < checkpoint.segmentId) {
+                Files.deleteIfExists(directory.resolve(String.format("%020d%s", id, SEGMENT_SUFFIX)));
+            } else {
+                openSegment(id, segmentBytes);
+            }
+        }
+        if (segments.isEmpty()) {
+            openSegment(checkpoint == null ? 0 : checkpoint.segmentId, segmentBytes);
+        }
+        if (checkpoint == null || !segments.containsKey(checkpoint.segmentId)) {
+            checkpoint = new Position(segments.firstKey(), 0);
+        }
+        writeSegment = segments.lastEntry().getValue();
+        int offset = writeSegment.id == checkpoint.segmentId ? checkpoint.offset : 0;
+        while (readRecord(writeSegment, offset, writeSegment.capacity) != null) {
+            offset += HEADER_BYTES + writeSegment.buffer.getInt(offset);
+        }
+        // 清除崩溃时写了一半的记录
+        for (int i = offset; i < Math.min(writeSegment.capacity, offset + HEADER_BYTES); i++) {
+            writeSegment.buffer.put(i, (byte) 0);
+        }
+        writeSegment.writeOffset = offset;
+        durablePosition = new Position(writeSegment.id, offset);
+        log.info("打开预写日志,directory={},segments={},checkpoint={},end={}", directory, segments.keySet(),
+                checkpoint, durablePosition);
+        return checkpoint;
+    }
+
+    private Position readCheckpoint() {
+        long segmentId = checkpointBuffer.getLong(0);
+        int offset = checkpointBuffer.getInt(8);
+        int crc = checkpointBuffer.getInt(12);
+        if (segmentId == 0 && offset == 0 && crc == 0) {
+            return null;
+        }
+        if (crc != checkpointCrc(segmentId, offset)) {
+            log.warn("预写日志检查点损坏,从第一个分段开始重放");
+            return null;
+        }
+        return new Position(segmentId, offset);
+    }
+
+    /**
+     * 检查点不单独刷盘，掉电后最多重放少量已经写入的记录
+     */
+    private void writeCheckpoint(Position position) {
+        checkpointBuffer.putLong(0, position.segmentId);
+        checkpointBuffer.putInt(8, position.offset);
+        checkpointBuffer.putInt(12, checkpointCrc(position.segmentId, position.offset));
+    }
+
+    private static int checkpointCrc(long segmentId, int offset) {
+        CRC32 crc32 = new CRC32();
+        crc32.update(ByteBuffer.allocate(12).putLong(segmentId).putInt(offset).array());
+        return (int) crc32.getValue();
+    }
+
+    /**
+     * 读取一条完整的记录
+     *
+     * @return 记录载荷，没有完整记录时返回 null
+     */
+    private static byte[] readRecord(Segment segment, int offset, int limit) {
+        if (offset + HEADER_BYTES > limit) {
+            return null;
+        }
+        int length = segment.buffer.getInt(offset);
+        if (length <= 0 || offset + HEADER_BYTES + length > limit) {
+            return null;
+        }
+        byte[] payload = new byte[length];
+        ByteBuffer source = segment.buffer.duplicate();
+        source.position(offset + HEADER_BYTES);
+        source.get(payload);
+        CRC32 crc32 = new CRC32();
+        crc32.update(payload);
+        return (int) crc32.getValue() == segment.buffer.getInt(offset + 4) ? payload : null;
+    }
+
+    private void applyLoop(Position checkpoint) {
+        Position position = checkpoint;
+        while (true) {
+            Position durable = durablePosition;
+            Segment segment = segments.get(position.segmentId);
+            int limit = position.segmentId == durable.segmentId ? durable.offset : segment.capacity;
+            byte[] payload = readRecord(segment, position.offset, limit);
+            if (payload == null) {
+                if (position.segmentId < durable.segmentId) {
+                    // 分段已经全部写入，移动到下一个分段并删除该分段
+                    position = new Position(segments.higherKey(position.segmentId), 0);
+                    writeCheckpoint(position);
+                    deleteSegment(segment);
+                    continue;
+                }
+                if (closed) {
+                    return;
+                }
+                synchronized (segments) {
+                    if (durablePosition.compareTo(durable) <= 0) {
+                        try {
+                            segments.wait(100L);
+                        } catch (InterruptedException e) {
+                            return;
+                        }
+                    }
+                }
+                continue;
+            }
+            if (!apply(payload)) {
+                return;
+            }
+            position = new Position(position.segmentId, position.offset + HEADER_BYTES + payload.length);
+            writeCheckpoint(position);
+        }
+    }
+
+    /**
+     * 写入一条记录，瞬时错误和冲突退避重试，无法执行的记录交给回调后跳过
+     *
+     * @return 线程被中断时返回 false
+     */
+    private boolean apply(byte[] payload) {
+        Map<String, List<String>> labelSqlLists = Maps.newLinkedHashMap();
+        String space = decode(payload, labelSqlLists);
+        for (int attempt = 1; ; attempt++) {
+            try {
+                graphMapper.executeBatchUpdateSqlDirectly(space, labelSqlLists);
+                appliedRecords.incrementAndGet();
+                return true;
+            } catch (NebulaExecuteException e) {
+                if (!(e instanceof NebulaVersionConflictException) && !NebulaErrorClassifier.isRetryable(e)) {
+                    log.error("预写日志记录无法写入nebula,跳过,space={},labels={}", space, labelSqlLists.keySet(), e);
+                    rejectedRecords.incrementAndGet();
+                    BiConsumer<String, Map<String, List<String>>> handler = this.rejectedRecordHandler;
+                    if (handler != null) {
+                        handler.accept(space, labelSqlLists);
+                    }
+                    return true;
+                }
+                log.warn("预写日志写入nebula失败,第{}次重试,error={}", attempt, e.getMessage());
+            } catch (Exception e) {
+                log.warn("预写日志写入nebula失败,第{}次重试,error={}", attempt, e.getMessage());
+            }
+            try {
+                TimeUnit.MILLISECONDS.sleep(applyRetryPolicy.backoffMillis(Math.min(attempt, 30)));
+            } catch (InterruptedException e) {
+                return false;
+            }
+        }
+    }
+
+    private void deleteSegment(Segment segment) {
+        segments.remove(segment.id);
+        try {
+            segment.channel.close();
+            Files.deleteIfExists(segment.path);
+        } catch (IOException e) {
+            log.warn("删除预写日志分段失败,path={}", segment.path, e);
+        }
+    }
+
+    private static byte[] encode(String space, Map<String, List<String>> labelSqlLists) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(4096);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            writeString(out, space);
+            out.writeInt(labelSqlLists.size());
+            for (Map.Entry<String, List<String>> entry : labelSqlLists.entrySet()) {
+                writeString(out, entry.getKey());
+                out.writeInt(entry.getValue().size());
+                for (String sql : entry.getValue()) {
+                    writeString(out, sql);
+                }
+            }
+        } catch (IOException e) {
+            throw new NebulaException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String decode(byte[] payload, Map<String, List<String>> labelSqlLists) {
+        ByteBuffer in = ByteBuffer.wrap(payload);
+        String space = readString(in);
+        int labels = in.getInt();
+        for (int i = 0; i < labels; i++) {
+            String label = readString(in);
+            int count = in.getInt();
+            List<String> sqlList = Lists.newArrayListWithExpectedSize(count);
+            for (int j = 0; j < count; j++) {
+                sqlList.add(readString(in));
+            }
+            labelSqlLists.put(label, sqlList);
+        }
+        return space;
+    }
+
+    private static String readString(ByteBuffer in) {
+        int length = in.getInt();
+        String value = new String(in.array(), in.position(), length, StandardCharsets.UTF_8);
+        in.position(in.position() + length);
+        return value;
+    }
+
+    /**
+     * 停止追加，在 closeTimeoutMillis 内等待后台线程写完已追加的记录，未写完的记录在下次打开时重放
+     */
+    @Override
+    public void close() throws IOException {
+        synchronized (writeLock) {
+            if (closed) {
+                return;
+            }
+            closed = true;
+        }
+        synchronized (segments) {
+            segments.notifyAll();
+        }
+        try {
+            applier.join(closeTimeoutMillis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (applier.isAlive()) {
+            log.warn("关闭预写日志时仍有记录未写入nebula,下次打开时重放");
+            applier.interrupt();
+            try {
+                applier.join(closeTimeoutMillis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        checkpointBuffer.force();
+        checkpointChannel.close();
+        for (Segment segment : segments.values()) {
+            segment.buffer.force();
+            segment.channel.close();
+        }
+    }
+
+    /**
+     * 日志中的位置，按分段id和分段内偏移排序
+     */
+    private static class Position implements Comparable<Position> {
+
+        private final long segmentId;
+
+        private final int offset;
+
+        private Position(long segmentId, int offset) {
+            this.segmentId = segmentId;
+            this.offset = offset;
+        }
+
+        @Override
+        public int compareTo(Position other) {
+            int result = Long.compare(segmentId, other.segmentId);
+            return result != 0 ? result : Integer.compare(offset, other.offset);
+        }
+
+        @Override
+        public String toString() {
+            return segmentId + ":" + offset;
+        }
+    }
+
+    /**
+     * 一个内存映射的分段文件
+     */
+    private static class Segment {
+
+        private final long id;
+
+        private final Path path;
+
+        private final FileChannel channel;
+
+        private final MappedByteBuffer buffer;
+
+        private final int capacity;
+
+        /**
+         * 写入位置，只在写锁内访问
+         */
+        private int writeOffset;
+
+        private Segment(long id, Path path, FileChannel channel, MappedByteBuffer buffer, int capacity) {
+            this.id = id;
+            this.path = path;
+            this.channel = channel;
+            this.buffer = buffer;
+            this.capacity = capacity;
+        }
+    }
+
+}
@@ -0,0 +1,291 @@
+/* Copyright (c) 2022 com.github.anyzm. All rights reserved.
+ *
+ * This source code is licensed under Apache 2.0 License,
+ * attached with Common Clause Condition 1.0, found in the LICENSES directory.
+ */
+package io.github.anyzm.graph.ocean.mapper;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.vesoft.nebula.client.graph.exception.AuthFailedException;
+import com.vesoft.nebula.client.graph.exception.ClientServerIncompatibleException;
+import com.vesoft.nebula.client.graph.exception.IOErrorException;
+import com.vesoft.nebula.client.graph.exception.NotValidConnectionException;
+import io.github.anyzm.graph.ocean.common.utils.CollectionUtils;
+import io.github.anyzm.graph.ocean.domain.impl.GraphEdgeEntity;
+import io.github.anyzm.graph.ocean.domain.impl.GraphVertexEntity;
+import io.github.anyzm.graph.ocean.exception.CheckThrower;
+import io.github.anyzm.graph.ocean.exception.NebulaException;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Description  NebulaWriteBehindBuffer is used for
+ * 顶点和边的写缓冲，把大量小批量的保存合并成少量大批次写入 nebula：
+ * 按标签缓存顶点和边实体，同一顶点id或同一(起点,终点)的重复写入以最后一次为准，
+ * 缓存数量达到阈值时由调用线程刷新，另有定时任务按时间间隔刷新；
+ * 刷新失败的实体会放回缓冲(不覆盖其间的新写入)，应用关闭前需调用 close 保证数据写出
+ *
+ * @author Anyzm
+ * Date  2026/10/17 - 16:05
+ * @version 1.0.0
+ */
+@Slf4j
+public class NebulaWriteBehindBuffer implements AutoCloseable {
+
+    public static final int DEFAULT_MAX_BUFFERED_ENTITIES = 5000;
+
+    public static final long DEFAULT_FLUSH_INTERVAL_MILLIS = 1000L;
+
+    private final NebulaGraphMapper graphMapper;
+
+    private final int maxBufferedEntities;
+
+    private final ScheduledExecutorService scheduler;
+
+    /**
+     * 保护缓冲区
+     */
+    private final Object bufferLock = new Object();
+
+    /**
+     * 刷新串行化，避免两次刷新并发导致同一实体的新旧值乱序写入
+     */
+    private final ReentrantLock flushLock = new ReentrantLock();
+
+    /**
+     * 标签名 -> (顶点id -> 顶点实体)
+     */
+    private Map<String, Map<String, GraphVertexEntity<?>>> vertexBuffer = Maps.newLinkedHashMap();
+
+    /**
+     * 边名 -> ([起点, 终点] -> 边实体)
+     */
+    private Map<String, Map<List<String>, GraphEdgeEntity<?, ?, ?>>> edgeBuffer = Maps.newLinkedHashMap();
+
+    private int bufferedCount;
+
+    private volatile boolean closed;
+
+    public NebulaWriteBehindBuffer(NebulaGraphMapper graphMapper) {
+        this(graphMapper, DEFAULT_MAX_BUFFERED_ENTITIES, DEFAULT_FLUSH_INTERVAL_MILLIS);
+    }
+
+    /**
+     * @param graphMapper         实际写入的 mapper
+     * @param maxBufferedEntities 缓存实体数达到该值时立即刷新
+     * @param flushIntervalMillis 定时刷新间隔(毫秒)
+     */
+    public NebulaWriteBehindBuffer(NebulaGraphMapper graphMapper, int maxBufferedEntities, long flushIntervalMillis) {
+        CheckThrower.ifTrueThrow(graphMapper == null, "GraphMapper must not be null");
+        CheckThrower.ifFalseThrow(maxBufferedEntities >= 1, "MaxBufferedEntities must greater than zero");
+        CheckThrower.ifFalseThrow(flushIntervalMillis >= 1, "FlushIntervalMillis must greater than zero");
+        this.graphMapper = graphMapper;
+        this.maxBufferedEntities = maxBufferedEntities;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(new ThreadFactoryBuilder()
+                .setNameFormat("graph-ocean-write-behind-%d").setDaemon(true).build());
+        this.scheduler.scheduleWithFixedDelay(this::scheduledFlush, flushIntervalMillis, flushIntervalMillis,
+                TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * 起点和终点作为组合键，不拼接字符串，id 中包含分隔符时也不会冲突
+     */
+    private static List<String> edgeKey(GraphEdgeEntity<?, ?, ?> graphEdgeEntity) {
+        return Arrays.asList(graphEdgeEntity.getSrcId(), graphEdgeEntity.getDstId());
+    }
+
+    /**
+     * 缓存顶点
+     *
+     * @param entities 顶点
+     * @param <T>      顶点类型
+     */
+    public <T> void saveVertexEntities(List<T> entities) throws NebulaException, ClientServerIncompatibleException,
+            AuthFailedException, NotValidConnectionException, IOErrorException {
+        if (CollectionUtils.isEmpty(entities)) {
+            return;
+        }
+        CheckThrower.ifTrueThrow(closed, "WriteBehindBuffer is closed");
+        List<GraphVertexEntity<T>> vertexEntities = Lists.newArrayListWithExpectedSize(entities.size());
+        for (T entity : entities) {
+            vertexEntities.add(graphMapper.getGraphVertexEntityFactory().buildGraphVertexEntity(entity));
+        }
+        boolean full;
+        synchronized (bufferLock) {
+            // close 在同一把锁下置位，通过检查的写入一定会被 close 的最后一次刷新写出
+            CheckThrower.ifTrueThrow(closed, "WriteBehindBuffer is closed");
+            for (GraphVertexEntity<T> vertexEntity : vertexEntities) {
+                Map<String, GraphVertexEntity<?>> labelBuffer = vertexBuffer.computeIfAbsent(
+                        vertexEntity.getGraphVertexType().getVertexName(), k -> Maps.newLinkedHashMap());
+                if (labelBuffer.put(vertexEntity.getId(), vertexEntity) == null) {
+                    bufferedCount++;
+                }
+            }
+            full = bufferedCount >= maxBufferedEntities;
+        }
+        if (full) {
+            flush();
+        }
+    }
+
+    /**
+     * 缓存边
+     *
+     * @param entities 边
+     * @param <E>      边类型
+     */
+    public <E> void saveEdgeEntities(List<E> entities) throws NebulaException, ClientServerIncompatibleException,
+            AuthFailedException, NotValidConnectionException, IOErrorException {
+        if (CollectionUtils.isEmpty(entities)) {
+            return;
+        }
+        CheckThrower.ifTrueThrow(closed, "WriteBehindBuffer is closed");
+        List<GraphEdgeEntity<?, ?, ?>> edgeEntities = Lists.newArrayListWithExpectedSize(entities.size());
+        for (E entity : entities) {
+            edgeEntities.add(graphMapper.getGraphEdgeEntityFactory().buildGraphEdgeEntity(entity));
+        }
+        boolean full;
+        synchronized (bufferLock) {
+            CheckThrower.ifTrueThrow(closed, "WriteBehindBuffer is closed");
+            for (GraphEdgeEntity<?, ?, ?> edgeEntity : edgeEntities) {
+                Map<List<String>, GraphEdgeEntity<?, ?, ?>> labelBuffer = edgeBuffer.computeIfAbsent(
+                        edgeEntity.getGraphEdgeType().getEdgeName(), k -> Maps.newLinkedHashMap());
+                if (labelBuffer.put(edgeKey(edgeEntity), edgeEntity) == null) {
+                    bufferedCount++;
+                }
+            }
+            full = bufferedCount >= maxBufferedEntities;
+        }
+        if (full) {
+            flush();
+        }
+    }
+
+    /**
+     * @return 当前缓存的实体数
+     */
+    public int getBufferedCount() {
+        synchronized (bufferLock) {
+            return bufferedCount;
+        }
+    }
+
+    /**
+     * 把缓存的实体全部写入 nebula，顶点先于边写入
+     */
+    public void flush() throws NebulaException, ClientServerIncompatibleException, AuthFailedException,
+            NotValidConnectionException, IOErrorException {
+        flushLock.lock();
+        try {
+            Map<String, Map<String, GraphVertexEntity<?>>> vertices;
+            Map<String, Map<List<String>, GraphEdgeEntity<?, ?, ?>>> edges;
+            synchronized (bufferLock) {
+                if (bufferedCount == 0) {
+                    return;
+                }
+                vertices = vertexBuffer;
+                edges = edgeBuffer;
+                vertexBuffer = Maps.newLinkedHashMap();
+                edgeBuffer = Maps.newLinkedHashMap();
+                bufferedCount = 0;
+            }
+            try {
+                // mapper 按标签分组并发写入，顶点全部写完后再写边
+                List<GraphVertexEntity<?>> vertexEntities = Lists.newArrayList();
+                vertices.values().forEach(labelBuffer -> vertexEntities.addAll(labelBuffer.values()));
+                if (!vertexEntities.isEmpty()) {
+                    graphMapper.batchUpdateVertex(NebulaWriteBehindBuffer.<Object>uncheckedVertices(vertexEntities));
+                    vertices.clear();
+                }
+                List<GraphEdgeEntity<?, ?, ?>> edgeEntities = Lists.newArrayList();
+                edges.values().forEach(labelBuffer -> edgeEntities.addAll(labelBuffer.values()));
+                if (!edgeEntities.isEmpty()) {
+                    graphMapper.batchUpdateEdge(NebulaWriteBehindBuffer.<Object, Object, Object>uncheckedEdges(edgeEntities));
+                    edges.clear();
+                }
+            } catch (Exception e) {
+                restore(vertices, edges);
+                throw e;
+            }
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    /**
+     * 缓冲中混有不同实体类型，写入时 mapper 只按标签分组，不依赖实体的泛型参数
+     */
+    @SuppressWarnings("unchecked")
+    private static <T> List<GraphVertexEntity<T>> uncheckedVertices(List<GraphVertexEntity<?>> vertexEntities) {
+        return (List<GraphVertexEntity<T>>) (List<?>) vertexEntities;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <S, T, E> List<GraphEdgeEntity<S, T, E>> uncheckedEdges(List<GraphEdgeEntity<?, ?, ?>> edgeEntities) {
+        return (List<GraphEdgeEntity<S, T, E>>) (List<?>) edgeEntities;
+    }
+
+    /**
+     * 刷新失败后把未写出的实体放回缓冲，期间的新写入优先
+     */
+    private void restore(Map<String, Map<String, GraphVertexEntity<?>>> vertices,
+                         Map<String, Map<List<String>, GraphEdgeEntity<?, ?, ?>>> edges) {
+        synchronized (bufferLock) {
+            for (Map.Entry<String, Map<String, GraphVertexEntity<?>>> entry : vertices.entrySet()) {
+                Map<String, GraphVertexEntity<?>> labelBuffer = vertexBuffer.computeIfAbsent(entry.getKey(), k -> Maps.newLinkedHashMap());
+                for (Map.Entry<String, GraphVertexEntity<?>> vertex : entry.getValue().entrySet()) {
+                    if (labelBuffer.putIfAbsent(vertex.getKey(), vertex.getValue()) == null) {
+                        bufferedCount++;
+                    }
+                }
+            }
+            for (Map.Entry<String, Map<List<String>, GraphEdgeEntity<?, ?, ?>>> entry : edges.entrySet()) {
+                Map<List<String>, GraphEdgeEntity<?, ?, ?>> labelBuffer = edgeBuffer.computeIfAbsent(entry.getKey(), k -> Maps.newLinkedHashMap());
+                for (Map.Entry<List<String>, GraphEdgeEntity<?, ?, ?>> edge : entry.getValue().entrySet()) {
+                    if (labelBuffer.putIfAbsent(edge.getKey(), edge.getValue()) == null) {
+                        bufferedCount++;
+                    }
+                }
+            }
+        }
+    }
+
+    private void scheduledFlush() {
+        try {
+            flush();
+        } catch (Exception e) {
+            log.error("定时刷新写缓冲到nebula失败,缓存实体数={}", getBufferedCount(), e);
+        }
+    }
+
+    /**
+     * 停止定时刷新并写出剩余实体
+     */
+    @Override
+    public void close() throws NebulaException, ClientServerIncompatibleException, AuthFailedException,
+            NotValidConnectionException, IOErrorException {
+        synchronized (bufferLock) {
+            if (closed) {
+                return;
+            }
+            closed = true;
+        }
+        scheduler.shutdown();
+        try {
+            scheduler.awaitTermination(1, TimeUnit.MINUTES);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        flush();
+    }
+
+}
@@ -0,0 +1,317 @@
+/* Copyright (c) 2022 com.github.anyzm. All rights reserved.
+ *
+ * This source code is licensed under Apache 2.0 License,
+ * attached with Common Clause Condition 1.0, found in the LICENSES directory.
+ */
+package io.github.anyzm.graph.ocean.session;
+
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Lists;
+import com.vesoft.nebula.ErrorCode;
+import com.vesoft.nebula.client.graph.exception.IOErrorException;
+import com.vesoft.nebula.client.graph.exception.NotValidConnectionException;
+import io.github.anyzm.graph.ocean.exception.NebulaExecuteException;
+import org.apache.commons.lang3.StringUtils;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * Description  NebulaErrorClassifier is used for
+ * 错误与语句分类：判断失败是否为连接、rpc、会话失效等换一个 session 重试可能成功的瞬时错误，
+ * 以及语句重复执行是否安全(读语句、只赋常量值的 UPSERT/UPDATE、INSERT ... IF NOT EXISTS)
+ *
+ * @author Anyzm
+ * Date  2026/10/17 - 19:20
+ * @version 1.0.0
+ */
+public final class NebulaErrorClassifier {
+
+    /**
+     * 换一个 session 重试可能成功的错误码
+     */
+    private static final Set<String> RETRYABLE_CODES = ImmutableSet.of(
+            String.valueOf(ErrorCode.E_DISCONNECTED.getValue()),
+            String.valueOf(ErrorCode.E_FAIL_TO_CONNECT.getValue()),
+            String.valueOf(ErrorCode.E_RPC_FAILURE.getValue()),
+            String.valueOf(ErrorCode.E_LEADER_CHANGED.getValue()),
+            String.valueOf(ErrorCode.E_SESSION_INVALID.getValue()),
+            String.valueOf(ErrorCode.E_SESSION_TIMEOUT.getValue()),
+            String.valueOf(ErrorCode.E_SESSION_NOT_FOUND.getValue()),
+            String.valueOf(ErrorCode.E_TOO_MANY_CONNECTIONS.getValue()),
+            String.valueOf(ErrorCode.E_NO_HOSTS.getValue()));
+
+    /**
+     * 只读语句的起始关键字
+     */
+    private static final Set<String> READ_KEYWORDS = ImmutableSet.of(
+            "USE", "FETCH", "GO", "MATCH", "LOOKUP", "SHOW", "DESCRIBE", "DESC", "YIELD", "FIND", "GET", "EXPLAIN");
+
+    /**
+     * 参数为常量时结果确定的函数，timestamp() 等无参调用取当前时间，不属于常量
+     */
+    private static final Set<String> LITERAL_FUNCTIONS = ImmutableSet.of("date", "datetime", "time", "timestamp", "duration");
+
+    private static final Pattern INSERT_IF_NOT_EXISTS = Pattern.compile(
+            "^INSERT\\s+(VERTEX|EDGE)\\s+IF\\s+NOT\\s+EXISTS\\b.*", Pattern.CASE_INSENSITIVE | Pattern.DOTALL);
+
+    private NebulaErrorClassifier() {
+    }
+
+    /**
+     * 判断错误码是否为瞬时错误
+     *
+     * @param code nebula 错误码
+     * @return 是否可重试
+     */
+    public static boolean isRetryableCode(String code) {
+        return code != null && RETRYABLE_CODES.contains(code);
+    }
+
+    /**
+     * 判断失败是否为瞬时错误，会沿着异常链查找连接异常和可重试的错误码
+     *
+     * @param throwable 失败原因
+     * @return 是否可重试
+     */
+    public static boolean isRetryable(Throwable throwable) {
+        for (Throwable cause = throwable; cause != null; cause = cause.getCause() == cause ? null : cause.getCause()) {
+            if (cause instanceof IOErrorException || cause instanceof NotValidConnectionException) {
+                return true;
+            }
+            if (cause instanceof NebulaExecuteException && isRetryableCode(((NebulaExecuteException) cause).getCode())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 判断语句重复执行是否安全，多条语句时每一条都必须是幂等的
+     *
+     * @param statement nGQL，可以是分号分隔的多条语句
+     * @return 是否幂等
+     */
+    public static boolean isIdempotent(String statement) {
+        if (StringUtils.isBlank(statement)) {
+            return false;
+        }
+        for (String sentence : splitStatements(statement)) {
+            if (!isIdempotentSentence(sentence)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isIdempotentSentence(String sentence) {
+        int end = 0;
+        while (end < sentence.length() && Character.isLetter(sentence.charAt(end))) {
+            end++;
+        }
+        String keyword = sentence.substring(0, end).toUpperCase(Locale.ROOT);
+        if (READ_KEYWORDS.contains(keyword)) {
+            return true;
+        }
+        if ("UPSERT".equals(keyword) || "UPDATE".equals(keyword)) {
+            // SET n = n + 1 之类引用原值的赋值重复执行结果不同
+            return assignsOnlyLiterals(sentence);
+        }
+        return "INSERT".equals(keyword) && INSERT_IF_NOT_EXISTS.matcher(sentence).matches();
+    }
+
+    /**
+     * 判断 UPSERT/UPDATE 的 SET 子句是否只把属性赋值为常量，带 WHEN、YIELD 的语句按不幂等处理
+     */
+    static boolean assignsOnlyLiterals(String sentence) {
+        int position = indexOfSet(sentence);
+        if (position < 0) {
+            return false;
+        }
+        while (true) {
+            position = skipName(sentence, skipWhitespace(sentence, position));
+            if (position < 0) {
+                return false;
+            }
+            position = skipWhitespace(sentence, position);
+            if (position >= sentence.length() || sentence.charAt(position) != '=') {
+                return false;
+            }
+            position = skipLiteral(sentence, skipWhitespace(sentence, position + 1));
+            if (position < 0) {
+                return false;
+            }
+            position = skipWhitespace(sentence, position);
+            if (position == sentence.length()) {
+                return true;
+            }
+            if (sentence.charAt(position) != ',') {
+                return false;
+            }
+            position++;
+        }
+    }
+
+    /**
+     * @return 引号外第一个 SET 关键字之后的位置，没有时返回 -1
+     */
+    private static int indexOfSet(String sentence) {
+        for (int i = 0; i < sentence.length(); i++) {
+            char c = sentence.charAt(i);
+            if (c == '"' || c == '\'' || c == '`') {
+                i = skipQuoted(sentence, i) - 1;
+                if (i < 0) {
+                    return -1;
+                }
+            } else if (Character.isWhitespace(c) && sentence.regionMatches(true, i + 1, "SET", 0, 3)
+                    && i + 4 < sentence.length() && Character.isWhitespace(sentence.charAt(i + 4))) {
+                return i + 4;
+            }
+        }
+        return -1;
+    }
+
+    private static int skipWhitespace(String sentence, int position) {
+        while (position < sentence.length() && Character.isWhitespace(sentence.charAt(position))) {
+            position++;
+        }
+        return position;
+    }
+
+    /**
+     * 跳过 prop、tag.prop 或反引号包围的属性名
+     */
+    private static int skipName(String sentence, int position) {
+        int start = position;
+        while (position < sentence.length()) {
+            char c = sentence.charAt(position);
+            if (c == '`') {
+                position = skipQuoted(sentence, position);
+                if (position < 0) {
+                    return -1;
+                }
+            } else if (Character.isLetterOrDigit(c) || c == '_' || c == '.') {
+                position++;
+            } else {
+                break;
+            }
+        }
+        return position == start ? -1 : position;
+    }
+
+    /**
+     * 跳过字符串、数字、true/false/null 或参数为常量的 date("...") 等函数调用
+     *
+     * @return 常量之后的位置，不是常量时返回 -1
+     */
+    private static int skipLiteral(String sentence, int position) {
+        if (position >= sentence.length()) {
+            return -1;
+        }
+        char c = sentence.charAt(position);
+        if (c == '"' || c == '\'') {
+            return skipQuoted(sentence, position);
+        }
+        if (c == '-' || c == '+' || c == '.' || Character.isDigit(c)) {
+            return skipNumber(sentence, position);
+        }
+        int end = position;
+        while (end < sentence.length() && Character.isLetter(sentence.charAt(end))) {
+            end++;
+        }
+        String word = sentence.substring(position, end).toLowerCase(Locale.ROOT);
+        if ("true".equals(word) || "false".equals(word) || "null".equals(word)) {
+            return end;
+        }
+        if (!LITERAL_FUNCTIONS.contains(word)) {
+            return -1;
+        }
+        end = skipWhitespace(sentence, end);
+        if (end >= sentence.length() || sentence.charAt(end) != '(') {
+            return -1;
+        }
+        end = skipLiteral(sentence, skipWhitespace(sentence, end + 1));
+        if (end < 0) {
+            return -1;
+        }
+        end = skipWhitespace(sentence, end);
+        return end < sentence.length() && sentence.charAt(end) == ')' ? end + 1 : -1;
+    }
+
+    private static int skipNumber(String sentence, int position) {
+        if (sentence.charAt(position) == '-' || sentence.charAt(position) == '+') {
+            position++;
+        }
+        int digits = 0;
+        boolean exponent = false;
+        while (position < sentence.length()) {
+            char c = sentence.charAt(position);
+            if (Character.isDigit(c)) {
+                digits++;
+            } else if (c == '.' && !exponent) {
+                // 小数点
+            } else if ((c == 'e' || c == 'E') && digits > 0 && !exponent) {
+                exponent = true;
+                if (position + 1 < sentence.length() && (sentence.charAt(position + 1) == '-' || sentence.charAt(position + 1) == '+')) {
+                    position++;
+                }
+            } else {
+                break;
+            }
+            position++;
+        }
+        return digits == 0 ? -1 : position;
+    }
+
+    /**
+     * @return 引号包围的内容之后的位置，没有结束引号时返回 -1
+     */
+    private static int skipQuoted(String sentence, int position) {
+        char quote = sentence.charAt(position);
+        for (int i = position + 1; i < sentence.length(); i++) {
+            char c = sentence.charAt(i);
+            if (c == '\\') {
+                i++;
+            } else if (c == quote) {
+                return i + 1;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * 按引号外的分号拆分语句，忽略空语句
+     */
+    static List<String> splitStatements(String statement) {
+        List<String> sentences = Lists.newArrayList();
+        char quote = 0;
+        int start = 0;
+        for (int i = 0; i < statement.length(); i++) {
+            char c = statement.charAt(i);
+            if (quote != 0) {
+                if (c == '\\') {
+                    i++;
+                } else if (c == quote) {
+                    quote = 0;
+                }
+            } else if (c == '"' || c == '\'' || c == '`') {
+                quote = c;
+            } else if (c == ';') {
+                addSentence(sentences, statement.substring(start, i));
+                start = i + 1;
+            }
+        }
+        addSentence(sentences, statement.substring(start));
+        return sentences;
+    }
+
+    private static void addSentence(List<String> sentences, String sentence) {
+        String trimmed = sentence.trim();
+        if (!trimmed.isEmpty()) {
+            sentences.add(trimmed);
+        }
+    }
+
+}
@@ -9,6 +9,8 @@ import io.github.anyzm.graph.ocean.domain.Session;
 import io.github.anyzm.graph.ocean.exception.NebulaExecuteException;
 import com.vesoft.nebula.client.graph.data.ResultSet;
 
+import java.util.Map;
+
 /**
  * Description  NebulaSession is used for
  *
@@ -28,5 +30,15 @@ public interface NebulaSession extends Session {
      */
     public ResultSet executeQuery(String statement) throws NebulaExecuteException;
 
+    /**
+     * 带绑定参数执行查询
+     *
+     * @param statement  语句，参数以 $参数名 引用
+     * @param parameters 参数名 -> 参数值
+     * @return 查询结果
+     * @throws NebulaExecuteException nebula执行异常
+     */
+    public ResultSet executeQuery(String statement, Map<String, Object> parameters) throws NebulaExecuteException;
+
 
 }
@@ -16,6 +16,8 @@ import io.github.anyzm.graph.ocean.exception.NebulaExecuteException;
 import io.github.anyzm.graph.ocean.exception.NebulaVersionConflictException;
 import lombok.extern.slf4j.Slf4j;
 
+import java.util.Collections;
+import java.util.Map;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
 
@@ -66,25 +68,39 @@ public class NebulaSessionWrapper implements NebulaSession {
 
     @Override
     public ResultSet executeQuery(String statement) throws NebulaExecuteException {
+        return executeQuery(statement, Collections.emptyMap());
+    }
+
+    @Override
+    public ResultSet executeQuery(String statement, Map<String, Object> parameters) throws NebulaExecuteException {
         ResultSet resultSet = null;
         try {
-            log.debug("executeQuery执行nebula,ngql={}", statement);
-            resultSet = this.session.execute(statement);
-
+            if (parameters.isEmpty()) {
+                log.debug("executeQuery执行nebula,ngql={}", statement);
+                resultSet = this.session.execute(statement);
+            } else {
+                log.debug("executeQuery执行nebula,ngql={},parameters={}", statement, parameters);
+                resultSet = this.session.executeWithParameter(statement, parameters);
+            }
         } catch (Exception e) {
             log.error("查询nebula异常 code:{}, msg:{}, nGql:{} ", ErrorCode.E_RPC_FAILURE, e.getMessage(), statement);
             throw new NebulaExecuteException(ErrorEnum.QUERY_NEBULA_EROR, e);
         }
         if (resultSet != null && resultSet.getErrorCode() != ErrorCode.SUCCEEDED.getValue()) {
             log.error("查询nebula异常:{},{},nGql:{}", resultSet.getErrorCode(), resultSet.getErrorMessage(), statement);
-            throw new NebulaExecuteException(ErrorEnum.QUERY_NEBULA_EROR);
+            throw new NebulaExecuteException(ErrorEnum.QUERY_NEBULA_EROR,
+                    new NebulaExecuteException(resultSet.getErrorCode(), resultSet.getErrorMessage()));
         }
         return resultSet;
     }
 
     @Override
     public QueryResult executeQueryDefined(String statement) throws NebulaExecuteException {
-        ResultSet resultSet = executeQuery(statement);
+        return executeQueryDefined(statement, Collections.emptyMap());
+    }
+
+    public QueryResult executeQueryDefined(String statement, Map<String, Object> parameters) throws NebulaExecuteException {
+        ResultSet resultSet = executeQuery(statement, parameters);
         if (!resultSet.isSucceeded()) {
             log.warn("executeQueryDefined execute fail,sql:" + statement);
             return new QueryResult();
@@ -0,0 +1,93 @@
+/* Copyright (c) 2022 com.github.anyzm. All rights reserved.
+ *
+ * This source code is licensed under Apache 2.0 License,
+ * attached with Common Clause Condition 1.0, found in the LICENSES directory.
+ */
+package io.github.anyzm.graph.ocean.engine;
+
+import io.github.anyzm.graph.ocean.annotation.GraphEdge;
+import io.github.anyzm.graph.ocean.annotation.GraphProperty;
+import io.github.anyzm.graph.ocean.annotation.GraphVertex;
+import io.github.anyzm.graph.ocean.dao.GraphTypeManager;
+import io.github.anyzm.graph.ocean.dao.impl.DefaultGraphTypeManager;
+import io.github.anyzm.graph.ocean.domain.EdgeQuery;
+import io.github.anyzm.graph.ocean.domain.GraphCondition;
+import io.github.anyzm.graph.ocean.enums.GraphDataTypeEnum;
+import io.github.anyzm.graph.ocean.enums.GraphKeyPolicy;
+import io.github.anyzm.graph.ocean.enums.GraphPropertyTypeEnum;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Collections;
+
+/**
+ * Description  NebulaQueryClauseTest is used for
+ * 查询子句：where 之后再修改条件不影响已记录的查询，管道后的 limit 不改写为 go 的 LIMIT [n]
+ *
+ * @author Anyzm
+ * Date  2026/10/18 - 10:20
+ * @version 1.0.0
+ */
+public class NebulaQueryClauseTest {
+
+    private static final String EXPECTED_SQL = "go from   \"a\"  over follow where  follow.follow_type==$p0 yield follow.follow_type";
+
+    private final GraphTypeManager graphTypeManager = new DefaultGraphTypeManager();
+
+    @Test
+    public void whereThenMutateCondition() {
+        GraphCondition condition = NebulaCondition.buildParameterized().andEquals("follow.follow_type", 1);
+        EdgeQuery query = NebulaEdgeQuery.build(graphTypeManager).goFrom(Follow.class, "a").where(condition);
+        condition.bracket();
+        condition.andEquals("follow.note", "changed");
+        query.yield("follow.follow_type");
+        Assert.assertEquals(EXPECTED_SQL, query.buildSql());
+        Assert.assertEquals(Collections.singletonMap("p0", 1), query.getParameters());
+    }
+
+    @Test
+    public void immutableWhereThenMutateCondition() {
+        GraphCondition condition = NebulaCondition.buildParameterized().andEquals("follow.follow_type", 1);
+        EdgeQuery base = NebulaImmutableEdgeQuery.build(graphTypeManager).goFrom(Follow.class, "a").where(condition);
+        EdgeQuery before = base.yield("follow.follow_type");
+        String sqlBefore = before.buildSql();
+        condition.bracket();
+        condition.andEquals("follow.note", "changed");
+        EdgeQuery after = base.yield("follow.follow_type");
+        Assert.assertEquals(EXPECTED_SQL, sqlBefore);
+        Assert.assertEquals(EXPECTED_SQL, after.buildSql());
+        Assert.assertEquals(Collections.singletonMap("p0", 1), after.getParameters());
+    }
+
+    @Test
+    public void pipedLimitStaysAfterGo() {
+        EdgeQuery query = NebulaEdgeQuery.build(graphTypeManager).goFrom(Follow.class, "a").yield("follow.follow_type").limit(5);
+        Assert.assertEquals("go from   \"a\"  over follow yield follow.follow_type | limit 5", query.buildSql());
+    }
+
+    @GraphVertex(value = "user", keyPolicy = GraphKeyPolicy.string_key)
+    public static class User {
+
+        @GraphProperty(value = "user_no", required = true, propertyTypeEnum = GraphPropertyTypeEnum.GRAPH_VERTEX_ID)
+        private String userNo;
+
+    }
+
+    @GraphEdge(value = "follow", srcVertex = User.class, dstVertex = User.class)
+    public static class Follow {
+
+        @GraphProperty(value = "user_no1", required = true, propertyTypeEnum = GraphPropertyTypeEnum.GRAPH_EDGE_SRC_ID)
+        private String userNo1;
+
+        @GraphProperty(value = "user_no2", required = true, propertyTypeEnum = GraphPropertyTypeEnum.GRAPH_EDGE_DST_ID)
+        private String userNo2;
+
+        @GraphProperty(value = "follow_type", dataType = GraphDataTypeEnum.INT)
+        private Integer followType;
+
+        @GraphProperty(value = "note", dataType = GraphDataTypeEnum.STRING)
+        private String note;
+
+    }
+
+}
@@ -0,0 +1,42 @@
+/* Copyright (c) 2022 com.github.anyzm. All rights reserved.
+ *
+ * This source code is licensed under Apache 2.0 License,
+ * attached with Common Clause Condition 1.0, found in the LICENSES directory.
+ */
+package io.github.anyzm.graph.ocean.loader;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Arrays;
+
+/**
+ * Description  NebulaBulkLoaderTest is used for
+ * csv 行解析：引号内的分隔符和转义引号正常解析，跨行的引号字段按行拒绝而不是错位
+ *
+ * @author Anyzm
+ * Date  2026/10/18 - 11:05
+ * @version 1.0.0
+ */
+public class NebulaBulkLoaderTest {
+
+    @Test
+    public void quotedDelimiterAndEscapedQuote() {
+        Assert.assertEquals(Arrays.asList("1", "a,b", "say \"hi\"", ""),
+                NebulaBulkLoader.parseCsvLine("1,\"a,b\",\"say \"\"hi\"\"\",", ','));
+    }
+
+    @Test
+    public void quotedFieldSplitAcrossLinesIsRejected() {
+        String record = "1,\"first\nsecond\",3";
+        for (String line : record.split("\n")) {
+            try {
+                NebulaBulkLoader.parseCsvLine(line, ',');
+                Assert.fail("line should be rejected: " + line);
+            } catch (RuntimeException e) {
+                Assert.assertTrue(e.getMessage().contains("Unterminated quoted field"));
+            }
+        }
+    }
+
+}